@@ -1,5 +1,7 @@
 package customOrders;
 
+import customOrders.util.Log;
+
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -17,6 +19,8 @@ import java.io.IOException;
 // La clase comienza aquí
 public class AdminAuthController {
 
+    private static final Log LOG = Log.get(AdminAuthController.class);
+
     @FXML
     private TextField usuarioText;
 
@@ -44,7 +48,7 @@ public class AdminAuthController {
             } catch (IOException e) {
                 // Manejar error de carga de Dashboard
                 showAlert(AlertType.ERROR, "Error de Carga", "No se pudo cargar la vista principal de administración (AdminDashboard.fxml).");
-                e.printStackTrace();
+                LOG.error("Error al cargar AdminDashboard.fxml.", e);
             }
 
         } else {
@@ -94,9 +98,8 @@ public class AdminAuthController {
             currentStage.show();
 
         } catch (IOException e) {
-            System.err.println("Error al cargar CustomerAuthView.fxml: " + e.getMessage());
+            LOG.error("Error al cargar CustomerAuthView.fxml.", e);
             showAlert(AlertType.ERROR, "Error de Carga", "No se pudo cargar la vista de acceso de clientes (CustomerAuthView.fxml).");
-            e.printStackTrace();
         }
     }
 
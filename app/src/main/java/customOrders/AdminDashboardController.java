@@ -1,5 +1,8 @@
 package customOrders;
 
+import customOrders.util.Log;
+
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -14,17 +17,32 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 public class AdminDashboardController implements Initializable {
 
+    private static final Log LOG = Log.get(AdminDashboardController.class);
+
+    // Módulos que se precargan tras el login, en orden de uso más probable
+    private static final List<String> WARM_UP_MODULES = List.of(
+            "/modules/OrdersView.fxml",
+            "/modules/ProductsView.fxml",
+            "/modules/ClientsView.fxml",
+            "/modules/DailyInventoryView.fxml");
+
     @FXML
     private StackPane contentArea;
 
+    // Cada módulo se carga una vez y se reutiliza en las siguientes navegaciones
+    private final ModuleRegistry modules = new ModuleRegistry(null);
+    private String currentModule;
+
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        // Al iniciar el Dashboard, podemos cargar la vista por defecto si es necesario.
-        // Por ahora, solo se muestra el mensaje de bienvenida del FXML.
+        // Al iniciar el Dashboard se muestra el mensaje de bienvenida del FXML.
+        // Los módulos más usados se precargan cuando la ventana ya está visible.
+        Platform.runLater(() -> modules.warmUp(WARM_UP_MODULES));
     }
 
     /**
@@ -39,54 +57,56 @@ public class AdminDashboardController implements Initializable {
 
         // 1. Determina qué botón fue presionado
         if (source.getId().equals("btnOrdenes")) {
-            fxmlFile = "modules/OrdersView.fxml";
+            fxmlFile = "/modules/OrdersView.fxml";
         } else if (source.getId().equals("btnClientes")) {
-            fxmlFile = "modules/ClientsView.fxml";
+            fxmlFile = "/modules/ClientsView.fxml";
         } else if (source.getId().equals("btnProductos")) {
-            fxmlFile = "modules/ProductsView.fxml";
+            fxmlFile = "/modules/ProductsView.fxml";
         } else if (source.getId().equals("btnTiposProducto")) {
-            fxmlFile = "modules/ProductTypesView.fxml";
+            fxmlFile = "/modules/ProductTypesView.fxml";
         } else if (source.getId().equals("btnProveedores")) {
-            fxmlFile = "modules/SuppliersView.fxml";
+            fxmlFile = "/modules/SuppliersView.fxml";
         } else if (source.getId().equals("btnInventario")) {
-            fxmlFile = "modules/DailyInventoryView.fxml";
+            fxmlFile = "/modules/DailyInventoryView.fxml";
+        } else if (source.getId().equals("btnDiagnostico")) {
+            fxmlFile = "/modules/DiagnosticsView.fxml";
         }
 
-        // 2. Carga el FXML en el StackPane
+        // 2. Carga el FXML en el StackPane (volver a pulsar el módulo activo refresca sus datos)
         if (fxmlFile != null) {
-            loadFXMLToContent(fxmlFile);
+            if (fxmlFile.equals(currentModule)) {
+                modules.refresh(fxmlFile);
+            } else {
+                loadFXMLToContent(fxmlFile);
+            }
         }
     }
 
     /**
-     * Carga un archivo FXML dentro del StackPane central.
-     * @param fxmlPath La ruta relativa al archivo FXML dentro de resources (e.g., "modules/ClientsView.fxml").
+     * Muestra un módulo dentro del StackPane central (cargándolo solo la primera vez).
+     * @param fxmlPath La ruta absoluta al archivo FXML dentro de resources (e.g., "/modules/ClientsView.fxml").
      */
     private void loadFXMLToContent(String fxmlPath) {
         try {
-            // Asegúrate de usar getClass().getResource() ya que fxmlPath es relativo
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/" + fxmlPath));
-            Node content = loader.load();
+            Node content = modules.get(fxmlPath).view();
 
-            // Limpia el contenido anterior del StackPane
-            contentArea.getChildren().clear();
-
-            // Agrega el nuevo contenido
-            contentArea.getChildren().add(content);
+            // Reemplaza el contenido anterior del StackPane
+            contentArea.getChildren().setAll(content);
+            currentModule = fxmlPath;
 
         } catch (IOException e) {
             // Muestra un error si no puede encontrar el archivo.
-            // Esto ocurrirá hasta que crees los FXMLs de los módulos.
-            System.err.println("Error al cargar la vista: " + fxmlPath);
-            e.printStackTrace();
+            LOG.error("Error al cargar la vista: {}", fxmlPath, e);
 
             // Mensaje de error visible en la UI
+            currentModule = null;
             contentArea.getChildren().clear();
             Label errorLabel = new Label("ERROR: No se pudo cargar el módulo '" + fxmlPath + "'. Revise que el archivo exista en la ruta correcta.");
             errorLabel.setStyle("-fx-text-fill: red; -fx-font-size: 16px;");
             contentArea.getChildren().add(errorLabel);
         }
-}
+    }
+
     @FXML
     private void handleLogout(ActionEvent event) {
         try {
@@ -103,11 +123,10 @@ public class AdminDashboardController implements Initializable {
             currentStage.centerOnScreen();
             currentStage.show();
 
-            System.out.println("Sesión de administrador cerrada exitosamente.");
+            LOG.info("Sesión de administrador cerrada exitosamente.");
 
         } catch (IOException e) {
-            System.err.println("Error al cargar AdminAuthView.fxml durante el logout: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error al cargar AdminAuthView.fxml durante el logout.", e);
         }
     }
 
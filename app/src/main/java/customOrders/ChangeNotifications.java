@@ -0,0 +1,288 @@
+package customOrders;
+
+import customOrders.util.Log;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Notificaciones de cambios entre estaciones mediante LISTEN/NOTIFY de PostgreSQL.
+ *
+ * Los triggers de db/change_notifications.sql envían un NOTIFY por cada fila insertada, modificada
+ * o borrada en products, orders, customers y suppliers. Este subsistema mantiene UNA conexión
+ * dedicada por proceso (fuera del pool) escuchando el canal, y convierte cada notificación en un
+ * {@link ChangeEvent} tipado que reparte a los suscriptores de esa tabla.
+ *
+ * Cada evento indica si lo provocó una conexión del pool de este mismo proceso ({@link ChangeEvent#local()}):
+ * quien ya actualizó sus cachés al escribir puede ignorar su propio eco.
+ * Los suscriptores se ejecutan en el hilo del listener: deben ser rápidos y, si tocan la UI,
+ * pasar al hilo de JavaFX con Platform.runLater.
+ * Al arrancar, la aplicación instala los triggers si faltan ({@link #ensureTriggers}): sin ellos no llega
+ * ningún evento y las cachés no verían los cambios de otras estaciones.
+ * Si la conexión se pierde, al reconectar se emite un evento RESYNC por tabla (las notificaciones
+ * del intervalo se han perdido y las cachés deben recargarse).
+ */
+public class ChangeNotifications {
+
+    private static final Log LOG = Log.get(ChangeNotifications.class);
+
+    public static final String CHANNEL = "customorders_changes";
+    private static final String TRIGGERS_SCRIPT = "/db/change_notifications.sql";
+
+    private static final int POLL_TIMEOUT_MS = 1_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private static final AtomicBoolean triggersRequested = new AtomicBoolean();
+
+    public enum Table {
+        PRODUCTS, ORDERS, CUSTOMERS, SUPPLIERS
+    }
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE,
+        /** Se perdieron notificaciones (reconexión): recargar todo lo cacheado de la tabla. */
+        RESYNC
+    }
+
+    /**
+     * Cambio de una fila.
+     * @param id Clave primaria de la fila (-1 en RESYNC).
+     * @param local El NOTIFY lo envió una conexión del pool de este proceso (siempre false en los RESYNC
+     *              de reconexión).
+     */
+    public record ChangeEvent(Table table, Operation operation, int id, boolean local) {
+
+        /**
+         * Interpreta el payload "tabla:OPERACIÓN:id" enviado por el trigger.
+         * @return null si el payload no es reconocido.
+         */
+        static ChangeEvent parse(String payload, boolean local) {
+            String[] parts = payload.split(":", 3);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new ChangeEvent(
+                        Table.valueOf(parts[0].toUpperCase()),
+                        Operation.valueOf(parts[1]),
+                        Integer.parseInt(parts[2]),
+                        local);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Suscripción activa. close() la da de baja.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ChangeNotifications INSTANCE = new ChangeNotifications();
+
+    public static ChangeNotifications getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<Table, List<Consumer<ChangeEvent>>> subscribers = new EnumMap<>(Table.class);
+    private Thread listenerThread;
+    private volatile boolean running;
+
+    private ChangeNotifications() {
+        for (Table table : Table.values()) {
+            subscribers.put(table, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Registra un suscriptor para los cambios de una tabla.
+     */
+    public Subscription subscribe(Table table, Consumer<ChangeEvent> subscriber) {
+        List<Consumer<ChangeEvent>> list = subscribers.get(table);
+        list.add(subscriber);
+        return () -> list.remove(subscriber);
+    }
+
+    /**
+     * Arranca el hilo listener (idempotente).
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "db-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    private void listenLoop() {
+        boolean firstConnection = true;
+        while (running) {
+            try (Connection conn = PostgresConnector.openDedicatedConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                if (!firstConnection) {
+                    // Mientras estuvimos desconectados pudo cambiar cualquier cosa
+                    for (Table table : Table.values()) {
+                        dispatch(new ChangeEvent(table, Operation.RESYNC, -1, false));
+                    }
+                }
+                firstConnection = false;
+
+                PGConnection pgConn = conn.unwrap(PGConnection.class);
+                while (running) {
+                    // Bloquea hasta POLL_TIMEOUT_MS esperando notificaciones (sin consultas de sondeo)
+                    PGNotification[] notifications = pgConn.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        ChangeEvent event = ChangeEvent.parse(notification.getParameter(),
+                                PostgresConnector.isPooledBackend(notification.getPID()));
+                        if (event != null) {
+                            dispatch(event);
+                        } else {
+                            LOG.warn("Notificación de cambio no reconocida: {}", notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                LOG.warn("Listener de cambios desconectado ({}). Reintentando en {} s...",
+                        e.getMessage(), RECONNECT_DELAY_MS / 1000);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void dispatch(ChangeEvent event) {
+        for (Consumer<ChangeEvent> subscriber : subscribers.get(event.table())) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                LOG.error("Error en suscriptor de cambios ({}): {}", event, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Desactiva las notificaciones por fila en la transacción en curso de {@code conn} (SET LOCAL, así que
+     * se restablece sola con el COMMIT/ROLLBACK). Para cargas masivas, que deben terminar con
+     * {@link #publishResync}: miles de NOTIFY individuales saturarían a los listeners de todas las estaciones.
+     */
+    public static void suppressRowNotifications(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LOCAL customorders.bulk_change = 'on'");
+        }
+    }
+
+    /**
+     * Publica un único evento RESYNC de la tabla dentro de la transacción de {@code conn}: PostgreSQL solo lo
+     * entrega si la transacción se confirma.
+     */
+    public static void publishResync(Connection conn, Table table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            ps.setString(1, CHANNEL);
+            ps.setString(2, table.name().toLowerCase() + ":" + Operation.RESYNC + ":-1");
+            ps.execute();
+        }
+    }
+
+    /**
+     * Instala los triggers de notificación si falta alguno, la primera vez que se llama en el proceso.
+     * Solo los instala si faltan (reinstalarlos bloquea brevemente las tablas observadas en todas las estaciones).
+     * La llama MainApplication al arrancar; si falla (p.ej. el usuario de la DB no es dueño de las tablas)
+     * no se reintenta y hay que ejecutar db/change_notifications.sql a mano.
+     * @return true si los ha instalado en esta llamada.
+     */
+    public static boolean ensureTriggers() throws SQLException, IOException {
+        if (!triggersRequested.compareAndSet(false, true) || countInstalledTriggers() == Table.values().length) {
+            return false;
+        }
+        installTriggers();
+        LOG.info("Triggers de notificación de cambios instalados ({}).", TRIGGERS_SCRIPT);
+        return true;
+    }
+
+    private static int countInstalledTriggers() throws SQLException {
+        String sql = "SELECT count(*) FROM pg_trigger t JOIN pg_class c ON c.oid = t.tgrelid " +
+                "WHERE NOT t.tgisinternal AND t.tgname = c.relname || '_notify_change' AND c.relname = ANY(?)";
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            String[] tables = new String[Table.values().length];
+            for (Table table : Table.values()) {
+                tables[table.ordinal()] = table.name().toLowerCase();
+            }
+            ps.setArray(1, conn.createArrayOf("text", tables));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Instala (o reinstala) la función y los triggers de notificación en la DB.
+     */
+    public static void installTriggers() throws SQLException, IOException {
+        String script;
+        try (InputStream in = ChangeNotifications.class.getResourceAsStream(TRIGGERS_SCRIPT)) {
+            if (in == null) {
+                throw new IOException("No se encontró el recurso " + TRIGGERS_SCRIPT);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = PostgresConnector.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(script);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Instalando triggers de notificación de cambios...");
+        installTriggers();
+        System.out.println("Triggers instalados. Escuchando el canal '" + CHANNEL + "' (Ctrl+C para salir)...");
+
+        ChangeNotifications notifications = getInstance();
+        for (Table table : Table.values()) {
+            notifications.subscribe(table, event -> System.out.println("Cambio recibido: " + event));
+        }
+        notifications.start();
+        Thread.currentThread().join();
+    }
+}
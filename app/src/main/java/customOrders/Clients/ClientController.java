@@ -8,6 +8,9 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import customOrders.Customer;
 import customOrders.CustomerManager;
+import customOrders.Refreshable;
+import customOrders.util.DbLoader;
+import customOrders.util.Log;
 
 import java.net.URL;
 import java.sql.SQLException;
@@ -19,7 +22,9 @@ import java.util.ResourceBundle;
  * Controlador de la vista de Clientes (ADMIN).
  * Permite al administrador realizar operaciones CRUD completas sobre la tabla de clientes.
  */
-public class ClientController implements Initializable {
+public class ClientController implements Initializable, Refreshable {
+
+    private static final Log LOG = Log.get(ClientController.class);
 
     // Usamos el Manager compartido para la lógica de base de datos.
     private final CustomerManager customerManager = new CustomerManager();
@@ -46,6 +51,8 @@ public class ClientController implements Initializable {
     @FXML private Button deleteButton;
 
     private ObservableList<Customer> customerData;
+    // Carga de la tabla fuera del hilo de JavaFX
+    private final DbLoader<List<Customer>> customerLoader = new DbLoader<>();
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -61,6 +68,7 @@ public class ClientController implements Initializable {
         // 2. Inicializar la tabla y cargar datos
         customerData = FXCollections.observableArrayList();
         customerTable.setItems(customerData);
+        customerLoader.showProgressOn(customerTable);
         loadCustomerData();
 
         // 3. Configurar el listener de selección de la tabla para mostrar detalles
@@ -199,26 +207,27 @@ public class ClientController implements Initializable {
 
         } catch (SQLException e) {
             setMessage("ERROR de DB al guardar: " + e.getMessage(), true);
-            e.printStackTrace();
+            LOG.error("Error de DB al guardar el cliente.", e);
         }
     }
 
     /**
      * Carga todos los clientes de la base de datos y actualiza la tabla (READ).
+     * La consulta se ejecuta en segundo plano; la tabla se actualiza en el hilo de JavaFX.
      */
     @FXML
     public void loadCustomerData() {
-        try {
-            List<Customer> customers = customerManager.getAllCustomers();
-            customerData.clear();
-            customerData.addAll(customers);
-            setMessage("Clientes cargados: " + customers.size(), false);
-
-        } catch (SQLException e) {
-            setMessage("Error al cargar los datos de clientes. Verifique la conexión DB.", true);
-            showAlert(Alert.AlertType.ERROR, "Error de Conexión",
-                    "No se pudieron cargar los clientes.", "Detalles: " + e.getMessage());
-        }
+        setMessage("Cargando clientes...", false);
+        customerLoader.load(customerManager::getAllCustomers,
+                customers -> {
+                    customerData.setAll(customers);
+                    setMessage("Clientes cargados: " + customers.size(), false);
+                },
+                e -> {
+                    setMessage("Error al cargar los datos de clientes. Verifique la conexión DB.", true);
+                    showAlert(Alert.AlertType.ERROR, "Error de Conexión",
+                            "No se pudieron cargar los clientes.", "Detalles: " + e.getMessage());
+                });
     }
 
     /**
@@ -313,4 +322,12 @@ public class ClientController implements Initializable {
         alert.setContentText(content);
         alert.showAndWait();
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar la lista de clientes. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadCustomerData();
+    }
+}
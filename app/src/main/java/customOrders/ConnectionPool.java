@@ -0,0 +1,481 @@
+package customOrders;
+
+import customOrders.util.Log;
+import org.postgresql.PGConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de conexiones JDBC acotado (min/max) usado internamente por {@link PostgresConnector}.
+ *
+ * - Reutiliza conexiones físicas para evitar el handshake TCP + autenticación en cada consulta.
+ * - Valida la conexión al prestarla (salvo si se usó hace menos de {@link #VALIDATION_BYPASS_MILLIS}).
+ * - Expulsa conexiones ociosas por encima del mínimo y detecta préstamos retenidos demasiado tiempo (fugas).
+ * - Registra métricas de espera del pool ({@link #getStats()}).
+ *
+ * Las conexiones entregadas son proxies: llamar a close() las devuelve al pool en lugar de cerrarlas,
+ * por lo que el código existente con try-with-resources no necesita cambios.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    // Si la conexión se usó hace menos de este tiempo, se omite la validación (ahorra un round-trip).
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+    /**
+     * Foto instantánea de las métricas del pool.
+     */
+    public record PoolStats(int totalConnections, int idleConnections, int activeConnections,
+                            long borrows, long waitTimeouts, double avgWaitMillis, double maxWaitMillis,
+                            long created, long evicted, long validationFailures, long leaksDetected) {
+        @Override
+        public String toString() {
+            return String.format("Pool[total=%d, ociosas=%d, activas=%d, préstamos=%d, timeouts=%d, " +
+                            "espera media=%.3f ms, espera máx=%.3f ms, creadas=%d, expulsadas=%d, " +
+                            "validaciones fallidas=%d, fugas=%d]",
+                    totalConnections, idleConnections, activeConnections, borrows, waitTimeouts,
+                    avgWaitMillis, maxWaitMillis, created, evicted, validationFailures, leaksDetected);
+        }
+    }
+
+    // --- Configuración ---
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    // PID del proceso servidor de cada conexión física viva (ver ownsBackend)
+    private final Set<Integer> backendPids = ConcurrentHashMap.newKeySet();
+
+    // --- Estado (protegido por 'lock') ---
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<PooledEntry> idle = new ArrayDeque<>(); // LIFO: la más reciente primero
+    private int totalConnections = 0;
+    private boolean closed = false;
+
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+
+    // --- Métricas ---
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder waitTimeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+
+    /**
+     * @param minSize Conexiones que se mantienen abiertas aunque estén ociosas.
+     * @param maxSize Máximo de conexiones físicas simultáneas.
+     * @param maxWaitMillis Tiempo máximo de espera por una conexión libre antes de lanzar SQLTimeoutException.
+     * @param idleTimeoutMillis Tiempo tras el cual una conexión ociosa (por encima de minSize) se cierra.
+     * @param leakThresholdMillis Tiempo de préstamo a partir del cual se informa una posible fuga (0 = desactivado).
+     */
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presta una conexión del pool (o crea una nueva si no se alcanzó el máximo).
+     * La conexión devuelta vuelve al pool al llamar a close().
+     * @throws SQLTimeoutException Si no hay conexión disponible dentro de maxWaitMillis.
+     */
+    public Connection getConnection() throws SQLException {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        while (true) {
+            PooledEntry entry;
+            boolean mustCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("El pool de conexiones está cerrado.");
+                    }
+                    entry = idle.pollFirst();
+                    if (entry != null) {
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++; // Reservamos el hueco antes de abrir fuera del lock
+                        mustCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        waitTimeouts.increment();
+                        throw new SQLTimeoutException("No hay conexiones disponibles tras " + maxWaitMillis +
+                                " ms (máximo " + maxSize + " conexiones en uso).");
+                    }
+                    available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido mientras se esperaba una conexión del pool.", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (mustCreate) {
+                try {
+                    entry = new PooledEntry(openPhysicalConnection());
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else if (!validate(entry)) {
+                validationFailures.increment();
+                discard(entry);
+                continue; // Intentar con otra conexión
+            }
+
+            long waited = System.nanoTime() - start;
+            borrows.increment();
+            waitNanosTotal.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = leakThresholdMillis > 0 ? new Throwable("Conexión prestada aquí") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+            return entry.newProxy();
+        }
+    }
+
+    /**
+     * Devuelve las métricas actuales del pool.
+     */
+    public PoolStats getStats() {
+        int total;
+        int idleCount;
+        lock.lock();
+        try {
+            total = totalConnections;
+            idleCount = idle.size();
+        } finally {
+            lock.unlock();
+        }
+        long count = borrows.sum();
+        double avgWait = count == 0 ? 0.0 : waitNanosTotal.sum() / (double) count / 1_000_000.0;
+        return new PoolStats(total, idleCount, borrowed.size(), count, waitTimeouts.sum(),
+                avgWait, maxWaitNanos.get() / 1_000_000.0,
+                created.sum(), evicted.sum(), validationFailures.sum(), leaksDetected.sum());
+    }
+
+    /**
+     * Cierra todas las conexiones ociosas y marca el pool como cerrado.
+     * Las conexiones prestadas se cierran físicamente cuando se devuelven.
+     */
+    @Override
+    public void close() {
+        List<PooledEntry> toClose;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            totalConnections -= toClose.size();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(PooledEntry::closeQuietly);
+    }
+
+    /**
+     * true si {@code backendPid} es el proceso servidor de una conexión física viva de este pool.
+     * Sirve para reconocer los NOTIFY provocados por las escrituras de este mismo proceso.
+     */
+    public boolean ownsBackend(int backendPid) {
+        return backendPids.contains(backendPid);
+    }
+
+    // --- Lógica interna ---
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        created.increment();
+        return physical;
+    }
+
+    // Lo envía el servidor al conectar (BackendKeyData): no cuesta un round-trip
+    private static int backendPidOf(Connection physical) {
+        try {
+            return physical.unwrap(PGConnection.class).getBackendPID();
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    private boolean validate(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastReturnedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Llamado por el proxy al hacer close(): restablece el estado y devuelve la conexión al pool.
+     */
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        try {
+            if (entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            // Restablecer el estado que el código llamador pudo haber cambiado
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.physical.clearWarnings();
+        } catch (SQLException e) {
+            discard(entry);
+            return;
+        }
+
+        entry.lastReturnedAt = System.currentTimeMillis();
+        entry.borrowSite = null;
+
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(entry);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(entry);
+    }
+
+    private void discard(PooledEntry entry) {
+        entry.closeQuietly();
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tarea periódica: expulsa conexiones ociosas, repone el mínimo e informa posibles fugas.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // 1. Expulsar ociosas por encima del mínimo (las más antiguas están al final de la cola)
+        List<PooledEntry> toEvict = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections - toEvict.size() > minSize) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastReturnedAt > idleTimeoutMillis) {
+                    it.remove();
+                    toEvict.add(entry);
+                }
+            }
+            totalConnections -= toEvict.size();
+        } finally {
+            lock.unlock();
+        }
+        toEvict.forEach(PooledEntry::closeQuietly);
+        evicted.add(toEvict.size());
+
+        // 2. Reponer hasta el mínimo
+        fillToMinimum();
+
+        // 3. Detección de fugas
+        if (leakThresholdMillis > 0) {
+            for (PooledEntry entry : borrowed) {
+                if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis) {
+                    entry.leakReported = true;
+                    leaksDetected.increment();
+                    // borrowSite (si se registra) lleva la traza de quien la pidió
+                    LOG.warn("Posible fuga de conexión, prestada hace {} ms sin devolver.",
+                            now - entry.borrowedAt, entry.borrowSite);
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) return;
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledEntry entry = new PooledEntry(openPhysicalConnection());
+                entry.lastReturnedAt = System.currentTimeMillis();
+                lock.lock();
+                try {
+                    idle.addLast(entry);
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                releaseSlot();
+                LOG.warn("No se pudo reponer el mínimo de conexiones: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Conexión física administrada por el pool.
+     */
+    private final class PooledEntry {
+        private final Connection physical;
+        private final int backendPid;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.backendPid = backendPidOf(physical);
+            this.lastReturnedAt = System.currentTimeMillis();
+            if (backendPid > 0) {
+                backendPids.add(backendPid);
+            }
+        }
+
+        /**
+         * Crea un proxy nuevo por préstamo, para que un close() duplicado o el uso tras close()
+         * no afecten al siguiente usuario de la misma conexión física.
+         */
+        private Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ProxyHandler(this));
+        }
+
+        private void closeQuietly() {
+            backendPids.remove(backendPid);
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // La conexión se descarta de todos modos
+            }
+        }
+    }
+
+    private final class ProxyHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+
+        private ProxyHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("La conexión ya fue devuelta al pool.");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
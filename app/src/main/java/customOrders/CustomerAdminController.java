@@ -1,5 +1,7 @@
 package customOrders;
 
+import customOrders.util.DbLoader;
+import customOrders.util.Log;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -9,12 +11,13 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.ResourceBundle;
 
 public class CustomerAdminController implements Initializable {
 
+    private static final Log LOG = Log.get(CustomerAdminController.class);
+
     // Instancia de tu Manager (CRUD) para acceder a los datos
     private CustomerManager customerManager = new CustomerManager();
 
@@ -29,6 +32,8 @@ public class CustomerAdminController implements Initializable {
 
     // Lista de datos que se vinculará a la tabla
     private ObservableList<Customer> customerData;
+    // Carga de la tabla fuera del hilo de JavaFX
+    private final DbLoader<List<Customer>> customerLoader = new DbLoader<>();
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -54,19 +59,14 @@ public class CustomerAdminController implements Initializable {
      * Carga todos los clientes de la base de datos y actualiza la tabla.
      */
     public void loadCustomerData() {
-        try {
-            // Llama al método READ del Manager
-            List<Customer> customers = customerManager.getAllCustomers();
-
-            customerData.clear();
-            customerData.addAll(customers);
-
-            System.out.println("Clientes cargados: " + customers.size());
-
-        } catch (SQLException e) {
-            System.err.println("Error al cargar los datos de clientes: " + e.getMessage());
-            // Se debe notificar visualmente al usuario si hay un fallo de conexión
-        }
+        // Llama al método READ del Manager en segundo plano
+        customerLoader.load(customerManager::getAllCustomers,
+                customers -> {
+                    customerData.setAll(customers);
+                    LOG.debug("Clientes cargados: {}", customers.size());
+                },
+                // Se debe notificar visualmente al usuario si hay un fallo de conexión
+                e -> LOG.error("Error al cargar los datos de clientes: {}", e.getMessage()));
     }
 
     // 💡 Aquí se añadirán los métodos para los botones de la interfaz
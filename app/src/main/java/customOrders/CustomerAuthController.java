@@ -1,5 +1,7 @@
 package customOrders;
 
+import customOrders.util.Log;
+
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -17,6 +19,8 @@ import java.sql.SQLException;
 
 public class CustomerAuthController {
 
+    private static final Log LOG = Log.get(CustomerAuthController.class);
+
     // Componentes FXML inyectados desde la vista
     @FXML private TextField emailSearchField;
     @FXML private Button mainActionButton;
@@ -50,7 +54,7 @@ public class CustomerAuthController {
 
             if (customer != null) {
                 // Cliente encontrado: Acceso exitoso
-                System.out.println("Cliente encontrado. ID: " + customer.getCustomerID());
+                LOG.info("Cliente encontrado. ID: {}", customer.getCustomerID());
                 accessCustomerDashboard(customer);
             } else {
                 // Cliente NO encontrado: Preparar para registro
@@ -63,7 +67,7 @@ public class CustomerAuthController {
                 registrationFormVBox.setManaged(true);
             }
         } catch (SQLException e) {
-            System.err.println("Error de base de datos al buscar cliente: " + e.getMessage());
+            LOG.error("Error de base de datos al buscar cliente: {}", e.getMessage());
             messageLabel.setText("ERROR de conexión: Verifique la base de datos.");
         }
     }
@@ -91,14 +95,14 @@ public class CustomerAuthController {
 
             if (newId > 0) {
                 newCustomer.setCustomerID(newId);
-                System.out.println("Nuevo cliente registrado exitosamente. ID asignado: " + newId);
+                LOG.info("Nuevo cliente registrado exitosamente. ID asignado: {}", newId);
 
                 accessCustomerDashboard(newCustomer);
             } else {
                 messageLabel.setText("Error al registrar: No se generó un ID válido.");
             }
         } catch (SQLException e) {
-            System.err.println("Error de base de datos al registrar el cliente: " + e.getMessage());
+            LOG.error("Error de base de datos al registrar el cliente: {}", e.getMessage());
             messageLabel.setText("ERROR de registro: Revise los datos y la conexión.");
         }
     }
@@ -130,7 +134,7 @@ public class CustomerAuthController {
             currentStage.show();
 
         } catch (IOException e) {
-            System.err.println("Error al cargar la vista del Dashboard del Cliente: " + e.getMessage());
+            LOG.error("Error al cargar la vista del Dashboard del Cliente: {}", e.getMessage());
             messageLabel.setText("ERROR: No se pudo cargar el dashboard principal. Asegúrate de tener 'CustomerDashboard.fxml'.");
         }
     }
@@ -153,7 +157,7 @@ public class CustomerAuthController {
             currentStage.show();
 
         } catch (IOException e) {
-            System.err.println("Error al cargar AdminAuthView.fxml: " + e.getMessage());
+            LOG.error("Error al cargar AdminAuthView.fxml: {}", e.getMessage());
         }
     }
 }
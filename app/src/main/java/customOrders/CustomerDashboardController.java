@@ -1,5 +1,6 @@
 package customOrders;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -14,13 +15,17 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 // 🚨 IMPORTACIÓN CORREGIDA: Ahora importa la interfaz desde su propio archivo
 import customOrders.CustomerAware;
+import customOrders.util.Log;
 
 public class CustomerDashboardController implements Initializable {
 
+    private static final Log LOG = Log.get(CustomerDashboardController.class);
+
     @FXML
     private StackPane contentArea;
 
@@ -30,9 +35,16 @@ public class CustomerDashboardController implements Initializable {
     @FXML
     private Label menuTitleLabel; // Etiqueta del título del menú
 
+    private static final String CREATE_ORDER_VIEW = "/modules/customer/CreateOrderView.fxml";
+    private static final String VIEW_ORDERS_VIEW = "/modules/customer/ViewOrdersView.fxml";
+
     // Almacena el cliente que ha iniciado sesión
     private Customer currentCustomer;
 
+    // Módulos cargados una vez por sesión (con el cliente ya inyectado en su controlador)
+    private ModuleRegistry modules;
+    private String currentModule;
+
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         // El dashboard está inicializado, pero esperamos al cliente
@@ -49,8 +61,12 @@ public class CustomerDashboardController implements Initializable {
         if (customer != null) {
             welcomeLabel.setText("Bienvenido, " + customer.getFirstName() + ". Seleccione una opción del menú.");
             menuTitleLabel.setText(customer.getFirstName().toUpperCase() + "'S MENU");
-            // DEBUG para asegurar que el ID del cliente fue cargado en el Dashboard
-            System.out.println("DEBUG (Dashboard): Cliente ID cargado en Dashboard: " + customer.getCustomerID());
+            LOG.debug("Cliente ID cargado en Dashboard: {}", customer.getCustomerID());
+
+            // Registro nuevo por cliente: los módulos precargados ya llevan el cliente inyectado
+            modules = new ModuleRegistry(this::injectCustomer);
+            // Precarga tras mostrar la ventana: primero la tienda, luego el historial de pedidos
+            Platform.runLater(() -> modules.warmUp(List.of(CREATE_ORDER_VIEW, VIEW_ORDERS_VIEW)));
         }
     }
 
@@ -65,70 +81,52 @@ public class CustomerDashboardController implements Initializable {
 
         // 1. Determina qué botón fue presionado
         if (source.getId().equals("btnCrearOrden")) {
-            // 🛑 RUTA CORREGIDA: Usando la ubicación modules/resources/
-            fxmlFile = "/modules/customer/CreateOrderView.fxml";
+            fxmlFile = CREATE_ORDER_VIEW;
         } else if (source.getId().equals("btnVerOrdenes")) {
-            // Asumiendo una ruta similar para la vista de órdenes
-            fxmlFile = "/modules/customer/ViewOrdersView.fxml";
+            fxmlFile = VIEW_ORDERS_VIEW;
         }
 
-        // 2. Carga el FXML en el StackPane
+        // 2. Carga el FXML en el StackPane (volver a pulsar el módulo activo refresca sus datos)
         if (fxmlFile != null) {
-            loadFXMLToContent(fxmlFile);
+            if (fxmlFile.equals(currentModule)) {
+                modules.refresh(fxmlFile);
+            } else {
+                loadFXMLToContent(fxmlFile);
+            }
         }
     }
 
     /**
-     * Carga un archivo FXML dentro del StackPane central.
-     * Pasa el objeto Customer al controlador del módulo cargado.
+     * Muestra un módulo dentro del StackPane central (cargándolo solo la primera vez).
+     * El controlador del módulo recibe el objeto Customer al cargarse (ver injectCustomer).
      */
     private void loadFXMLToContent(String fxmlPath) {
 
         // 1. Verificación Estricta del Cliente
-        if (currentCustomer == null) {
+        if (currentCustomer == null || modules == null) {
             welcomeLabel.setText("Error fatal: El cliente de la sesión es nulo.");
             return;
         }
 
-        // 2. Carga de la Vista
+        // 2. Carga (o reutilización) de la Vista
         try {
-            // CRÍTICO: Obtener el recurso URL primero y verificar si es nulo
-            URL fxmlUrl = getClass().getResource(fxmlPath);
+            boolean alreadyLoaded = modules.isLoaded(fxmlPath);
+            Node content = modules.get(fxmlPath).view();
 
-            if (fxmlUrl == null) {
-                // Si el recurso no se encuentra, lanzar una excepción informativa
-                throw new IOException("El archivo FXML no se encontró en la ruta: " + fxmlPath +
-                        ". Verifique la ruta en el classpath. (Path usado: " + fxmlPath + ")");
+            // El historial cambia con cada pedido hecho en esta sesión: se refresca al volver a él
+            if (alreadyLoaded && fxmlPath.equals(VIEW_ORDERS_VIEW)) {
+                modules.refresh(fxmlPath);
             }
 
-            // Continuar la carga si el URL es válido
-            FXMLLoader loader = new FXMLLoader(fxmlUrl);
-            Node content = loader.load();
-
-            // 3. Inyección del Cliente al Sub-Controlador
-            Object controller = loader.getController();
-
-            // Verifica que el controlador no sea nulo y que implemente la interfaz CustomerAware (ahora importada)
-            if (controller != null && controller instanceof CustomerAware) {
-                // 🚨 Esta es la línea crítica para inyectar el cliente
-                ((CustomerAware) controller).setCustomer(currentCustomer);
-                System.out.println("DEBUG (Dashboard): Cliente " + currentCustomer.getCustomerID() + " inyectado en " + controller.getClass().getSimpleName());
-            } else if (controller == null) {
-                System.err.println("Advertencia: El FXML " + fxmlPath + " se cargó, pero no se encontró el controlador (fx:controller missing).");
-            } else {
-                // Caso donde el controlador existe, pero no implementa CustomerAware
-                System.err.println("Advertencia: El controlador " + controller.getClass().getSimpleName() + " no implementa CustomerAware.");
-            }
-
-            // 4. Mostrar Contenido
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(content);
+            // 3. Mostrar Contenido
+            contentArea.getChildren().setAll(content);
+            currentModule = fxmlPath;
 
         } catch (IOException e) {
             // Manejo de error si el FXML no existe o si falla la inicialización del controlador (la causa más común)
-            System.err.println("Error CRÍTICO al cargar la vista: " + fxmlPath);
-            e.printStackTrace();
+            LOG.error("Error CRÍTICO al cargar la vista: {}", fxmlPath, e);
 
+            currentModule = null;
             contentArea.getChildren().clear();
             Label errorLabel = new Label("ERROR CRÍTICO: No se pudo cargar el módulo '" + fxmlPath + "'. Revise la ruta o la estructura interna del FXML.");
             errorLabel.setStyle("-fx-text-fill: red; -fx-font-size: 16px;");
@@ -136,6 +134,21 @@ public class CustomerDashboardController implements Initializable {
         }
     }
 
+    /**
+     * Inyección del Cliente al Sub-Controlador recién cargado.
+     */
+    private void injectCustomer(Object controller) {
+        // Verifica que el controlador implemente la interfaz CustomerAware
+        if (controller instanceof CustomerAware customerAware) {
+            // 🚨 Esta es la línea crítica para inyectar el cliente
+            customerAware.setCustomer(currentCustomer);
+            LOG.debug("Cliente {} inyectado en {}", currentCustomer.getCustomerID(), controller.getClass().getSimpleName());
+        } else {
+            // Caso donde el controlador existe, pero no implementa CustomerAware
+            LOG.warn("El controlador {} no implementa CustomerAware.", controller.getClass().getSimpleName());
+        }
+    }
+
     /**
      * Maneja el cierre de sesión, regresando a la pantalla de autenticación de cliente.
      */
@@ -155,7 +168,7 @@ public class CustomerDashboardController implements Initializable {
             currentStage.show();
 
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Error al cargar CustomerAuthView.fxml durante el logout.", e);
         }
     }
 }
\ No newline at end of file
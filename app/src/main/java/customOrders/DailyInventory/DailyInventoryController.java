@@ -1,9 +1,11 @@
 package customOrders.DailyInventory;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.concurrent.Task;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.cell.TextFieldTableCell;
@@ -12,27 +14,38 @@ import javafx.util.converter.IntegerStringConverter;
 import customOrders.DailyInventory.DailyInventory;
 import customOrders.DailyInventory.DailyInventoryManager;
 import customOrders.DailyInventory.ProductInventoryView;
-import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductStock;
+import customOrders.Refreshable;
+import customOrders.util.DbExecutor;
+import customOrders.util.DbLoader;
+import customOrders.util.IntIntMap;
+import customOrders.util.Log;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
  * Vista/Controlador de JavaFX para la gestión del Inventario Diario.
  */
-public class DailyInventoryController implements Initializable {
+public class DailyInventoryController implements Initializable, Refreshable {
+
+    private static final Log LOG = Log.get(DailyInventoryController.class);
 
     private final DailyInventoryManager manager = new DailyInventoryManager();
     private final ObservableList<ProductInventoryView> inventoryList = FXCollections.observableArrayList();
+    // Carga de la tabla fuera del hilo de JavaFX (cancela cargas de fechas anteriores)
+    private final DbLoader<List<ProductInventoryView>> inventoryLoader = new DbLoader<>();
     private LocalDate selectedDate = LocalDate.now();
+    // Exportación CSV en curso (null si no hay ninguna)
+    private final DailyInventoryCsvExporter csvExporter = new DailyInventoryCsvExporter();
+    private Task<DailyInventoryCsvExporter.ExportResult> exportTask;
 
     // --- Componentes FXML ---
     @FXML private TableView<ProductInventoryView> inventoryTable;
@@ -48,6 +61,9 @@ public class DailyInventoryController implements Initializable {
     @FXML private Button saveButton;
     @FXML private Button downloadCsvButton;
     @FXML private Button countZeroButton;
+    @FXML private DatePicker exportFromPicker;
+    @FXML private DatePicker exportToPicker;
+    @FXML private ProgressBar exportProgressBar;
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -92,6 +108,7 @@ public class DailyInventoryController implements Initializable {
 
 
         inventoryTable.setItems(inventoryList);
+        inventoryLoader.showProgressOn(inventoryTable);
 
         // 3. Configurar DatePicker
         datePicker.setValue(selectedDate);
@@ -102,68 +119,59 @@ public class DailyInventoryController implements Initializable {
             }
         });
 
+        // Rango de exportación CSV: por defecto, el día seleccionado
+        exportFromPicker.setValue(selectedDate);
+        exportToPicker.setValue(selectedDate);
+        exportProgressBar.setVisible(false);
+
         // 4. Carga inicial
         loadInventoryForSelectedDate();
         messageLabel.setText("Módulo de Inventario Diario cargado. Listo para conteo.");
     }
 
     /**
-     * Método auxiliar para obtener el historial, declarando que lanza SQLException.
-     * Esta es la forma más limpia de manejar la excepción fuera del stream.
-     * @param productId ID del producto
-     * @param date Fecha del inventario
-     * @return Optional<DailyInventory>
-     * @throws SQLException Si ocurre un error de base de datos.
+     * Carga todos los productos y busca el inventario histórico para la fecha seleccionada.
+     * Las consultas se ejecutan fuera del hilo de JavaFX; si se cambia de fecha antes de que termine,
+     * la carga anterior se cancela y su resultado se descarta.
      */
-    private Optional<DailyInventory> getHistoricEntry(int productId, LocalDate date) throws SQLException {
-        // Eliminamos el try-catch aquí. La SQLException se lanza y el método principal la captura.
-        return manager.getInventoryLevelByDate(productId, date);
+    @FXML
+    private void loadInventoryForSelectedDate() {
+        final LocalDate date = selectedDate;
+        messageLabel.setText("Cargando inventario para la fecha: " + date + "...");
+
+        inventoryLoader.load(() -> buildInventoryView(date),
+                newViewList -> {
+                    inventoryList.setAll(newViewList);
+                    messageLabel.setText("Inventario cargado para la fecha: " + date + ". Registros encontrados: " + inventoryList.size());
+                },
+                e -> {
+                    if (e instanceof SQLException) {
+                        messageLabel.setText("ERROR de DB al cargar inventario: " + e.getMessage());
+                        LOG.error("Error de DB al cargar inventario: {}", e.getMessage());
+                    } else {
+                        messageLabel.setText("ERROR inesperado al cargar inventario: " + e.getMessage());
+                        LOG.error("Error inesperado al cargar inventario.", e);
+                    }
+                });
     }
 
-
     /**
-     * Carga todos los productos y busca el inventario histórico para la fecha seleccionada.
+     * Construye las filas de la tabla (producto + nivel histórico). Se ejecuta en segundo plano.
      */
-    @FXML
-    private void loadInventoryForSelectedDate() {
-        try {
-            List<Product> products = manager.getAllProducts();
-
-            // Usamos un mapeo que lanza la excepción chequeada.
-            // Esto es necesario para que el stream sepa que hay una checked exception.
-            List<ProductInventoryView> newViewList = products.stream()
-                    .map(p -> {
-                        try {
-                            // Llama al método auxiliar que ahora lanza SQLException
-                            Optional<DailyInventory> historicEntry = getHistoricEntry(p.getProduct_id(), selectedDate);
-
-                            Integer historicLevel = historicEntry.map(DailyInventory::getLevel).orElse(null);
-                            return new ProductInventoryView(p, historicLevel);
-                        } catch (SQLException e) {
-                            // Envolvemos la checked exception en una unchecked temporalmente
-                            throw new RuntimeException("DB Error loading historic entry for product " + p.getProduct_id() + ": " + e.getMessage(), e);
-                        }
-                    })
-                    .collect(Collectors.toList());
-
-            inventoryList.setAll(newViewList);
-            messageLabel.setText("Inventario cargado para la fecha: " + selectedDate + ". Registros encontrados: " + inventoryList.size());
-
-        } catch (SQLException e) {
-            // Captura de SQLException: Para manager.getAllProducts()
-            messageLabel.setText("ERROR de DB al cargar productos: " + e.getMessage());
-            System.err.println("SQL Error: " + e.getMessage());
-        } catch (RuntimeException re) {
-            // Captura de RuntimeException: Si vino del stream (cuando getHistoricEntry falla)
-            if (re.getCause() instanceof SQLException) {
-                SQLException sqlE = (SQLException) re.getCause();
-                messageLabel.setText("ERROR de DB al buscar histórico: " + sqlE.getMessage());
-                System.err.println("SQL Error (Historic): " + sqlE.getMessage());
-            } else {
-                messageLabel.setText("ERROR inesperado al cargar inventario: " + re.getMessage());
-                System.err.println("Runtime Error: " + re.getMessage());
-            }
+    private List<ProductInventoryView> buildInventoryView(LocalDate date) throws SQLException {
+        List<ProductStock> products = manager.getProductStocks();
+        // Una sola consulta para todos los niveles históricos de la fecha
+        IntIntMap historicLevels = manager.getInventoryLevelsByDate(date);
+        List<ProductInventoryView> newViewList = new ArrayList<>(products.size());
+
+        for (ProductStock p : products) {
+            int productId = p.productId();
+            Integer historicLevel = historicLevels.containsKey(productId)
+                    ? historicLevels.getOrDefault(productId, 0)
+                    : null;
+            newViewList.add(new ProductInventoryView(p, historicLevel));
         }
+        return newViewList;
     }
 
     /**
@@ -180,7 +188,7 @@ public class DailyInventoryController implements Initializable {
                 .filter(item -> item.getNewLevel() >= 0)
                 .map(item -> new DailyInventory(
                         selectedDate,
-                        item.getProduct().getProduct_id(),
+                        item.getProduct_id(),
                         item.getNewLevel()
                 ))
                 .collect(Collectors.toList());
@@ -190,17 +198,25 @@ public class DailyInventoryController implements Initializable {
             return;
         }
 
-        try {
-            manager.saveDailyInventory(entriesToSave);
-
-            // CORRECCIÓN CLAVE: El mensaje ahora indica SOLO el guardado histórico
-            messageLabel.setText("ÉXITO: Inventario de " + entriesToSave.size() + " productos guardado en el historial.");
-
-            loadInventoryForSelectedDate();
-        } catch (SQLException e) {
-            messageLabel.setText("ERROR de DB al guardar el inventario: " + e.getMessage());
-            System.err.println("SQL Error: " + e.getMessage());
-        }
+        // El guardado se ejecuta en segundo plano; el botón queda deshabilitado mientras tanto
+        saveButton.setDisable(true);
+        messageLabel.setText("Guardando inventario de " + entriesToSave.size() + " productos...");
+
+        DbExecutor.submit(() -> {
+                    manager.saveDailyInventory(entriesToSave);
+                    return null;
+                },
+                ignored -> {
+                    saveButton.setDisable(false);
+                    // CORRECCIÓN CLAVE: El mensaje ahora indica SOLO el guardado histórico
+                    messageLabel.setText("ÉXITO: Inventario de " + entriesToSave.size() + " productos guardado en el historial.");
+                    loadInventoryForSelectedDate();
+                },
+                e -> {
+                    saveButton.setDisable(false);
+                    messageLabel.setText("ERROR de DB al guardar el inventario: " + e.getMessage());
+                    LOG.error("Error de DB al guardar el inventario: {}", e.getMessage());
+                });
     }
 
     /**
@@ -220,50 +236,115 @@ public class DailyInventoryController implements Initializable {
     }
 
     /**
-     * Maneja la descarga del archivo CSV.
+     * Maneja la descarga del archivo CSV: exporta el histórico (daily_inventory) del rango de fechas elegido.
+     * La exportación se hace en segundo plano leyendo directamente de la DB, con barra de progreso;
+     * mientras se ejecuta, el mismo botón la cancela.
+     *
+     * cancel() pasa el Task a CANCELLED al momento, pero el hilo que exporta sigue hasta su siguiente
+     * comprobación; por eso el botón queda deshabilitado y exportTask no se libera hasta que ese hilo termina
+     * (si no, una segunda exportación podría empezar y la primera sobrescribir su archivo al acabar).
      */
     @FXML
     private void handleDownloadCsv() {
-        if (inventoryList.isEmpty()) {
-            messageLabel.setText("No hay datos para exportar.");
+        if (exportTask != null) {
+            exportTask.cancel(true);
+            downloadCsvButton.setDisable(true);
+            downloadCsvButton.setText("CANCELANDO...");
+            return;
+        }
+
+        LocalDate from = exportFromPicker.getValue();
+        LocalDate to = exportToPicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            messageLabel.setText("Seleccione un rango de fechas válido para exportar (desde <= hasta).");
             return;
         }
 
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Guardar Inventario Diario CSV");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files (*.csv)", "*.csv"));
-        fileChooser.setInitialFileName("inventario_diario_" + selectedDate.toString() + ".csv");
+        fileChooser.setInitialFileName(from.equals(to)
+                ? "inventario_diario_" + from + ".csv"
+                : "inventario_diario_" + from + "_" + to + ".csv");
 
         File file = fileChooser.showSaveDialog(inventoryTable.getScene().getWindow());
+        if (file == null) {
+            messageLabel.setText("Exportación CSV cancelada.");
+            return;
+        }
 
-        if (file != null) {
-            // Solo se captura IOException.
-            try (FileWriter fileWriter = new FileWriter(file)) {
-
-                // Encabezados
-                fileWriter.append("ID,Nombre,Stock Maestro,Stock Histórico,Stock Contado,Estado\n");
-
-                // Contenido
-                for (ProductInventoryView item : inventoryList) {
-                    fileWriter.append(String.format("%d,\"%s\",%d,%s,%d,\"%s\"\n",
-                            item.getProduct_id(),
-                            item.getProduct_name(),
-                            item.getMasterQuantity(),
-                            item.getHistoricLevelDisplay() != null ? String.valueOf(item.getHistoricLevelDisplay()) : "N/A",
-                            item.getNewLevelDisplay(),
-                            item.getStatus()
-                    ));
+        // Lo marca el hilo que exporta al empezar, o onCancelled si se canceló antes de que empezara
+        AtomicBoolean workerStarted = new AtomicBoolean();
+        Task<DailyInventoryCsvExporter.ExportResult> task = new Task<>() {
+            @Override
+            protected DailyInventoryCsvExporter.ExportResult call() throws Exception {
+                if (!workerStarted.compareAndSet(false, true)) {
+                    return null;
                 }
+                try {
+                    return csvExporter.export(from, to, file.toPath(),
+                            (rows, total) -> {
+                                updateProgress(rows, Math.max(total, 1));
+                                updateMessage("Exportando inventario: " + rows + " de " + total + " filas...");
+                            },
+                            this::isCancelled);
+                } finally {
+                    Platform.runLater(() -> finishExport(this));
+                }
+            }
+        };
+        task.setOnSucceeded(e -> {
+            DailyInventoryCsvExporter.ExportResult result = task.getValue();
+            messageLabel.setText(String.format("ÉXITO: %d filas exportadas a %s (%.0f filas/s).",
+                    result.rows(), result.file(), result.rowsPerSecond()));
+        });
+        task.setOnFailed(e -> {
+            Throwable error = DbExecutor.unwrap(task.getException());
+            messageLabel.setText("ERROR al exportar CSV: " + error.getMessage());
+            LOG.error("Error al exportar CSV: {}", error.getMessage());
+        });
+        task.setOnCancelled(e -> {
+            if (workerStarted.compareAndSet(false, true)) {
+                // Cancelada en la cola de DbExecutor: call() ya no se ejecutará
+                finishExport(task);
+            } else {
+                messageLabel.setText("Cancelando exportación CSV...");
+            }
+        });
 
-                fileWriter.flush();
-                messageLabel.setText("ÉXITO: Inventario exportado a " + file.getAbsolutePath());
+        exportTask = task;
+        exportProgressBar.progressProperty().bind(task.progressProperty());
+        exportProgressBar.setVisible(true);
+        // Sin bind: otras acciones de la pantalla siguen pudiendo escribir en messageLabel
+        task.messageProperty().addListener((obs, oldMessage, message) -> messageLabel.setText(message));
+        downloadCsvButton.setText("CANCELAR EXPORTACIÓN");
+        DbExecutor.execute(task);
+    }
 
-            } catch (IOException e) {
-                messageLabel.setText("ERROR de I/O al exportar CSV: " + e.getMessage());
-                System.err.println("I/O Error: " + e.getMessage());
-            }
-        } else {
+    /**
+     * Restablece los controles de exportación cuando el hilo de {@code task} ya no puede tocar el archivo
+     * (hilo de JavaFX).
+     */
+    private void finishExport(Task<?> task) {
+        if (exportTask != task) {
+            return;
+        }
+        exportTask = null;
+        exportProgressBar.progressProperty().unbind();
+        exportProgressBar.setVisible(false);
+        downloadCsvButton.setText("DESCARGAR CSV");
+        downloadCsvButton.setDisable(false);
+        if (task.isCancelled()) {
             messageLabel.setText("Exportación CSV cancelada.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar el inventario de la fecha seleccionada (el stock maestro cambia con cada pedido o edición).
+     * Lo invoca el dashboard (ModuleRegistry) al volver a abrir el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadInventoryForSelectedDate();
+    }
+}
@@ -0,0 +1,174 @@
+package customOrders.DailyInventory;
+
+import customOrders.PostgresConnector;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Exportación a CSV del histórico de inventario (tabla daily_inventory) para un rango de fechas.
+ *
+ * Las filas se leen con un cursor del servidor (autocommit desactivado + fetchSize), así que en memoria
+ * solo hay FETCH_SIZE filas a la vez aunque el rango tenga millones, y se escriben directamente en un
+ * BufferedWriter. El archivo se escribe en un temporal y se mueve al destino al terminar: si la exportación
+ * falla o se cancela no queda un CSV a medias.
+ */
+public class DailyInventoryCsvExporter {
+
+    static final int FETCH_SIZE = 5_000;
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+    // Cada cuántas filas se informa del progreso (y se comprueba la cancelación)
+    private static final int PROGRESS_EVERY_ROWS = 10_000;
+
+    private static final String HEADER = "Fecha,ID Producto,Nombre,Nivel";
+
+    private static final String COUNT_SQL =
+            "SELECT count(*) FROM Daily_Inventory WHERE date_of_inventory BETWEEN ? AND ?";
+    private static final String EXPORT_SQL =
+            "SELECT di.date_of_inventory, di.product_id, p.product_name, di.level " +
+            "FROM Daily_Inventory di LEFT JOIN Products p ON p.product_id = di.product_id " +
+            "WHERE di.date_of_inventory BETWEEN ? AND ? " +
+            "ORDER BY di.date_of_inventory, di.product_id";
+
+    /**
+     * Recibe el avance de la exportación (desde el hilo que exporta).
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    /**
+     * Resultado de una exportación.
+     */
+    public record ExportResult(Path file, long rows, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+
+    /**
+     * Exporta las filas con fecha entre {@code from} y {@code to} (ambas incluidas) al archivo {@code target}.
+     * Bloquea hasta terminar: llamar fuera del hilo de JavaFX.
+     * @param cancelled Se consulta periódicamente y justo antes de mover el archivo al destino; si devuelve true
+     *                  se aborta con CancellationException y el destino no se toca.
+     */
+    public ExportResult export(LocalDate from, LocalDate to, Path target,
+                               ProgressListener progress, BooleanSupplier cancelled) throws SQLException, IOException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial (" + from + ") es posterior a la final (" + to + ").");
+        }
+        long start = System.nanoTime();
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+
+        long rows = 0;
+        try (Connection conn = PostgresConnector.getConnection()) {
+            long total = countRows(conn, from, to);
+            progress.onProgress(0, total);
+
+            // El driver de PostgreSQL solo usa un cursor del servidor dentro de una transacción
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(EXPORT_SQL,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setDate(1, Date.valueOf(from));
+                ps.setDate(2, Date.valueOf(to));
+
+                // BOM: Excel reconoce así el UTF-8 (tildes y eñes en los nombres)
+                writer.write('\uFEFF');
+                writer.write(HEADER);
+                writer.write('\n');
+
+                StringBuilder line = new StringBuilder(128);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        line.setLength(0);
+                        line.append(rs.getDate(1).toLocalDate()).append(',')
+                                .append(rs.getInt(2)).append(',');
+                        appendCsvField(line, rs.getString(3));
+                        line.append(',').append(rs.getInt(4)).append('\n');
+                        writer.append(line);
+
+                        if (++rows % PROGRESS_EVERY_ROWS == 0) {
+                            if (cancelled.getAsBoolean()) {
+                                throw new CancellationException("Exportación cancelada tras " + rows + " filas.");
+                            }
+                            progress.onProgress(rows, total);
+                        }
+                    }
+                }
+                progress.onProgress(rows, Math.max(rows, total));
+            } finally {
+                // Solo lectura: no hay nada que confirmar
+                conn.rollback();
+                conn.setAutoCommit(originalAutoCommit);
+            }
+
+            // Última comprobación: una exportación de menos de PROGRESS_EVERY_ROWS filas, o cancelada en el
+            // último tramo, no debe reemplazar el destino
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Exportación cancelada tras " + rows + " filas.");
+            }
+            Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new ExportResult(absoluteTarget, rows, System.nanoTime() - start);
+    }
+
+    private static long countRows(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(COUNT_SQL)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Añade un campo de texto con el escapado de CSV (RFC 4180): si contiene comas, comillas, saltos de línea
+     * o espacios en los extremos se encierra entre comillas y las comillas internas se duplican.
+     * Un valor null se escribe como campo vacío.
+     */
+    static void appendCsvField(StringBuilder out, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean needsQuotes = value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ';
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -2,7 +2,9 @@ package customOrders.DailyInventory;
 
 import customOrders.PostgresConnector;
 import customOrders.Products.ProductManager;
-import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductStock;
+import customOrders.util.IntIntMap;
+import customOrders.util.Log;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -16,6 +18,11 @@ import java.util.Optional;
  */
 public class DailyInventoryManager {
 
+    private static final Log LOG = Log.get(DailyInventoryManager.class);
+
+    /** Filas por cada executeBatch() al guardar el inventario. */
+    static final int SAVE_BATCH_SIZE = 1_000;
+
     private final ProductManager productManager;
 
     public DailyInventoryManager() {
@@ -26,10 +33,10 @@ public class DailyInventoryManager {
     // --- MÉTODOS DE LECTURA ---
 
     /**
-     * Obtiene la lista maestra de productos delegando al ProductManager.
+     * Obtiene el stock maestro de todos los productos (solo ID, nombre y cantidad) delegando al ProductManager.
      */
-    public List<Product> getAllProducts() throws SQLException {
-        return productManager.getAllProducts();
+    public List<ProductStock> getProductStocks() throws SQLException {
+        return productManager.getProductStocks();
     }
 
     /**
@@ -61,52 +68,83 @@ public class DailyInventoryManager {
         return Optional.empty();
     }
 
-
-    // --- MÉTODOS DE ESCRITURA ---
-
     /**
-     * Guarda/Actualiza una única entrada de inventario diario en la tabla 'daily_inventory'.
-     * Utiliza UPSERT (INSERT ON CONFLICT) para manejar el caso donde ya existe un conteo para esa fecha/producto.
-     * @param entry El registro de inventario a guardar.
+     * Carga en una sola consulta los niveles de inventario de todos los productos para una fecha.
+     * Sustituye a llamar a getInventoryLevelByDate() por cada producto (una conexión por producto).
+     * @return Mapa product_id -> level (solo contiene los productos con registro en esa fecha).
      */
-    private void saveDailyInventoryEntry(DailyInventory entry) throws SQLException {
-        // La sentencia UPSERT intenta INSERTAR, y si hay conflicto (la PK compuesta ya existe), hace UPDATE.
-        String sql = "INSERT INTO Daily_Inventory (date_of_inventory, product_id, level) " +
-                "VALUES (?, ?, ?) " +
-                "ON CONFLICT (date_of_inventory, product_id) DO UPDATE SET level = EXCLUDED.level";
+    public IntIntMap getInventoryLevelsByDate(LocalDate date) throws SQLException {
+        String sql = "SELECT product_id, level FROM Daily_Inventory WHERE date_of_inventory = ?";
 
+        IntIntMap levels = new IntIntMap(256);
         try (Connection conn = PostgresConnector.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setDate(1, Date.valueOf(entry.getDateOfInventory()));
-            ps.setInt(2, entry.getProductId());
-            ps.setInt(3, entry.getLevel());
+            ps.setDate(1, Date.valueOf(date));
 
-            ps.executeUpdate();
-            System.out.println("-> Guardado histórico para Producto ID: " + entry.getProductId() +
-                    " en fecha: " + entry.getDateOfInventory() + " con nivel: " + entry.getLevel());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    levels.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
         }
+        return levels;
     }
 
 
+    // --- MÉTODOS DE ESCRITURA ---
+
     /**
-     * Guarda el registro de inventario diario y actualiza la tabla maestra de productos.
+     * Guarda el registro de inventario diario en la tabla 'daily_inventory' (histórico).
+     * Todas las entradas se guardan con una sola conexión y en una única transacción:
+     * o se guardan todas o ninguna (si falla cualquier fila se hace rollback).
+     * Las filas se envían en lotes JDBC de SAVE_BATCH_SIZE; con reWriteBatchedInserts el driver
+     * los convierte en UPSERTs multi-fila.
      * @param inventoryEntries Lista de registros (stock contado) a guardar.
      */
     public void saveDailyInventory(List<DailyInventory> inventoryEntries) throws SQLException {
-        System.out.println("DEBUG: Iniciando guardado de " + inventoryEntries.size() + " registros de inventario...");
-
-        // Usamos un bloque try-with-resources para asegurar que la conexión se cierre
-        // Aunque no hay conexión directa aquí, la excepción SQLException debe ser manejada.
+        LOG.debug("Iniciando guardado de {} registros de inventario...", inventoryEntries.size());
+        if (inventoryEntries.isEmpty()) {
+            return;
+        }
 
-        for (DailyInventory entry : inventoryEntries) {
-            // 1. Guardar/Actualizar en la tabla 'daily_inventory' (histórico)
-            saveDailyInventoryEntry(entry);
+        // La sentencia UPSERT intenta INSERTAR, y si hay conflicto (la PK compuesta ya existe), hace UPDATE.
+        String sql = "INSERT INTO Daily_Inventory (date_of_inventory, product_id, level) " +
+                "VALUES (?, ?, ?) " +
+                "ON CONFLICT (date_of_inventory, product_id) DO UPDATE SET level = EXCLUDED.level";
 
-            // 2. Actualizar la tabla maestra 'products' (stock actual)
-            // ESTE ES EL CAMBIO CLAVE: Llama al método real del Manager para hacer el UPDATE en la DB
+        long start = System.nanoTime();
+        try (Connection conn = PostgresConnector.getConnection()) {
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (DailyInventory entry : inventoryEntries) {
+                    ps.setDate(1, Date.valueOf(entry.getDateOfInventory()));
+                    ps.setInt(2, entry.getProductId());
+                    ps.setInt(3, entry.getLevel());
+                    ps.addBatch();
+
+                    if (++pending == SAVE_BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                LOG.error("Error al guardar inventario diario. Se ha revertido la transacción: {}", e.getMessage());
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+            }
         }
 
-        System.out.println("DEBUG: Guardado de inventario completado.");
+        LOG.debug("Guardado de inventario completado ({} registros en {} ms).",
+                inventoryEntries.size(), (System.nanoTime() - start) / 1_000_000.0);
     }
-}
\ No newline at end of file
+}
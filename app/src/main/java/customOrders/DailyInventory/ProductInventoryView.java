@@ -3,7 +3,7 @@ package customOrders.DailyInventory;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
-import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductStock;
 
 import java.util.Objects;
 
@@ -15,7 +15,7 @@ import java.util.Objects;
 public class ProductInventoryView {
 
     // Referencia al objeto Producto subyacente
-    private final Product product;
+    private final ProductStock product;
 
     // Propiedades para la tabla JavaFX (necesario para PropertyValueFactory y edición)
     private final SimpleIntegerProperty product_id;
@@ -27,13 +27,13 @@ public class ProductInventoryView {
 
 
     // --- Constructor ---
-    public ProductInventoryView(Product product, Integer historicLevel) {
+    public ProductInventoryView(ProductStock product, Integer historicLevel) {
         this.product = Objects.requireNonNull(product);
 
         // Inicialización de las propiedades
-        this.product_id = new SimpleIntegerProperty(product.getProduct_id());
-        this.product_name = new SimpleStringProperty(product.getProduct_name());
-        this.masterQuantity = new SimpleObjectProperty<>(product.getQuantity());
+        this.product_id = new SimpleIntegerProperty(product.productId());
+        this.product_name = new SimpleStringProperty(product.productName());
+        this.masterQuantity = new SimpleObjectProperty<>(product.quantity());
         this.historicLevelDisplay = new SimpleObjectProperty<>(historicLevel);
 
         // Inicializa el nuevo nivel con el nivel histórico o 0 si es nulo.
@@ -89,5 +89,5 @@ public class ProductInventoryView {
     public int getNewLevel() { return newLevelDisplay.get(); }
     public void setNewLevel(int newLevel) { this.newLevelDisplay.set(newLevel); }
 
-    public Product getProduct() { return product; }
+    public ProductStock getProduct() { return product; }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package customOrders;
+
+import customOrders.Products.ProductManager;
+import customOrders.Products.ProjectionCache;
+import customOrders.util.LatencyHistogram;
+import customOrders.util.Log;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ResourceBundle;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pantalla de Diagnóstico: métricas de {@link QueryMetrics} (latencia por sentencia, consultas lentas,
+ * obtención de conexión), del pool, del log y de las cachés del catálogo.
+ * Las métricas están en memoria: actualizar no consulta la DB.
+ */
+public class DiagnosticsController implements Initializable, Refreshable {
+
+    private static final Log LOG = Log.get(DiagnosticsController.class);
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @FXML private Label summaryLabel;
+    @FXML private Label slowTitleLabel;
+    @FXML private Label messageLabel;
+
+    @FXML private TableView<QueryMetrics.StatementStats> statementTable;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> sqlColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, Long> executionsColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, Long> errorsColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, Long> rowsColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> totalColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> meanColumn;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> p50Column;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> p95Column;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> p99Column;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> maxColumn;
+
+    @FXML private TableView<QueryMetrics.SlowQuery> slowQueryTable;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, String> slowTimeColumn;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, String> slowMillisColumn;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, Long> slowRowsColumn;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, String> slowThreadColumn;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, String> slowSqlColumn;
+    @FXML private TableColumn<QueryMetrics.SlowQuery, String> slowParametersColumn;
+
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+
+    @Override
+    public void initialize(URL url, ResourceBundle rb) {
+        bind(sqlColumn, QueryMetrics.StatementStats::sql);
+        bind(executionsColumn, QueryMetrics.StatementStats::executions);
+        bind(errorsColumn, QueryMetrics.StatementStats::errors);
+        bind(rowsColumn, QueryMetrics.StatementStats::rows);
+        bindMillis(totalColumn, LatencyHistogram.Summary::totalMillis);
+        bindMillis(meanColumn, LatencyHistogram.Summary::meanMillis);
+        bindMillis(p50Column, LatencyHistogram.Summary::p50Millis);
+        bindMillis(p95Column, LatencyHistogram.Summary::p95Millis);
+        bindMillis(p99Column, LatencyHistogram.Summary::p99Millis);
+        bindMillis(maxColumn, LatencyHistogram.Summary::maxMillis);
+
+        bind(slowTimeColumn, q -> TIME_FORMAT.format(q.at()));
+        bind(slowMillisColumn, q -> String.format("%.1f", q.millis()));
+        bind(slowRowsColumn, QueryMetrics.SlowQuery::rows);
+        bind(slowThreadColumn, QueryMetrics.SlowQuery::thread);
+        bind(slowSqlColumn, QueryMetrics.SlowQuery::sql);
+        bind(slowParametersColumn, QueryMetrics.SlowQuery::parameters);
+
+        statementTable.setPlaceholder(new Label("Todavía no se ha ejecutado ninguna sentencia."));
+        slowQueryTable.setPlaceholder(new Label("Sin consultas lentas."));
+        refresh();
+    }
+
+    /**
+     * Vuelve a leer las métricas (en memoria, sin consultar la DB).
+     */
+    @Override
+    public void refresh() {
+        QueryMetrics.Snapshot snapshot = metrics.snapshot();
+
+        StringBuilder summary = new StringBuilder();
+        if (!snapshot.enabled()) {
+            summary.append("Instrumentación desactivada (-DcustomOrders.db.instrumentation=false).\n");
+        }
+        summary.append("Desde: ").append(TIME_FORMAT.format(snapshot.since())).append('\n');
+        summary.append("Obtención de conexión: ").append(snapshot.connectionAcquire()).append('\n');
+        summary.append(snapshot.pool()).append('\n');
+        summary.append(Log.getStats()).append('\n');
+        summary.append(ProductManager.getCatalogCacheStats());
+        for (ProjectionCache.ProjectionStats stats : ProductManager.getProjectionCacheStats()) {
+            summary.append('\n').append(stats);
+        }
+        summaryLabel.setText(summary.toString());
+
+        slowTitleLabel.setText("Consultas lentas (>= " + snapshot.slowQueryThresholdMillis() + " ms, las más recientes primero)");
+        statementTable.setItems(FXCollections.observableArrayList(snapshot.statements()));
+        slowQueryTable.setItems(FXCollections.observableArrayList(snapshot.slowQueries()));
+    }
+
+    @FXML
+    private void handleRefresh() {
+        refresh();
+        messageLabel.setText("Métricas actualizadas.");
+    }
+
+    @FXML
+    private void handleReset() {
+        metrics.reset();
+        refresh();
+        messageLabel.setText("Métricas reiniciadas.");
+    }
+
+    /**
+     * Guarda el informe de texto de la instantánea actual (el mismo que -DcustomOrders.db.metricsDump).
+     */
+    @FXML
+    private void handleExport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exportar Métricas de Acceso a Datos");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Texto (*.txt)", "*.txt"));
+        fileChooser.setInitialFileName("metricas_db_" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".txt");
+
+        File file = fileChooser.showSaveDialog(statementTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            metrics.dump(file.toPath());
+            messageLabel.setText("ÉXITO: Métricas exportadas a " + file);
+        } catch (IOException e) {
+            messageLabel.setText("ERROR al exportar las métricas: " + e.getMessage());
+            LOG.error("Error al exportar las métricas: {}", e.getMessage());
+        }
+    }
+
+    private static <S, T> void bind(TableColumn<S, T> column, Function<S, T> value) {
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+    }
+
+    private static void bindMillis(TableColumn<QueryMetrics.StatementStats, String> column,
+                                   ToDoubleFunction<LatencyHistogram.Summary> value) {
+        bind(column, s -> String.format("%.2f", value.applyAsDouble(s.latency())));
+    }
+}
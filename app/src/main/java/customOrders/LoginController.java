@@ -1,5 +1,7 @@
 package customOrders;
 
+import customOrders.util.Log;
+
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,6 +13,8 @@ import java.io.IOException;
 
 public class LoginController {
 
+    private static final Log LOG = Log.get(LoginController.class);
+
     // Método auxiliar para manejar el cambio de vista en la misma Stage
     private void navigateTo(ActionEvent event, String fxmlFileName) throws IOException {
 
@@ -44,7 +48,7 @@ public class LoginController {
     @FXML
     private void handleEntrarComoCliente(ActionEvent event) throws IOException {
         // Creamos un placeholder. Debes crear ClientShopView.fxml
-        System.out.println("Entrando como Cliente...");
+        LOG.debug("Entrando como Cliente...");
          navigateTo(event, "CustomerAuthView.fxml");
     }
 }
\ No newline at end of file
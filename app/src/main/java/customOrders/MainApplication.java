@@ -1,5 +1,9 @@
 package customOrders;
 
+import customOrders.Products.ProductManager;
+import customOrders.util.DbExecutor;
+import customOrders.util.ImageUtil;
+import customOrders.util.Log;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -9,11 +13,24 @@ import java.io.IOException;
 
 public class MainApplication extends Application {
 
+    private static final Log LOG = Log.get(MainApplication.class);
+
     // Dentro de MainApplication.java
 // ...
     @Override
     public void start(Stage stage) throws IOException {
 
+        // Escuchar cambios hechos desde otras estaciones (LISTEN/NOTIFY) y mantener las cachés al día
+        ProductManager.enableCatalogChangeSync();
+        ChangeNotifications.getInstance().start();
+        DbExecutor.submit(ChangeNotifications::ensureTriggers,
+                ignored -> { },
+                e -> LOG.warn("No se pudieron instalar los triggers de notificación; las cachés no verán los cambios " +
+                        "de otras estaciones hasta ejecutar db/change_notifications.sql a mano: {}", e.getMessage()));
+
+        // Placeholders de imagen generados en memoria (sin red): se crean una vez y se comparten
+        ImageUtil.preloadPlaceholders();
+
         // 1. CORRECCIÓN: Usamos /LoginView.fxml para indicar la raíz de la carpeta resources
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/LoginView.fxml"));
 
@@ -0,0 +1,174 @@
+package customOrders;
+
+import customOrders.util.FlightEvents;
+import customOrders.util.Log;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Registro de módulos (vistas FXML) de un dashboard.
+ *
+ * Cada módulo se carga una sola vez: la vista y su controlador se guardan y se reutilizan en cada
+ * navegación, así que cambiar de pestaña no vuelve a parsear el FXML ni a consultar la DB.
+ * - {@link #warmUp} precarga, uno por cada vuelta del hilo de JavaFX, los módulos que probablemente se abran
+ *   después del login (cada FXML se sigue cargando en ese hilo).
+ * - {@link #refresh} es el punto explícito para volver a cargar los datos de un módulo (ver {@link Refreshable}).
+ * - Cada obtención (carga, reutilización o precarga) emite un evento JFR {@link FlightEvents.ModuleLoad}.
+ *
+ * Todos los métodos deben llamarse desde el hilo de JavaFX: los controladores usan DbLoader, que exige ese hilo,
+ * así que el FXML se carga ahí; la precarga solo reparte ese trabajo, cediendo el hilo entre un módulo y otro.
+ */
+public class ModuleRegistry {
+
+    private static final Log LOG = Log.get(ModuleRegistry.class);
+
+    /**
+     * Módulo cargado: la vista raíz y su controlador.
+     */
+    public record Module(String fxmlPath, Parent view, Object controller) { }
+
+    private final Map<String, Module> modules = new HashMap<>();
+    private final Consumer<Object> controllerSetup;
+    private final Deque<String> warmUpQueue = new ArrayDeque<>();
+    private boolean warmUpScheduled = false;
+
+    /**
+     * @param controllerSetup Se aplica a cada controlador recién cargado (p.ej. inyectar el cliente de la sesión).
+     */
+    public ModuleRegistry(Consumer<Object> controllerSetup) {
+        this.controllerSetup = controllerSetup;
+    }
+
+    /**
+     * Devuelve el módulo, cargándolo la primera vez.
+     * @param fxmlPath Ruta absoluta del FXML en el classpath (e.g., "/modules/ClientsView.fxml").
+     * @throws IOException si el FXML no existe o falla la inicialización de su controlador.
+     */
+    public Module get(String fxmlPath) throws IOException {
+        Module module = modules.get(fxmlPath);
+        if (module != null) {
+            FlightEvents.ModuleLoad event = newEvent(fxmlPath, false);
+            event.cached = true;
+            event.success = true;
+            event.controller = controllerName(module);
+            event.commit();
+            return module;
+        }
+        warmUpQueue.remove(fxmlPath);
+        module = load(fxmlPath, false);
+        modules.put(fxmlPath, module);
+        return module;
+    }
+
+    public boolean isLoaded(String fxmlPath) {
+        return modules.containsKey(fxmlPath);
+    }
+
+    /**
+     * Precarga los módulos indicados, uno por cada vuelta del hilo de JavaFX, para no bloquear la interfaz.
+     * Los que fallen se ignoran aquí (se volverán a intentar, mostrando el error, al navegar a ellos).
+     */
+    public void warmUp(List<String> fxmlPaths) {
+        for (String path : fxmlPaths) {
+            if (!modules.containsKey(path) && !warmUpQueue.contains(path)) {
+                warmUpQueue.add(path);
+            }
+        }
+        scheduleNextWarmUp();
+    }
+
+    private void scheduleNextWarmUp() {
+        if (warmUpScheduled || warmUpQueue.isEmpty()) {
+            return;
+        }
+        warmUpScheduled = true;
+        Platform.runLater(() -> {
+            warmUpScheduled = false;
+            String path = warmUpQueue.poll();
+            if (path != null && !modules.containsKey(path)) {
+                try {
+                    modules.put(path, load(path, true));
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("No se pudo precargar el módulo {}: {}", path, e.getMessage());
+                }
+            }
+            scheduleNextWarmUp();
+        });
+    }
+
+    /**
+     * Vuelve a cargar los datos de un módulo ya cargado.
+     * @return true si el módulo estaba cargado y su controlador implementa Refreshable.
+     */
+    public boolean refresh(String fxmlPath) {
+        Module module = modules.get(fxmlPath);
+        if (module != null && module.controller() instanceof Refreshable refreshable) {
+            refreshable.refresh();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vuelve a cargar los datos de todos los módulos cargados.
+     */
+    public void refreshAll() {
+        for (String path : List.copyOf(modules.keySet())) {
+            refresh(path);
+        }
+    }
+
+    /**
+     * Descarta un módulo: la próxima navegación vuelve a cargar el FXML y crea un controlador nuevo.
+     */
+    public void invalidate(String fxmlPath) {
+        modules.remove(fxmlPath);
+    }
+
+    private Module load(String fxmlPath, boolean warmUp) throws IOException {
+        FlightEvents.ModuleLoad event = newEvent(fxmlPath, warmUp);
+        try {
+            // CRÍTICO: Obtener el recurso URL primero y verificar si es nulo
+            URL fxmlUrl = getClass().getResource(fxmlPath);
+            if (fxmlUrl == null) {
+                throw new IOException("El archivo FXML no se encontró en la ruta: " + fxmlPath +
+                        ". Verifique la ruta en el classpath.");
+            }
+
+            FXMLLoader loader = new FXMLLoader(fxmlUrl);
+            Parent view = loader.load();
+            Object controller = loader.getController();
+            if (controller != null && controllerSetup != null) {
+                controllerSetup.accept(controller);
+            }
+            Module module = new Module(fxmlPath, view, controller);
+            event.controller = controllerName(module);
+            event.success = true;
+            return module;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static FlightEvents.ModuleLoad newEvent(String fxmlPath, boolean warmUp) {
+        FlightEvents.ModuleLoad event = new FlightEvents.ModuleLoad();
+        event.begin();
+        event.fxmlPath = fxmlPath;
+        event.warmUp = warmUp;
+        return event;
+    }
+
+    private static String controllerName(Module module) {
+        return module.controller() == null ? null : module.controller().getClass().getSimpleName();
+    }
+}
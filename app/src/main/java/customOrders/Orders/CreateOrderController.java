@@ -2,13 +2,13 @@ package customOrders.Orders;
 
 import customOrders.Customer;
 import customOrders.CustomerAware;
+import customOrders.Refreshable;
 import customOrders.Products.ProductManager;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -16,31 +16,33 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import customOrders.Orders.CreateOrderManager;
 import customOrders.Orders.ProductInOrder;
-import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductSummary;
+import customOrders.util.DbExecutor;
+import customOrders.util.DbLoader;
 import customOrders.util.Dialogs;
+import customOrders.util.Log;
 import customOrders.util.Validator;
 import customOrders.util.ImageUtil;
 
-import javafx.scene.layout.TilePane;
-import javafx.scene.layout.VBox;
+import javafx.scene.layout.StackPane;
 
-import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la vista de creación de pedidos (carrito de compras) con vista de productos en Galería.
  * Implementa la solución de desconexión/reconexión del botón para manejar la doble instancia del controlador.
  */
-public class CreateOrderController implements Initializable, CustomerAware {
+public class CreateOrderController implements Initializable, CustomerAware, Refreshable {
+
+    private static final Log LOG = Log.get(CreateOrderController.class);
 
     // --- Componentes FXML ---
-    @FXML private ScrollPane productScrollPane;
-    @FXML private TilePane productTilePane;
+    @FXML private StackPane productGalleryContainer;
     @FXML private TextField quantityField;
     @FXML private Label productMessageLabel;
     @FXML private TableView<ProductInOrder> cartTable;
@@ -61,6 +63,10 @@ public class CreateOrderController implements Initializable, CustomerAware {
     private final ProductManager productManager = new ProductManager();
     private final CreateOrderManager orderManager = new CreateOrderManager();
     private final ObservableList<ProductInOrder> cartItems = FXCollections.observableArrayList();
+    // Carga de la galería fuera del hilo de JavaFX
+    private final DbLoader<List<ProductSummary>> productLoader = new DbLoader<>();
+    // Galería virtualizada: solo crea tarjetas para las filas visibles (se crea en initialize)
+    private ProductGallery productGallery;
 
 
     @Override
@@ -71,6 +77,8 @@ public class CreateOrderController implements Initializable, CustomerAware {
             placeOrderButton.setOnAction(null);
         }
 
+        productGallery = new ProductGallery(this);
+        productGalleryContainer.getChildren().setAll(productGallery);
         setupProductGallery();
         setupCartTable();
 
@@ -88,8 +96,8 @@ public class CreateOrderController implements Initializable, CustomerAware {
         if (customer != null) {
             this.currentCustomerIdProperty.set(customer.getCustomerID());
 
-            // 💡 DEBUG: Verifica si el ID llegó a la instancia correcta del controlador
-            System.out.println("DEBUG (setCustomer): Cliente recibido y ID cargado: " + customer.getCustomerID());
+            // Verifica si el ID llegó a la instancia correcta del controlador
+            LOG.debug("setCustomer: Cliente recibido y ID cargado: {}", customer.getCustomerID());
 
             showMessage("Cliente ID: " + this.currentCustomerIdProperty.get() + " cargado exitosamente.");
 
@@ -97,7 +105,7 @@ public class CreateOrderController implements Initializable, CustomerAware {
             // puede conectar la acción del botón.
             if (placeOrderButton != null) {
                 placeOrderButton.setOnAction(event -> handlePlaceOrder());
-                System.out.println("DEBUG (setCustomer): Botón 'Place Order' reconectado programáticamente.");
+                LOG.debug("setCustomer: Botón 'Place Order' reconectado programáticamente.");
             }
 
             // Recalculamos totales para habilitar el botón si ya hay algo en el carrito
@@ -111,49 +119,20 @@ public class CreateOrderController implements Initializable, CustomerAware {
 
     /**
      * Configura la vista de galería cargando dinámicamente las tarjetas de producto.
+     * La consulta de productos se ejecuta fuera del hilo de JavaFX.
      */
     private void setupProductGallery() {
-        try {
-            ObservableList<Product> products = FXCollections.observableArrayList(productManager.getAllProducts());
-            productTilePane.getChildren().clear();
-
-            // Rutas de FXML (adaptar según sea necesario)
-            List<String> pathsToTry = Arrays.asList(
-                    "/customOrders/Orders/ProductCard.fxml",
-                    "/modules/customer/ProductCard.fxml"
-            );
-
-            URL fxmlUrl = null;
-            for (String path : pathsToTry) {
-                fxmlUrl = getClass().getResource(path);
-                if (fxmlUrl != null) {
-                    break;
-                }
-            }
-
-            if (fxmlUrl == null) {
-                throw new IllegalStateException("FXML 'ProductCard.fxml' not found.");
-            }
-
-            for (Product product : products) {
-                try {
-                    FXMLLoader loader = new FXMLLoader(fxmlUrl);
-                    VBox productCard = loader.load();
-                    ProductCardController controller = loader.getController();
-                    controller.setMainController(this);
-                    controller.setProductData(product);
-                    productTilePane.getChildren().add(productCard);
-
-                } catch (IOException e) {
-                    System.err.println("Error al cargar la tarjeta de producto para: " + product.getProduct_name());
-                    Dialogs.showErrorDialog("Error de Carga FXML", "Fallo al crear tarjeta de producto.", "Asegúrate de que 'ProductCard.fxml' tiene el controlador asignado y está bien formado.", e);
-                }
-            }
-
-        } catch (SQLException e) {
+        productLoader.load(productManager::getProductSummaries, this::showProductGallery, e -> {
             Dialogs.showErrorDialog("Error de Carga", "Error al conectar con la base de datos.", "Fallo al cargar los productos iniciales.", e);
             orderMessageLabel.setText("ERROR: Fallo al cargar los productos iniciales.");
-        }
+        });
+    }
+
+    /**
+     * Muestra el catálogo en la galería virtualizada (hilo de JavaFX).
+     */
+    private void showProductGallery(List<ProductSummary> products) {
+        productGallery.setProducts(products);
     }
 
 
@@ -242,7 +221,7 @@ public class CreateOrderController implements Initializable, CustomerAware {
         if (orderMessageLabel != null) {
             orderMessageLabel.setText(message);
         } else {
-            System.out.println("MENSAJE DE PEDIDO: " + message);
+            LOG.info("Mensaje de pedido: {}", message);
         }
     }
     private String requestShippingAddress() {
@@ -254,22 +233,22 @@ public class CreateOrderController implements Initializable, CustomerAware {
         return result.orElse(null);
     }
 
-    public void addToCart(Product product, int quantity) {
+    public void addToCart(ProductSummary product, int quantity) {
         addToCartFromCard(product, quantity);
     }
 
 
-    public void addToCartFromCard(Product selectedProduct, int quantity) {
+    public void addToCartFromCard(ProductSummary selectedProduct, int quantity) {
 
         if (quantity <= 0) {
             Dialogs.showWarningDialog("Advertencia de Cantidad", "Cantidad Mínima", "La cantidad a añadir debe ser mayor a cero.");
             return;
         }
 
-        int availableStock = selectedProduct.getQuantity();
+        int availableStock = selectedProduct.quantity();
 
         Optional<ProductInOrder> existingItem = cartItems.stream()
-                .filter(item -> item.getProduct().getProduct_id().equals(selectedProduct.getProduct_id()))
+                .filter(item -> item.getProduct().getProduct_id() == selectedProduct.productId())
                 .findFirst();
 
         if (existingItem.isPresent()) {
@@ -315,8 +294,8 @@ public class CreateOrderController implements Initializable, CustomerAware {
 
         Integer customerId = this.currentCustomerIdProperty.get();
 
-        // 💡 DEBUG: Esta es la línea que DEBE aparecer si el botón está correctamente conectado y pulsado.
-        System.out.println("DEBUG: currentCustomerId al hacer click: " + customerId);
+        // Esta es la línea que DEBE aparecer (en DEBUG) si el botón está correctamente conectado y pulsado.
+        LOG.debug("currentCustomerId al hacer click: {}", customerId);
 
         // 1. VERIFICACIÓN CRÍTICA: ID del cliente
         if (customerId == null) {
@@ -358,21 +337,44 @@ public class CreateOrderController implements Initializable, CustomerAware {
                 return;
             }
 
-            boolean success = orderManager.createOrderAndUpdateStock(
-                    cartItems,
-                    customerId,
-                    shippingAddress,
-                    totalAmount
-            );
-
-            if (success) {
-                cartItems.clear();
-                calculateTotals();
-                setupProductGallery();
-                showMessage("¡Pedido creado con éxito! Stock actualizado y carrito reseteado.");
-            } else {
-                showMessage("ERROR: No se pudo completar el pedido. Revisa los logs de la DB.");
-            }
+            // La transacción se ejecuta en segundo plano sobre una copia del carrito
+            List<ProductInOrder> itemsToSave = new ArrayList<>(cartItems);
+            placeOrderButton.setDisable(true);
+            showMessage("Procesando pedido...");
+
+            DbExecutor.submit(() -> orderManager.createOrderAndUpdateStock(
+                            itemsToSave,
+                            customerId,
+                            shippingAddress,
+                            totalAmount
+                    ),
+                    orderResult -> {
+                        if (orderResult.isSuccess()) {
+                            cartItems.clear();
+                            calculateTotals();
+                            setupProductGallery();
+                            showMessage("¡Pedido creado con éxito! Stock actualizado y carrito reseteado.");
+                        } else if (!orderResult.shortages().isEmpty()) {
+                            // Otro cliente compró antes: se informa de cada línea sin stock y se refresca la galería
+                            calculateTotals();
+                            setupProductGallery();
+                            String lines = orderResult.shortages().stream()
+                                    .map(CreateOrderManager.StockShortage::toString)
+                                    .collect(Collectors.joining("\n"));
+                            Dialogs.showWarningDialog("Stock Insuficiente", "No se pudo reservar el stock de algunos productos.",
+                                    "Ajusta las cantidades del carrito e inténtalo de nuevo:\n" + lines);
+                            showMessage("ERROR: Stock insuficiente para " + orderResult.shortages().size() + " producto(s).");
+                        } else {
+                            calculateTotals();
+                            // Mostrar un diálogo amigable al usuario
+                            Dialogs.showErrorDialog("Error de Base de Datos", "Fallo al crear el pedido.", "Se ha producido un error crítico al intentar guardar el pedido en la base de datos. Se ha deshecho la operación. Error: " + orderResult.error().getMessage(), orderResult.error());
+                            showMessage("ERROR: No se pudo completar el pedido. Revisa los logs de la DB.");
+                        }
+                    },
+                    e -> {
+                        calculateTotals();
+                        showMessage("ERROR: No se pudo completar el pedido: " + e.getMessage());
+                    });
         }
     }
 
@@ -381,4 +383,11 @@ public class CreateOrderController implements Initializable, CustomerAware {
         Dialogs.showWarningDialog("Añadir Global", "Método Obsoleto", "Por favor, usa los botones 'Añadir al Carrito' que se encuentran debajo de cada producto en la galería.");
     }
 
-}
\ No newline at end of file
+    /**
+     * Vuelve a cargar el catálogo de la galería (el carrito se conserva). Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        setupProductGallery();
+    }
+}
@@ -1,10 +1,17 @@
 package customOrders.Orders;
 
 import customOrders.PostgresConnector;
-import customOrders.util.Dialogs;
+import customOrders.Products.ProductCatalogCache;
+import customOrders.util.FlightEvents;
+import customOrders.util.Log;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * Gestiona las operaciones de base de datos relacionadas con la creación de pedidos
@@ -12,102 +19,170 @@ import java.util.List;
  */
 public class CreateOrderManager {
 
+    private static final Log LOG = Log.get(CreateOrderManager.class);
+
     // Definimos un estado inicial constante que no es nulo
     // CORRECCIÓN DE CHECK CONSTRAINT: Cambiado de "PENDIENTE" a "pendiente" (minúsculas)
     private static final String DEFAULT_ORDER_STATUS = "Pendiente";
 
+    /**
+     * Línea del carrito que no se pudo reservar por falta de stock.
+     * @param available Stock disponible en el momento del intento (0 si el producto ya no existe).
+     */
+    public record StockShortage(int productId, String productName, int requested, int available) {
+        @Override
+        public String toString() {
+            return productName + ": pedidas " + requested + ", disponibles " + available;
+        }
+    }
+
+    /**
+     * Resultado de un intento de pedido.
+     * @param orderId ID del pedido creado, o -1 si no se creó.
+     * @param shortages Líneas sin stock suficiente (vacío si el fallo fue otro o si hubo éxito).
+     * @param error Excepción de DB si la transacción falló por otro motivo (null en caso contrario).
+     */
+    public record OrderResult(int orderId, List<StockShortage> shortages, SQLException error) {
+        public boolean isSuccess() {
+            return orderId != -1;
+        }
+
+        static OrderResult created(int orderId) {
+            return new OrderResult(orderId, List.of(), null);
+        }
+
+        static OrderResult outOfStock(List<StockShortage> shortages) {
+            return new OrderResult(-1, List.copyOf(shortages), null);
+        }
+
+        static OrderResult failed(SQLException error) {
+            return new OrderResult(-1, List.of(), error);
+        }
+    }
+
     /**
      * Método principal que gestiona la transacción de la orden.
+     *
+     * El stock se reserva de forma atómica ANTES de crear el pedido: cada producto se descuenta con
+     * {@code UPDATE ... WHERE quantity >= ?} y se comprueba el número de filas afectadas, de modo que
+     * dos compras simultáneas de la última unidad no pueden tener éxito las dos (no hay stock negativo).
+     * Los productos se actualizan en orden de product_id para que las transacciones concurrentes
+     * bloqueen las filas siempre en el mismo orden (sin interbloqueos).
+     * Si falta stock en alguna línea se hace ROLLBACK y se informa de todas las líneas afectadas.
+     * Cada intento emite un evento JFR {@link FlightEvents.Checkout} (líneas, duración de la reserva de stock, resultado).
      */
-    public boolean createOrderAndUpdateStock(
+    public OrderResult createOrderAndUpdateStock(
             List<ProductInOrder> cartItems,
             Integer customerId,
             String shippingAddress,
             double totalAmount)
     {
+        // Cantidad total por producto (un producto puede aparecer en varias líneas), ordenada por product_id
+        SortedMap<Integer, Integer> requestedByProduct = new TreeMap<>();
+        Map<Integer, String> namesByProduct = new HashMap<>();
+        for (ProductInOrder item : cartItems) {
+            int productId = item.getProduct().getProduct_id();
+            requestedByProduct.merge(productId, item.getQuantity(), Integer::sum);
+            namesByProduct.putIfAbsent(productId, item.getProduct().getProduct_name());
+        }
+
+        FlightEvents.Checkout event = new FlightEvents.Checkout();
+        event.begin();
+        event.customerId = customerId;
+        event.lineCount = cartItems.size();
+        event.distinctProducts = requestedByProduct.size();
+        event.totalAmount = totalAmount;
+        event.orderId = -1;
+
         Connection conn = null;
         try {
             // 1. Obtener la conexión e iniciar la transacción
             conn = PostgresConnector.getConnection();
-            conn.setAutoCommit(false); // **INICIAR TRANSACCIÓN** // --- PASO A: Crear la Orden Maestra (Order Header) ---
+            conn.setAutoCommit(false); // **INICIAR TRANSACCIÓN**
+
+            // --- PASO A: Reservar stock (descuento condicional) ---
+            long reserveStart = System.nanoTime();
+            List<StockShortage> shortages = reserveStock(conn, requestedByProduct, namesByProduct);
+            event.stockUpdateDuration = System.nanoTime() - reserveStart;
+            if (!shortages.isEmpty()) {
+                event.outcome = "sin stock";
+                conn.rollback();
+                LOG.warn("Pedido rechazado por falta de stock: {}", shortages);
+                return OrderResult.outOfStock(shortages);
+            }
+
+            // --- PASO B: Crear la Orden Maestra (Order Header) ---
 
             // Inserción en la tabla Orders (que ya está correcta)
             String insertOrderSQL = "INSERT INTO Orders (customer_id, date_of_order, shipping_address, total_amount, order_status) VALUES (?, NOW(), ?, ?, ?)";
 
-            PreparedStatement pstmt = conn.prepareStatement(insertOrderSQL, Statement.RETURN_GENERATED_KEYS);
-
-            // 1. customer_id
-            pstmt.setInt(1, customerId);
-            // 2. shipping_address
-            pstmt.setString(2, shippingAddress);
-            // 3. total_amount
-            pstmt.setDouble(3, totalAmount);
-            // 4. order_status
-            pstmt.setString(4, DEFAULT_ORDER_STATUS);
-
-            pstmt.executeUpdate();
-
-            // Obtener el ID de la nueva orden (necesario para products_in_the_order)
             int orderId = -1;
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                orderId = rs.getInt(1);
+            try (PreparedStatement pstmt = conn.prepareStatement(insertOrderSQL, Statement.RETURN_GENERATED_KEYS)) {
+                // 1. customer_id
+                pstmt.setInt(1, customerId);
+                // 2. shipping_address
+                pstmt.setString(2, shippingAddress);
+                // 3. total_amount
+                pstmt.setDouble(3, totalAmount);
+                // 4. order_status
+                pstmt.setString(4, DEFAULT_ORDER_STATUS);
+
+                pstmt.executeUpdate();
+
+                // Obtener el ID de la nueva orden (necesario para products_in_the_order)
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        orderId = rs.getInt(1);
+                    }
+                }
             }
-            rs.close();
-            pstmt.close();
 
             if (orderId == -1) {
                 throw new SQLException("Fallo crítico al obtener el ID de la orden generada.");
             }
 
-            // --- PASO B: Insertar los Detalles de la Orden y Actualizar Stock ---
+            // --- PASO C: Insertar los Detalles de la Orden ---
 
             // CORRECCIÓN FINAL DE COLUMNA: 'product_price' cambiado a 'item_unit_price' (Según el esquema de la imagen)
             String insertDetailSQL = "INSERT INTO products_in_the_order (order_id, product_id, product_quantity, item_unit_price) VALUES (?, ?, ?, ?)";
-            String updateStockSQL = "UPDATE Products SET quantity = quantity - ? WHERE product_id = ?";
-
-            PreparedStatement pstmtDetail = conn.prepareStatement(insertDetailSQL);
-            PreparedStatement pstmtStock = conn.prepareStatement(updateStockSQL);
-
-            for (ProductInOrder item : cartItems) {
-                // 1. Insertar Detalle
-                pstmtDetail.setInt(1, orderId);
-                pstmtDetail.setInt(2, item.getProduct().getProduct_id());
-                // product_quantity
-                pstmtDetail.setInt(3, item.getQuantity());
-                // item_unit_price
-                pstmtDetail.setDouble(4, item.getUnit_price());
-                pstmtDetail.addBatch();
-
-                // 2. Actualizar Stock (Asumiendo que 'quantity' en Products sí existe y es correcto)
-                pstmtStock.setInt(1, item.getQuantity());
-                pstmtStock.setInt(2, item.getProduct().getProduct_id());
-                pstmtStock.addBatch();
-            }
 
-            pstmtDetail.executeBatch();
-            pstmtStock.executeBatch();
+            try (PreparedStatement pstmtDetail = conn.prepareStatement(insertDetailSQL)) {
+                for (ProductInOrder item : cartItems) {
+                    pstmtDetail.setInt(1, orderId);
+                    pstmtDetail.setInt(2, item.getProduct().getProduct_id());
+                    // product_quantity
+                    pstmtDetail.setInt(3, item.getQuantity());
+                    // item_unit_price
+                    pstmtDetail.setDouble(4, item.getUnit_price());
+                    pstmtDetail.addBatch();
+                }
+                pstmtDetail.executeBatch();
+            }
 
             // 3. Confirmar la transacción
             conn.commit(); // **CONFIRMAR CAMBIOS**
-            return true;
 
-        } catch (SQLException e) {
-            System.err.println("Error SQL en la transacción de la orden. Haciendo ROLLBACK.");
+            // Reflejar el descuento de stock en la caché del catálogo (sin recargarlo)
+            Map<Integer, Integer> stockDeltas = new HashMap<>();
+            requestedByProduct.forEach((productId, quantity) -> stockDeltas.put(productId, -quantity));
+            ProductCatalogCache.getInstance().adjustQuantities(stockDeltas);
+            event.outcome = "creado";
+            event.orderId = orderId;
+            return OrderResult.created(orderId);
 
-            // Mostrar un diálogo amigable al usuario
-            Dialogs.showErrorDialog("Error de Base de Datos", "Fallo al crear el pedido.", "Se ha producido un error crítico al intentar guardar el pedido en la base de datos. Se ha deshecho la operación. Error: " + e.getMessage(), e);
-            e.printStackTrace();
+        } catch (SQLException e) {
+            event.outcome = "error";
+            LOG.error("Error SQL en la transacción de la orden. Haciendo ROLLBACK.", e);
 
             // 4. Revertir la transacción si algo falla
             if (conn != null) {
                 try {
                     conn.rollback();
                 } catch (SQLException ex) {
-                    System.err.println("Fallo al hacer ROLLBACK: " + ex.getMessage());
+                    LOG.error("Fallo al hacer ROLLBACK: {}", ex.getMessage());
                 }
             }
-            return false;
+            return OrderResult.failed(e);
 
         } finally {
             // 5. Cerrar la conexión y restablecer el autocommit
@@ -116,11 +191,64 @@ public class CreateOrderManager {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar la conexión: " + e.getMessage());
+                    LOG.error("Error al cerrar la conexión: {}", e.getMessage());
                 }
             }
+            event.commit();
         }
     }
 
-    // --- Métodos Privados de soporte (Simplificados) ---
+    // --- Métodos Privados de soporte ---
+
+    /**
+     * Descuenta el stock de cada producto solo si hay cantidad suficiente.
+     * @param requestedByProduct Cantidad pedida por product_id, en orden de product_id.
+     * @return Las líneas sin stock suficiente (vacío si todo se reservó).
+     */
+    private List<StockShortage> reserveStock(Connection conn, SortedMap<Integer, Integer> requestedByProduct,
+                                             Map<Integer, String> namesByProduct) throws SQLException {
+        String reserveSQL = "UPDATE Products SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
+
+        List<Integer> failedIds = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(reserveSQL)) {
+            for (Map.Entry<Integer, Integer> line : requestedByProduct.entrySet()) {
+                ps.setInt(1, line.getValue());
+                ps.setInt(2, line.getKey());
+                ps.setInt(3, line.getValue());
+                ps.addBatch();
+            }
+            // Un UPDATE por producto en un solo round-trip; cada recuento indica si se reservó
+            int[] counts = ps.executeBatch();
+            int i = 0;
+            for (Integer productId : requestedByProduct.keySet()) {
+                if (counts[i++] == 0) {
+                    failedIds.add(productId);
+                }
+            }
+        }
+        if (failedIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Stock actual de las líneas que fallaron, para informar al usuario
+        Map<Integer, Integer> available = new HashMap<>();
+        Array idArray = conn.createArrayOf("integer", failedIds.toArray());
+        try (PreparedStatement ps = conn.prepareStatement("SELECT product_id, quantity FROM Products WHERE product_id = ANY(?)")) {
+            ps.setArray(1, idArray);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    available.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        } finally {
+            idArray.free();
+        }
+
+        List<StockShortage> shortages = new ArrayList<>(failedIds.size());
+        for (Integer productId : failedIds) {
+            shortages.add(new StockShortage(productId, namesByProduct.get(productId),
+                    requestedByProduct.get(productId), available.getOrDefault(productId, 0)));
+        }
+        return shortages;
+    }
 }
\ No newline at end of file
@@ -1,123 +1,177 @@
 package customOrders.Orders;
 
-import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductSummary;
 import customOrders.util.ImageUtil;
-import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
+import customOrders.util.Log;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Spinner;
 import javafx.scene.control.SpinnerValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-
-import java.net.URL;
-import java.util.ResourceBundle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
 
 /**
  * Controlador para la tarjeta individual de producto, maneja la adición al carrito.
+ *
+ * La tarjeta se construye por código (antes ProductCard.fxml) y es reutilizable:
+ * la galería virtualizada (ProductGallery) recicla las instancias llamando a setProductData()
+ * con el producto que corresponde a cada fila visible.
  */
-public class ProductCardController implements Initializable {
-
-    @FXML
-    private VBox productCard;
-    @FXML
-    private ImageView productImageView;
-    @FXML
-    private Label nameLabel; // <<< CORRECCIÓN FINAL: Debe ser 'nameLabel' para coincidir con el FXML
-    @FXML
-    private Label priceLabel;
-    @FXML
-    private Label stockLabel;
-    @FXML
-    private Spinner<Integer> quantitySpinner;
-    @FXML
-    private Button addButton;
-
-    private Product product;
+public class ProductCardController {
+
+    private static final Log LOG = Log.get(ProductCardController.class);
+
+    static final double CARD_WIDTH = 200.0;
+    static final double CARD_HEIGHT = 280.0;
+    private static final int IMAGE_WIDTH = 180;
+    private static final int IMAGE_HEIGHT = 120;
+
+    private static final String CARD_STYLE = "-fx-background-color: white; -fx-border-color: #e0e0e0; -fx-border-radius: 10; -fx-background-radius: 10; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);";
+    private static final String ADD_BUTTON_STYLE = "-fx-background-color: #3f51b5; -fx-text-fill: white; -fx-font-weight: bold; -fx-background-radius: 5; -fx-cursor: hand;";
+
+    private final VBox productCard;
+    private final ImageView productImageView;
+    private final Label nameLabel;
+    private final Label priceLabel;
+    private final Label stockLabel;
+    private final Spinner<Integer> quantitySpinner;
+    private final SpinnerValueFactory.IntegerSpinnerValueFactory quantityFactory;
+    private final Button addButton;
+
+    private ProductSummary product;
     // Referencia al controlador principal: CreateOrderController
-    private CreateOrderController mainController;
+    private final CreateOrderController mainController;
+
+    /**
+     * @param mainController Controlador principal que recibe los productos añadidos (puede ser null, p.ej. en benchmarks).
+     */
+    public ProductCardController(CreateOrderController mainController) {
+        this.mainController = mainController;
+
+        // Imagen del Producto
+        productImageView = new ImageView();
+        productImageView.setFitHeight(IMAGE_HEIGHT);
+        productImageView.setFitWidth(IMAGE_WIDTH);
+        productImageView.setPickOnBounds(true);
+        productImageView.setPreserveRatio(true);
+
+        // Nombre del Producto
+        nameLabel = new Label();
+        nameLabel.setAlignment(Pos.CENTER);
+        nameLabel.setMaxWidth(Double.MAX_VALUE);
+        nameLabel.setTextAlignment(TextAlignment.CENTER);
+        nameLabel.setWrapText(true);
+        nameLabel.setFont(Font.font("System", FontWeight.BOLD, 14.0));
+
+        // Precio y Stock
+        priceLabel = new Label("0.00 €");
+        priceLabel.setStyle("-fx-text-fill: #4CAF50; -fx-font-weight: bold;");
+        stockLabel = new Label();
+        stockLabel.setStyle("-fx-text-fill: #3f51b5; -fx-font-weight: normal;");
+
+        // Controles de Cantidad y Botón de Añadir
+        quantityFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 1, 1);
+        quantitySpinner = new Spinner<>(quantityFactory);
+        quantitySpinner.setEditable(true);
+        quantitySpinner.setPrefWidth(100.0);
+
+        addButton = new Button("Añadir al Carrito");
+        addButton.setMnemonicParsing(false);
+        addButton.setPrefSize(180.0, 30.0);
+        addButton.setStyle(ADD_BUTTON_STYLE);
+        addButton.setOnAction(event -> handleAddToCart());
+
+        VBox quantityBox = new VBox(5.0, new Label("Cantidad:"), quantitySpinner, addButton);
+        quantityBox.setAlignment(Pos.CENTER);
+        VBox.setVgrow(quantityBox, Priority.ALWAYS);
+        VBox.setMargin(quantityBox, new Insets(5.0, 0, 0, 0));
+
+        productCard = new VBox(5.0,
+                productImageView,
+                nameLabel,
+                labeledRow("Precio:", priceLabel),
+                labeledRow("Stock:", stockLabel),
+                quantityBox);
+        productCard.setAlignment(Pos.TOP_CENTER);
+        productCard.setPadding(new Insets(10.0));
+        productCard.setMinSize(CARD_WIDTH, CARD_HEIGHT);
+        productCard.setPrefSize(CARD_WIDTH, CARD_HEIGHT);
+        productCard.setMaxSize(CARD_WIDTH, CARD_HEIGHT);
+        productCard.setStyle(CARD_STYLE);
+    }
+
+    private static HBox labeledRow(String caption, Label value) {
+        Label captionLabel = new Label(caption);
+        captionLabel.setStyle("-fx-font-weight: bold;");
+        HBox.setHgrow(value, Priority.ALWAYS);
+        HBox row = new HBox(10.0, captionLabel, value);
+        row.setAlignment(Pos.CENTER_LEFT);
+        return row;
+    }
 
     /**
-     * Inyecta la referencia al controlador principal (CreateOrderController).
+     * Nodo raíz de la tarjeta.
      */
-    public void setMainController(CreateOrderController controller) {
-        this.mainController = controller;
+    public VBox getRoot() {
+        return productCard;
     }
 
     /**
      * Configura la vista de la tarjeta con los datos de un producto específico.
+     * Se llama cada vez que la tarjeta se recicla para otro producto.
      */
-    public void setProductData(Product product) {
+    public void setProductData(ProductSummary product) {
+        if (this.product == product) {
+            return; // Misma tarjeta, mismo producto: nada que redibujar
+        }
         this.product = product;
 
-        // Ahora 'nameLabel' NO debería ser null, ya que coincide con el fx:id="nameLabel"
-        nameLabel.setText(product.getProduct_name());
-        priceLabel.setText(String.format("%.2f €", product.getUnit_price()));
-        stockLabel.setText(product.getQuantity() + " en stock");
+        nameLabel.setText(product.productName());
+        priceLabel.setText(String.format("%.2f €", product.unitPrice()));
+        stockLabel.setText(product.quantity() + " en stock");
 
         // 1. Configurar el Spinner: mínimo 1, máximo el stock disponible, valor inicial 1
-        int maxQuantity = Math.max(0, product.getQuantity());
-        SpinnerValueFactory<Integer> valueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(1, maxQuantity, 1);
-        quantitySpinner.setValueFactory(valueFactory);
+        int maxQuantity = Math.max(0, product.quantity());
 
         // 2. Manejo de estado sin stock
         if (maxQuantity == 0) {
+            quantityFactory.setMin(0);
+            quantityFactory.setMax(0);
+            quantityFactory.setValue(0);
             addButton.setDisable(true);
             addButton.setText("Agotado");
             productCard.setOpacity(0.6);
             stockLabel.setText("Agotado");
-            if (quantitySpinner.getValueFactory() != null) {
-                quantitySpinner.getValueFactory().setValue(0);
-            }
             quantitySpinner.setDisable(true);
         } else {
+            // Primero el máximo: la factoría no acepta un mínimo mayor que el máximo actual
+            quantityFactory.setMax(maxQuantity);
+            quantityFactory.setMin(1);
+            quantityFactory.setValue(1);
             addButton.setDisable(false);
             addButton.setText("Añadir");
             productCard.setOpacity(1.0);
             quantitySpinner.setDisable(false);
         }
 
-        // 3. Cargar la imagen usando ImageUtil
+        // 3. Cargar la imagen usando ImageUtil (caché compartida, decodificación en segundo plano)
         loadImage();
     }
 
     /**
-     * Carga la imagen del producto usando la utilidad de Classpath.
+     * Carga la imagen del producto a través de la caché compartida de imágenes.
+     * Mientras se decodifica se muestra el placeholder; si la tarjeta se recicla antes, el resultado se descarta.
      */
     private void loadImage() {
-        if (product == null || product.getImage_url() == null || product.getImage_url().trim().isEmpty()) {
-            System.err.println("ProductCardController: Producto o URL de imagen nulo/vacío. Usando placeholder.");
-            Image fallback = ImageUtil.loadImageFromProductUrl("resources/´product_images/placeholder.png");
-            if (fallback != null) {
-                productImageView.setImage(fallback);
-            }
-            return;
-        }
-
-        String imagePath = product.getImage_url();
-        Image image = ImageUtil.loadImageFromProductUrl(imagePath);
-
-        if (image != null) {
-            productImageView.setImage(image);
-        } else {
-            System.err.println("Fallo al cargar la imagen para " + product.getProduct_name() +
-                    ". Revisar la ruta en DB: " + imagePath);
-            Image fallback = ImageUtil.loadImageFromProductUrl("/images/placeholder.png");
-            if (fallback != null) {
-                productImageView.setImage(fallback);
-            }
-        }
-    }
-
-
-    @Override
-    public void initialize(URL url, ResourceBundle resourceBundle) {
-        // Validación para evitar NPE si se usa FXML
-        if (addButton != null) {
-            addButton.setOnAction(event -> handleAddToCart());
-        }
+        ImageUtil.loadProductImage(productImageView, product == null ? null : product.imageUrl(),
+                IMAGE_WIDTH, IMAGE_HEIGHT);
     }
 
     /**
@@ -125,7 +179,7 @@ public class ProductCardController implements Initializable {
      */
     private void handleAddToCart() {
         if (mainController == null) {
-            System.err.println("Error: CreateOrderController no está configurado.");
+            LOG.error("CreateOrderController no está configurado.");
             return;
         }
 
@@ -136,13 +190,13 @@ public class ProductCardController implements Initializable {
             return;
         }
 
-        if (quantity > product.getQuantity()) {
-            mainController.showMessage("No hay suficiente stock disponible (" + product.getQuantity() + ").");
+        if (quantity > product.quantity()) {
+            mainController.showMessage("No hay suficiente stock disponible (" + product.quantity() + ").");
             return;
         }
 
         mainController.addToCart(this.product, quantity);
 
-        mainController.showMessage(quantity + " x " + product.getProduct_name() + " añadido al carrito.");
+        mainController.showMessage(quantity + " x " + product.productName() + " añadido al carrito.");
     }
-}
\ No newline at end of file
+}
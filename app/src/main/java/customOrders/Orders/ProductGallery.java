@@ -0,0 +1,120 @@
+package customOrders.Orders;
+
+import customOrders.Products.ProductManager.ProductSummary;
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Galería de productos virtualizada para la vista de creación de pedidos.
+ *
+ * Es un ListView cuyas filas son "tiras" de productos (tantos como columnas quepan en el ancho).
+ * El VirtualFlow del ListView solo crea celdas para las filas visibles y las recicla al hacer scroll,
+ * así que con 5.000 productos se crean unas pocas decenas de tarjetas en lugar de 5.000.
+ * Cada celda guarda sus ProductCardController y los reutiliza con setProductData().
+ */
+public final class ProductGallery extends ListView<List<ProductSummary>> {
+
+    private static final double HGAP = 15.0;
+    private static final double VGAP = 15.0;
+    private static final double PADDING = 10.0;
+    // Reserva para la barra de scroll vertical
+    private static final double SCROLLBAR_ALLOWANCE = 20.0;
+
+    private final CreateOrderController mainController;
+    private List<ProductSummary> products = List.of();
+    private int columns = 0;
+    private int createdCards = 0;
+
+    /**
+     * @param mainController Controlador que recibe los productos añadidos al carrito (puede ser null).
+     */
+    public ProductGallery(CreateOrderController mainController) {
+        this.mainController = mainController;
+
+        setCellFactory(lv -> new ProductRowCell());
+        // Altura fija: el VirtualFlow no necesita medir cada fila
+        setFixedCellSize(ProductCardController.CARD_HEIGHT + VGAP);
+        setFocusTraversable(false);
+        setStyle("-fx-background-color: white; -fx-border-color: #e0e0e0; -fx-border-radius: 5;");
+
+        // Al cambiar el ancho se recalcula cuántas tarjetas caben por fila
+        widthProperty().addListener((obs, oldWidth, newWidth) -> layoutRows(false));
+    }
+
+    /**
+     * Muestra un nuevo catálogo (hilo de JavaFX).
+     */
+    public void setProducts(List<ProductSummary> products) {
+        this.products = products;
+        layoutRows(true);
+    }
+
+    /**
+     * Número de tarjetas creadas desde el inicio (se mantiene acotado por las filas visibles).
+     */
+    public int getCreatedCardCount() {
+        return createdCards;
+    }
+
+    private void layoutRows(boolean force) {
+        int newColumns = computeColumns(getWidth());
+        if (!force && newColumns == columns) {
+            return;
+        }
+        columns = newColumns;
+
+        // Las filas son vistas (subList) sobre la lista de productos: no se copian datos
+        List<List<ProductSummary>> rows = new ArrayList<>((products.size() + columns - 1) / columns);
+        for (int from = 0; from < products.size(); from += columns) {
+            rows.add(products.subList(from, Math.min(from + columns, products.size())));
+        }
+        getItems().setAll(rows);
+    }
+
+    private static int computeColumns(double width) {
+        double usable = width - 2 * PADDING - SCROLLBAR_ALLOWANCE + HGAP;
+        return Math.max(1, (int) (usable / (ProductCardController.CARD_WIDTH + HGAP)));
+    }
+
+    /**
+     * Fila de la galería: reutiliza sus tarjetas para los productos de la fila que le toque mostrar.
+     */
+    private final class ProductRowCell extends ListCell<List<ProductSummary>> {
+        private final HBox row = new HBox(HGAP);
+        private final List<ProductCardController> cards = new ArrayList<>();
+
+        ProductRowCell() {
+            row.setPadding(new Insets(0, PADDING, VGAP, PADDING));
+            // Estilo fijo: la fila no se resalta al seleccionarla
+            setStyle("-fx-background-color: white; -fx-padding: 0;");
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(List<ProductSummary> rowProducts, boolean empty) {
+            super.updateItem(rowProducts, empty);
+            if (empty || rowProducts == null) {
+                setGraphic(null);
+                return;
+            }
+
+            while (cards.size() < rowProducts.size()) {
+                ProductCardController card = new ProductCardController(mainController);
+                createdCards++;
+                cards.add(card);
+            }
+            row.getChildren().clear();
+            for (int i = 0; i < rowProducts.size(); i++) {
+                ProductCardController card = cards.get(i);
+                card.setProductData(rowProducts.get(i));
+                row.getChildren().add(card.getRoot());
+            }
+            setGraphic(row);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import customOrders.Products.Product;
+import customOrders.Products.ProductManager.ProductSummary;
 
 /**
  * Clase de modelo para representar un producto en el carrito o en un pedido.
@@ -24,6 +25,15 @@ public class ProductInOrder {
                 updateTotalPrice(newVal.intValue()));
     }
 
+    /**
+     * Línea de carrito a partir del resumen de la galería. El Product solo lleva lo que usa el pedido
+     * (ID, nombre, precio, stock e imagen), igual que las líneas que reconstruye ViewOrdersController.
+     */
+    public ProductInOrder(ProductSummary summary, int quantity) {
+        this(new Product(summary.productId(), null, null, summary.productName(), summary.unitPrice(),
+                null, null, null, null, null, null, null, summary.quantity(), summary.imageUrl()), quantity);
+    }
+
     private void updateTotalPrice(int newQuantity) {
         double newTotal = this.product.getUnit_price() * newQuantity;
         this.totalPrice.set(newTotal);
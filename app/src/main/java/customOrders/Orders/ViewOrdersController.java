@@ -7,7 +7,9 @@ import javafx.beans.property.SimpleStringProperty; // Importación necesaria par
 import customOrders.PostgresConnector;
 import customOrders.Products.Product; // Necesario para la entidad Producto
 import customOrders.CustomerAware;
+import customOrders.Refreshable;
 import customOrders.Customer;
+import customOrders.util.DbLoader;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -28,12 +30,15 @@ import javafx.scene.control.cell.PropertyValueFactory;
 // Clases de modelos (asumo que están en el mismo paquete o importadas correctamente)
 import customOrders.Orders.Order;
 import customOrders.Orders.ProductInOrder;
+import customOrders.util.Log;
 
 /**
  * Controlador para la vista de historial de órdenes del cliente.
  * Muestra el resumen de órdenes (Order) y el detalle de ítems (ProductInOrder).
  */
-public class ViewOrdersController implements Initializable, CustomerAware {
+public class ViewOrdersController implements Initializable, CustomerAware, Refreshable {
+
+    private static final Log LOG = Log.get(ViewOrdersController.class);
 
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
@@ -43,6 +48,10 @@ public class ViewOrdersController implements Initializable, CustomerAware {
     // Lista de datos para la tabla principal
     private ObservableList<Order> orderData;
 
+    // Cargas en segundo plano (una nueva selección cancela la carga de detalle anterior)
+    private final DbLoader<List<Order>> ordersLoader = new DbLoader<>();
+    private final DbLoader<List<ProductInOrder>> itemsLoader = new DbLoader<>();
+
     // --- FXML Fields: Tabla de Resumen de Órdenes (Order) ---
     @FXML private TableView<Order> ordersTable;
     @FXML private TableColumn<Order, Integer> orderIdColumn;
@@ -80,6 +89,8 @@ public class ViewOrdersController implements Initializable, CustomerAware {
         // 1. Inicialización de datos
         orderData = FXCollections.observableArrayList();
         ordersTable.setItems(orderData);
+        ordersLoader.showProgressOn(ordersTable);
+        itemsLoader.showProgressOn(itemsTable);
 
         // 2. Configuración de Columnas de Resumen de Órdenes (Order)
         orderIdColumn.setCellValueFactory(new PropertyValueFactory<>("order_id"));
@@ -221,15 +232,17 @@ public class ViewOrdersController implements Initializable, CustomerAware {
      * Carga todas las órdenes del cliente especificado llamando al método DB interno.
      */
     public void loadCustomerOrders(int customerId) {
-        try {
-            orderData.setAll(getOrdersByCustomer(customerId));
-            setMessage("Pedidos cargados para el Cliente ID: " + customerId + ". Total: " + orderData.size(), false);
-            orderIdDetailLabel.setText("Órdenes cargadas para el Cliente ID: " + customerId);
-        } catch (SQLException e) {
-            setMessage("ERROR al cargar los pedidos. Verifique la conexión DB y modelos de datos. Mensaje: " + e.getMessage(), true);
-            e.printStackTrace();
-            orderData.clear();
-        }
+        ordersLoader.load(() -> getOrdersByCustomer(customerId),
+                orders -> {
+                    orderData.setAll(orders);
+                    setMessage("Pedidos cargados para el Cliente ID: " + customerId + ". Total: " + orderData.size(), false);
+                    orderIdDetailLabel.setText("Órdenes cargadas para el Cliente ID: " + customerId);
+                },
+                e -> {
+                    setMessage("ERROR al cargar los pedidos. Verifique la conexión DB y modelos de datos. Mensaje: " + e.getMessage(), true);
+                    LOG.error("Error al cargar los pedidos.", e);
+                    orderData.clear();
+                });
     }
 
     /**
@@ -237,37 +250,18 @@ public class ViewOrdersController implements Initializable, CustomerAware {
      */
     private void showOrderDetails(Order order) {
         if (order != null) {
-            try {
-                // 1. Cargar ítems y actualizar el modelo Order
-                List<ProductInOrder> items = getItemsForOrder(order.getOrder_id());
-                order.setItems(items); // Esto asegura que el total_amount de la orden se recalcule correctamente
-                itemsTable.getItems().setAll(items);
-
-                // *** CORRECCIÓN ADICIONAL: Forzar el refresco de la tabla principal ***
-                // Esto garantiza que el total_amount (que se recalcula en order.setItems())
-                // se muestre inmediatamente en la columna totalColumn, resolviendo el síntoma
-                // de tener que "picarle a la flecha" para que aparezca.
-                ordersTable.refresh();
-
-                // Actualizar etiquetas con detalles de la orden
-                orderDetailsTitle.setText("Contenido del Pedido ID: " + order.getOrder_id());
-                orderIdDetailLabel.setText(
-                        String.format("Fecha: %s | Estado: %s | Dirección: %s | Total: € %.2f",
-                                dateFormatter.format(order.getDate_of_order()),
-                                order.getOrder_status(),
-                                order.getShipping_address(),
-                                // Llama a calculateTotal() dentro del modelo Order.
-                                order.getTotal_amount()));
-                setMessage("Detalles del Pedido " + order.getOrder_id() + " cargados.", false);
-
-            } catch (SQLException e) {
-                setMessage("ERROR al cargar los detalles del pedido " + order.getOrder_id() + ": " + e.getMessage(), true);
-                itemsTable.getItems().clear();
-                e.printStackTrace();
-            }
+            // 1. Cargar ítems (en segundo plano) y actualizar el modelo Order
+            itemsLoader.load(() -> getItemsForOrder(order.getOrder_id()),
+                    items -> showOrderItems(order, items),
+                    e -> {
+                        setMessage("ERROR al cargar los detalles del pedido " + order.getOrder_id() + ": " + e.getMessage(), true);
+                        itemsTable.getItems().clear();
+                        LOG.error("Error al cargar los detalles del pedido {}.", order.getOrder_id(), e);
+                    });
 
         } else {
             // Limpiar la vista si no hay selección
+            itemsLoader.cancel();
             orderDetailsTitle.setText("Seleccione un Pedido para ver el Contenido");
             orderIdDetailLabel.setText("Órdenes cargadas para el Cliente ID: " + currentCustomerId);
             itemsTable.getItems().clear();
@@ -275,6 +269,31 @@ public class ViewOrdersController implements Initializable, CustomerAware {
         }
     }
 
+    /**
+     * Muestra los ítems ya cargados de la orden (hilo de JavaFX).
+     */
+    private void showOrderItems(Order order, List<ProductInOrder> items) {
+        order.setItems(items); // Esto asegura que el total_amount de la orden se recalcule correctamente
+        itemsTable.getItems().setAll(items);
+
+        // *** CORRECCIÓN ADICIONAL: Forzar el refresco de la tabla principal ***
+        // Esto garantiza que el total_amount (que se recalcula en order.setItems())
+        // se muestre inmediatamente en la columna totalColumn, resolviendo el síntoma
+        // de tener que "picarle a la flecha" para que aparezca.
+        ordersTable.refresh();
+
+        // Actualizar etiquetas con detalles de la orden
+        orderDetailsTitle.setText("Contenido del Pedido ID: " + order.getOrder_id());
+        orderIdDetailLabel.setText(
+                String.format("Fecha: %s | Estado: %s | Dirección: %s | Total: € %.2f",
+                        dateFormatter.format(order.getDate_of_order()),
+                        order.getOrder_status(),
+                        order.getShipping_address(),
+                        // Llama a calculateTotal() dentro del modelo Order.
+                        order.getTotal_amount()));
+        setMessage("Detalles del Pedido " + order.getOrder_id() + " cargados.", false);
+    }
+
     /**
      * Muestra un mensaje de estado/error en la etiqueta inferior.
      */
@@ -324,4 +343,14 @@ public class ViewOrdersController implements Initializable, CustomerAware {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar los pedidos del cliente. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        if (currentCustomerId > 0) {
+            loadCustomerOrders(currentCustomerId);
+        }
+    }
+}
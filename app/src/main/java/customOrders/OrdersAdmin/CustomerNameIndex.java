@@ -0,0 +1,143 @@
+package customOrders.OrdersAdmin;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos (inmutable) para el autocompletado de clientes.
+ *
+ * Los nombres se normalizan (minúsculas, sin tildes, espacios simples) y se guardan en arrays ordenados,
+ * así una búsqueda es una búsqueda binaria más un recorrido de como mucho {@code limit} resultados,
+ * sin crear cadenas por cada cliente en cada pulsación.
+ * - Primero se devuelven los nombres cuyo nombre completo empieza por el texto ("ana g" -> "Ana García").
+ * - Después los que tienen alguna otra palabra que empieza por el texto ("garc" -> "Ana García").
+ */
+public final class CustomerNameIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    public static final CustomerNameIndex EMPTY = build(List.of());
+
+    // Nombres originales (para mostrar), en el orden de entrada sin duplicados
+    private final String[] names;
+    // Nombre completo normalizado, ordenado, con el índice del nombre original
+    private final String[] fullKeys;
+    private final int[] fullIds;
+    // Sufijos que empiezan en la segunda palabra y siguientes, ordenados
+    private final String[] wordKeys;
+    private final int[] wordIds;
+
+    private CustomerNameIndex(String[] names, String[] fullKeys, int[] fullIds, String[] wordKeys, int[] wordIds) {
+        this.names = names;
+        this.fullKeys = fullKeys;
+        this.fullIds = fullIds;
+        this.wordKeys = wordKeys;
+        this.wordIds = wordIds;
+    }
+
+    /**
+     * Construye el índice (O(n log n)); pensado para ejecutarse fuera del hilo de JavaFX.
+     */
+    public static CustomerNameIndex build(Collection<String> customerNames) {
+        String[] names = customerNames.stream()
+                .filter(name -> name != null && !name.isBlank())
+                .distinct()
+                .toArray(String[]::new);
+
+        List<Entry> full = new ArrayList<>(names.length);
+        List<Entry> words = new ArrayList<>(names.length);
+        for (int id = 0; id < names.length; id++) {
+            String key = normalize(names[id]);
+            full.add(new Entry(key, id));
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                words.add(new Entry(key.substring(i + 1), id));
+            }
+        }
+        Comparator<Entry> order = Comparator.comparing(Entry::key).thenComparing(e -> names[e.id()]);
+        full.sort(order);
+        words.sort(order);
+
+        return new CustomerNameIndex(names,
+                full.stream().map(Entry::key).toArray(String[]::new),
+                full.stream().mapToInt(Entry::id).toArray(),
+                words.stream().map(Entry::key).toArray(String[]::new),
+                words.stream().mapToInt(Entry::id).toArray());
+    }
+
+    private record Entry(String key, int id) { }
+
+    /**
+     * Devuelve como mucho {@code limit} nombres que coinciden con el prefijo (sin distinguir mayúsculas ni tildes).
+     */
+    public List<String> search(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Ids ya devueltos: como mucho 'limit', así que comprobar duplicados es un recorrido corto
+        int[] taken = new int[limit];
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        // Primero coincidencias del nombre completo; después, del resto de palabras (sin repetir nombres)
+        collect(fullKeys, fullIds, key, limit, result, taken);
+        collect(wordKeys, wordIds, key, limit, result, taken);
+        return result;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Normalización usada tanto en el índice como en las consultas: minúsculas, sin tildes ni diéresis
+     * ("Peña" -> "pena"), sin espacios al inicio/final y con un solo espacio entre palabras.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(folded.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private void collect(String[] keys, int[] ids, String prefix, int limit, List<String> result, int[] taken) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && result.size() < limit; i++) {
+            if (!keys[i].startsWith(prefix)) {
+                break;
+            }
+            int id = ids[i];
+            if (!contains(taken, result.size(), id)) {
+                taken[result.size()] = id;
+                result.add(names[id]);
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Primera posición cuya clave es >= prefix
+    private static int lowerBound(String[] keys, String prefix) {
+        int position = Arrays.binarySearch(keys, prefix);
+        if (position < 0) {
+            return -position - 1;
+        }
+        while (position > 0 && keys[position - 1].equals(prefix)) {
+            position--;
+        }
+        return position;
+    }
+}
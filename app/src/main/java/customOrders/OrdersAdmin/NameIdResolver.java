@@ -0,0 +1,169 @@
+package customOrders.OrdersAdmin;
+
+import customOrders.ChangeNotifications;
+import customOrders.Products.Product;
+import customOrders.Products.ProductCatalogCache;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolución compartida nombre -> ID de productos y clientes para la creación de pedidos.
+ *
+ * Los nombres se buscan primero en memoria (la caché del catálogo, si ya está cargada, y un índice
+ * propio con los nombres resueltos anteriormente). Los que falten se resuelven con UNA consulta
+ * {@code = ANY(?)} para todo el pedido, en lugar de un SELECT por línea.
+ *
+ * El índice se limpia con las notificaciones de cambios de products/customers (ChangeNotifications),
+ * para no devolver IDs de filas borradas o renombradas desde otra estación.
+ */
+public class NameIdResolver {
+
+    private static final NameIdResolver INSTANCE = new NameIdResolver();
+
+    public static NameIdResolver getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<String, Integer> productIdsByName = new ConcurrentHashMap<>();
+    private final Map<String, Integer> customerIdsByName = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private NameIdResolver() {
+        ChangeNotifications notifications = ChangeNotifications.getInstance();
+        notifications.subscribe(ChangeNotifications.Table.PRODUCTS, event -> forget(productIdsByName, event));
+        notifications.subscribe(ChangeNotifications.Table.CUSTOMERS, event -> forget(customerIdsByName, event));
+    }
+
+    /**
+     * Resuelve los IDs de varios productos por nombre con, como mucho, una consulta a la DB.
+     * @param conn Conexión (de la transacción del pedido) usada para los nombres que no estén en memoria.
+     * @return Mapa nombre -> product_id con todos los nombres pedidos.
+     * @throws SQLException Si algún producto no existe.
+     */
+    public Map<String, Integer> resolveProductIds(Connection conn, Collection<String> productNames) throws SQLException {
+        Map<String, Integer> resolved = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        // Si la caché del catálogo está cargada se usa su índice por nombre (sin forzar su carga)
+        Map<String, Product> catalogByName = ProductCatalogCache.getInstance().peekSnapshot()
+                .map(ProductCatalogCache.Snapshot::byName)
+                .orElse(Map.of());
+
+        for (String name : new LinkedHashSet<>(productNames)) {
+            Product cached = catalogByName.get(name);
+            Integer id = cached != null ? cached.getProduct_id() : productIdsByName.get(name);
+            if (id != null) {
+                hits.increment();
+                resolved.put(name, id);
+            } else {
+                misses.increment();
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // Con nombres repetidos en la DB gana el de menor ID (igual que la caché del catálogo)
+            String sql = "SELECT product_name, product_id FROM products WHERE product_name = ANY(?) ORDER BY product_id";
+            Array nameArray = conn.createArrayOf("varchar", missing.toArray());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, nameArray);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String name = rs.getString(1);
+                        int id = rs.getInt(2);
+                        if (resolved.putIfAbsent(name, id) == null) {
+                            productIdsByName.put(name, id);
+                        }
+                    }
+                }
+            } finally {
+                nameArray.free();
+            }
+
+            for (String name : missing) {
+                if (!resolved.containsKey(name)) {
+                    throw new SQLException("Producto no encontrado: " + name);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Busca el ID de un cliente por nombre y apellido(s).
+     * @return El customer_id, o null si no existe.
+     */
+    public Integer findCustomerId(Connection conn, String firstName, String lastName) throws SQLException {
+        String key = customerKey(firstName, lastName);
+        Integer id = customerIdsByName.get(key);
+        if (id != null) {
+            hits.increment();
+            return id;
+        }
+        misses.increment();
+
+        String sql = "SELECT customer_id FROM customers WHERE first_name = ? AND last_name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, firstName);
+            pstmt.setString(2, lastName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    id = rs.getInt(1);
+                    customerIdsByName.put(key, id);
+                    return id;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registra un cliente recién creado. Debe llamarse después del commit
+     * (si la transacción se revierte, el ID no existe).
+     */
+    public void rememberCustomer(String firstName, String lastName, int customerId) {
+        customerIdsByName.put(customerKey(firstName, lastName), customerId);
+    }
+
+    /**
+     * Métricas del resolvedor.
+     * @param hits Nombres resueltos en memoria.
+     * @param misses Nombres que tuvieron que consultarse en la DB.
+     */
+    public record ResolverStats(long hits, long misses) {
+        @Override
+        public String toString() {
+            return String.format("Resolución nombre->ID: aciertos=%d, fallos=%d", hits, misses);
+        }
+    }
+
+    public ResolverStats getStats() {
+        return new ResolverStats(hits.sum(), misses.sum());
+    }
+
+    private static String customerKey(String firstName, String lastName) {
+        return firstName + '\u0000' + lastName;
+    }
+
+    private static void forget(Map<String, Integer> index, ChangeNotifications.ChangeEvent event) {
+        switch (event.operation()) {
+            case INSERT -> { } // Un alta no invalida ningún ID ya resuelto
+            case UPDATE, DELETE -> index.values().removeIf(id -> id == event.id());
+            case RESYNC -> index.clear();
+        }
+    }
+}
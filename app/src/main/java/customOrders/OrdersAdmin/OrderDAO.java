@@ -1,5 +1,7 @@
 package customOrders.OrdersAdmin;
 
+import customOrders.util.Log;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -12,11 +14,13 @@ import java.sql.Statement;
  */
 public class OrderDAO {
 
+    private static final Log LOG = Log.get(OrderDAO.class);
+
     // Simulación de la conexión a la base de datos
     private Connection getConnection() throws SQLException {
         // En una aplicación real, aquí iría la lógica para obtener la conexión (ej: DataSource, JDBC).
         // Usaremos una simulación simple.
-        System.out.println("DEBUG: Conexión simulada a la DB.");
+        LOG.debug("Conexión simulada a la DB.");
         return null; // Retorna null en la simulación
     }
 
@@ -35,14 +39,13 @@ public class OrderDAO {
 
         // Simulación:
         if (getConnection() == null) {
-            System.out.println("DEBUG: Simulando eliminación de TODOS los pedidos.");
+            LOG.debug("Simulando eliminación de TODOS los pedidos.");
 
             // Simulación de filas afectadas
             deletedItems = 150;
             deletedOrders = 50;
 
-            System.out.println("DEBUG: Eliminación simulada exitosa.");
-            System.out.printf("DEBUG: Ítems de pedido eliminados: %d, Pedidos eliminados: %d%n", deletedItems, deletedOrders);
+            LOG.debug("Eliminación simulada exitosa. Ítems de pedido eliminados: {}, Pedidos eliminados: {}", deletedItems, deletedOrders);
 
             return deletedOrders;
         }
@@ -65,7 +68,7 @@ public class OrderDAO {
 
             conn.commit(); // Confirmar la transacción
 
-            System.out.println("Se eliminaron " + deletedItems + " ítems y " + deletedOrders + " pedidos.");
+            LOG.info("Se eliminaron {} ítems y {} pedidos.", deletedItems, deletedOrders);
             return deletedOrders;
 
         } catch (SQLException e) {
@@ -73,7 +76,7 @@ public class OrderDAO {
                 try {
                     conn.rollback(); // Deshacer en caso de error
                 } catch (SQLException ex) {
-                    ex.printStackTrace();
+                    LOG.error("Error al hacer rollback de la eliminación de pedidos.", ex);
                 }
             }
             throw new SQLException("Error al eliminar todos los pedidos: " + e.getMessage());
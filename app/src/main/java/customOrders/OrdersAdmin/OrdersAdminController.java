@@ -1,28 +1,36 @@
 package customOrders.OrdersAdmin;
 
+import customOrders.Refreshable;
 import customOrders.OrdersAdmin.OrdersAdminManager.AvailableProduct;
 import customOrders.OrdersAdmin.OrdersAdminManager.Order;
 import customOrders.OrdersAdmin.OrdersAdminManager.OrderItem;
+import customOrders.util.DbExecutor;
+import customOrders.util.DbLoader;
+import customOrders.util.Log;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.util.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * OrdersAdminController: Capa de Presentación y Control.
  * Maneja la interacción del usuario y actualiza la vista,
  * utilizando OrdersAdminManager para la lógica de negocio.
- * * Incluye lógica de ordenación personalizada: Pendientes más antiguos primero.
+ * * Incluye lógica de ordenación personalizada: Pendientes más antiguos primero
+ * (resuelta en SQL y cargada por páginas a medida que se desplaza la tabla).
  */
-public class OrdersAdminController {
+public class OrdersAdminController implements Refreshable {
+
+    private static final Log LOG = Log.get(OrdersAdminController.class);
 
     // --- Componentes FXML ---
 
@@ -56,8 +64,23 @@ public class OrdersAdminController {
     private final OrdersAdminManager manager;
     private ObservableList<Order> ordersList;
     private ObservableList<OrderItem> newOrderItemsList;
-    // Lista completa de nombres de clientes para el autocompletado
-    private ObservableList<String> allCustomerNames;
+    // Autocompletado de clientes: índice de prefijos en memoria o, con
+    // -DcustomOrders.customerAutocomplete=sql, consultas a la DB (tablas de clientes muy grandes)
+    private static final boolean SQL_CUSTOMER_AUTOCOMPLETE =
+            "sql".equalsIgnoreCase(System.getProperty("customOrders.customerAutocomplete"));
+    private static final int AUTOCOMPLETE_LIMIT = 15;
+    private static final Duration AUTOCOMPLETE_DEBOUNCE = Duration.millis(150);
+    private CustomerNameIndex customerNameIndex = CustomerNameIndex.EMPTY;
+    private final PauseTransition autocompleteDebounce = new PauseTransition(AUTOCOMPLETE_DEBOUNCE);
+    private final DbLoader<List<String>> customerSearchLoader = new DbLoader<>();
+
+    // Paginación keyset de la tabla de pedidos
+    private static final int ORDERS_PAGE_SIZE = 200;
+    private static final int ORDERS_PREFETCH_ROWS = 20;
+    private OrdersAdminManager.OrderCursor nextOrdersCursor;
+    private boolean hasMoreOrders = true;
+    private final DbLoader<OrdersAdminManager.OrderPage> pageLoader = new DbLoader<>();
+    private boolean nextPageQueued = false;
 
     public OrdersAdminController() {
         this.manager = new OrdersAdminManager();
@@ -69,7 +92,6 @@ public class OrdersAdminController {
     public void initialize() {
         ordersList = FXCollections.observableArrayList();
         newOrderItemsList = FXCollections.observableArrayList();
-        allCustomerNames = FXCollections.observableArrayList();
 
         setupOrdersTable();
         setupNewOrderItemsTable();
@@ -149,7 +171,25 @@ public class OrdersAdminController {
             }
         });
 
+        // Carga perezosa: al pintar una fila cercana al final, se pide la siguiente página
+        ordersTable.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(Order item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && hasMoreOrders && !nextPageQueued
+                        && getIndex() >= ordersList.size() - ORDERS_PREFETCH_ROWS) {
+                    // Se difiere para no modificar la lista durante el layout de la tabla
+                    nextPageQueued = true;
+                    Platform.runLater(() -> {
+                        nextPageQueued = false;
+                        loadNextOrdersPage();
+                    });
+                }
+            }
+        });
+
         ordersTable.setItems(ordersList);
+        pageLoader.showProgressOn(ordersTable);
     }
 
     private void setupNewOrderItemsTable() {
@@ -168,32 +208,32 @@ public class OrdersAdminController {
 
     private void setupProductCreationControls() {
         if (productComboBox == null || quantitySpinner == null) {
-            System.err.println("FATAL ERROR FXML: Componentes de producto/cantidad no inicializados.");
+            LOG.error("FXML: Componentes de producto/cantidad no inicializados.");
             return;
         }
 
-        // Cargar productos disponibles para el ComboBox
-        try {
-            List<AvailableProduct> products = manager.loadAvailableProducts();
-            productComboBox.getItems().addAll(products);
-
-            // Configurar la visualización del producto (Nombre y Precio)
-            productComboBox.setCellFactory(lv -> new ListCell<>() {
-                @Override
-                protected void updateItem(AvailableProduct item, boolean empty) {
-                    super.updateItem(item, empty);
-                    setText(empty ? "" : item.getName() + " ($" + String.format("%.2f", item.getPrice()) + ")");
-                }
-            });
-            productComboBox.setButtonCell(productComboBox.getCellFactory().call(null));
-
-            if (!products.isEmpty()) {
-                productComboBox.getSelectionModel().selectFirst();
+        // Configurar la visualización del producto (Nombre y Precio)
+        productComboBox.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(AvailableProduct item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? "" : item.getName() + " ($" + String.format("%.2f", item.getPrice()) + ")");
             }
-        } catch (RuntimeException e) {
-            System.err.println("Error al cargar datos del Manager: " + e.getMessage());
-            showAlert("Error de Carga de Datos", "No se pudieron cargar los productos disponibles: " + e.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
+        productComboBox.setButtonCell(productComboBox.getCellFactory().call(null));
+
+        // Cargar productos disponibles para el ComboBox (en segundo plano)
+        DbExecutor.submit(manager::loadAvailableProducts,
+                products -> {
+                    productComboBox.getItems().addAll(products);
+                    if (!products.isEmpty()) {
+                        productComboBox.getSelectionModel().selectFirst();
+                    }
+                },
+                e -> {
+                    LOG.error("Error al cargar los productos disponibles: {}", e.getMessage());
+                    showAlert("Error de Carga de Datos", "No se pudieron cargar los productos disponibles: " + e.getMessage(), Alert.AlertType.ERROR);
+                });
 
         // Inicializar Spinner de Cantidad
         quantitySpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 100, 1));
@@ -205,45 +245,83 @@ public class OrdersAdminController {
 
     /**
      * Configura el ComboBox del cliente para tener funcionalidad de autocompletado.
+     * Las búsquedas se agrupan (debounce): solo se consulta cuando el usuario deja de escribir
+     * AUTOCOMPLETE_DEBOUNCE, y se muestran como mucho AUTOCOMPLETE_LIMIT sugerencias.
      */
     private void setupCustomerAutocomplete() {
-        // 1. Cargar la lista completa de nombres de clientes
-        try {
-            List<String> names = manager.loadAllCustomerNames();
-            allCustomerNames.setAll(names); // Usamos setAll para manejar la recarga
-        } catch (RuntimeException e) {
-            System.err.println("Error al cargar nombres de clientes para autocompletar: " + e.getMessage());
-        }
+        // 1. Cargar el índice de nombres de clientes (en modo SQL no hace falta)
+        loadCustomerNames();
 
-        newCustomerNameComboBox.setItems(allCustomerNames);
         newCustomerNameComboBox.setEditable(true);
+        autocompleteDebounce.setOnFinished(event -> searchCustomers(newCustomerNameComboBox.getEditor().getText()));
 
         // 2. Implementar el filtro de autocompletado
         newCustomerNameComboBox.getEditor().textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue == null || newValue.isEmpty()) {
-                // Si el campo está vacío, restaurar todos los ítems y ocultar.
-                newCustomerNameComboBox.setItems(allCustomerNames);
+            if (newValue == null || newValue.isBlank()) {
+                // Si el campo está vacío, no hay sugerencias.
+                autocompleteDebounce.stop();
+                customerSearchLoader.cancel();
+                newCustomerNameComboBox.getItems().clear();
                 newCustomerNameComboBox.hide();
                 return;
             }
-
-            // Crear una lista filtrada (no sensible a mayúsculas/minúsculas)
-            List<String> filteredList = allCustomerNames.stream()
-                    .filter(name -> name.toLowerCase().startsWith(newValue.toLowerCase()))
-                    .toList();
-
-            // Actualizar la lista visible en el ComboBox
-            newCustomerNameComboBox.setItems(FXCollections.observableArrayList(filteredList));
-
-            // Mostrar el ComboBox si hay ítems filtrados
-            if (!filteredList.isEmpty() && !newCustomerNameComboBox.isShowing()) {
-                newCustomerNameComboBox.show();
-            } else if (filteredList.isEmpty()) {
-                newCustomerNameComboBox.hide();
+            if (newValue.equals(newCustomerNameComboBox.getValue())) {
+                return; // El texto viene de elegir una sugerencia
             }
+            autocompleteDebounce.playFromStart();
         });
     }
 
+    /**
+     * Busca las sugerencias para el texto escrito (en memoria o en la DB según el modo).
+     */
+    private void searchCustomers(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return;
+        }
+        if (SQL_CUSTOMER_AUTOCOMPLETE) {
+            // Si el usuario sigue escribiendo, DbLoader descarta la consulta anterior
+            customerSearchLoader.load(() -> manager.searchCustomerNames(prefix, AUTOCOMPLETE_LIMIT),
+                    this::showCustomerSuggestions,
+                    e -> LOG.error("Error al buscar clientes para autocompletar: {}", e.getMessage()));
+        } else {
+            showCustomerSuggestions(customerNameIndex.search(prefix, AUTOCOMPLETE_LIMIT));
+        }
+    }
+
+    /**
+     * Actualiza la lista visible del ComboBox con las sugerencias.
+     */
+    private void showCustomerSuggestions(List<String> suggestions) {
+        newCustomerNameComboBox.getItems().setAll(suggestions);
+
+        // Mostrar el ComboBox si hay ítems filtrados
+        if (!suggestions.isEmpty() && !newCustomerNameComboBox.isShowing()) {
+            newCustomerNameComboBox.show();
+        } else if (suggestions.isEmpty()) {
+            newCustomerNameComboBox.hide();
+        }
+    }
+
+    /**
+     * Carga (o recarga) en segundo plano el índice de nombres de clientes usado por el autocompletado.
+     */
+    private void loadCustomerNames() {
+        if (SQL_CUSTOMER_AUTOCOMPLETE) {
+            // Sin índice en memoria: las búsquedas usan el de customer_search_index.sql en la DB
+            DbExecutor.submit(() -> {
+                        OrdersAdminManager.ensureCustomerSearchIndex();
+                        return null;
+                    },
+                    ignored -> { },
+                    e -> LOG.warn("No se pudo instalar el índice de búsqueda de clientes (ejecutar db/customer_search_index.sql a mano): {}",
+                            e.getMessage()));
+            return;
+        }
+        DbExecutor.submit(() -> CustomerNameIndex.build(manager.loadAllCustomerNames()),
+                index -> customerNameIndex = index, // Se sustituye el índice entero al recargar
+                e -> LOG.error("Error al cargar nombres de clientes para autocompletar: {}", e.getMessage()));
+    }
 
     private void setupListeners() {
         // Listener para la selección de pedidos en la tabla
@@ -260,48 +338,62 @@ public class OrdersAdminController {
     }
 
     /**
-     * Carga los datos iniciales de la base de datos y los ordena según los criterios:
+     * Carga la primera página de pedidos. El orden lo resuelve la DB (paginación keyset):
      * 1. Pendientes primero.
      * 2. Fecha más antigua primero.
+     * Las páginas siguientes se piden al acercarse al final de la tabla (ver setupOrdersTable).
      */
     private void loadInitialData() {
-        try {
-            List<Order> loadedOrders = manager.loadAllOrders();
-
-            // --- Lógica de Ordenación Solicitada ---
-            loadedOrders.sort(getOrderComparator());
-            // ----------------------------------------
+        loadInitialData(-1);
+    }
 
-            ordersList.setAll(loadedOrders);
-            if (!loadedOrders.isEmpty()) {
-                ordersTable.getSelectionModel().selectFirst();
+    /**
+     * Recarga desde la primera página (cancelando cualquier página en curso).
+     * @param orderIdToSelect Pedido a seleccionar tras la carga, o -1 para seleccionar el primero.
+     */
+    private void loadInitialData(int orderIdToSelect) {
+        nextOrdersCursor = null;
+        hasMoreOrders = true;
+        ordersList.clear();
+        loadOrdersPage(null, () -> {
+            Order toSelect = ordersList.stream()
+                    .filter(o -> orderIdToSelect == -1 || o.getOrderId() == orderIdToSelect)
+                    .findFirst()
+                    .orElse(null);
+            if (toSelect != null) {
+                ordersTable.getSelectionModel().select(toSelect);
+                ordersTable.scrollTo(toSelect);
             }
-        } catch (RuntimeException e) {
-            System.err.println("Error al cargar datos del Manager: " + e.getMessage());
-            showAlert("Error de Conexión", "No se pudo conectar a la base de datos o cargar los pedidos: " + e.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+
+    /**
+     * Pide a la DB la siguiente página de pedidos y la añade al final de la tabla.
+     */
+    private void loadNextOrdersPage() {
+        if (pageLoader.isLoading() || !hasMoreOrders) {
+            return;
         }
+        loadOrdersPage(nextOrdersCursor, null);
     }
 
     /**
-     * Define el comparador personalizado para ordenar los pedidos:
-     * 1. Prioridad para estado "Pendiente" (true = aparece primero).
-     * 2. Luego, por Fecha (Ascendente: más antigua primero).
+     * Carga una página en segundo plano y la añade a la tabla en el hilo de JavaFX.
      */
-    private Comparator<Order> getOrderComparator() {
-        return Comparator
-                // 1. Ordenar por Estado (Pendiente primero)
-                // Corregido: Eliminado el argumento de tipo <Order> que causaba el error de compilación.
-                .comparing((Order order) -> Objects.equals(order.getStatus(), "Pendiente"), Comparator.reverseOrder())
-                // 2. Luego, por Fecha (Ascendente: más antigua primero)
-                .thenComparing(order -> {
-                    try {
-                        // Convertir la fecha String a LocalDate para una comparación adecuada (ISO_DATE: YYYY-MM-DD)
-                        return LocalDate.parse(order.getDate(), DateTimeFormatter.ISO_DATE);
-                    } catch (Exception e) {
-                        // Manejar error de parseo, asignando la fecha mínima para que aparezca al inicio
-                        System.err.println("Advertencia: Error al parsear fecha del pedido ID " + order.getOrderId() + ". Usando fecha mínima.");
-                        return LocalDate.MIN;
+    private void loadOrdersPage(OrdersAdminManager.OrderCursor after, Runnable onLoaded) {
+        pageLoader.load(() -> manager.loadOrdersPage(after, ORDERS_PAGE_SIZE),
+                page -> {
+                    ordersList.addAll(page.orders());
+                    nextOrdersCursor = page.nextCursor();
+                    hasMoreOrders = page.hasMore();
+                    if (onLoaded != null) {
+                        onLoaded.run();
                     }
+                },
+                e -> {
+                    hasMoreOrders = false;
+                    LOG.error("Error al cargar los pedidos: {}", e.getMessage());
+                    showAlert("Error de Conexión", "No se pudo conectar a la base de datos o cargar los pedidos: " + e.getMessage(), Alert.AlertType.ERROR);
                 });
     }
 
@@ -348,37 +440,22 @@ public class OrdersAdminController {
 
         // Se traduce el estado de la UI ('Completado') al valor de la DB ('Entregado')
         String dbStatus = mapDisplayStatusToDbStatus(displayStatus);
-        System.out.println("DEBUG: Enviando estado a DB (Valor de DB): " + dbStatus); // Para verificar
-
-        if (manager.updateOrderStatus(selectedOrder.getOrderId(), dbStatus)) {
-
-            int index = ordersList.indexOf(selectedOrder);
-            if (index != -1) {
-                // Crear una copia inmutable con el nuevo estado (en formato DB)
-                Order updatedOrder = new Order(
-                        selectedOrder.getOrderId(),
-                        selectedOrder.getCustomerName(),
-                        selectedOrder.getDate(),
-                        dbStatus, // Estado actualizado (en el formato de la DB)
-                        selectedOrder.getShippingAddress(),
-                        selectedOrder.getItems()
-                );
-
-                // 1. Actualizar el objeto Order en la lista observable.
-                ordersList.set(index, updatedOrder);
-
-                // 2. Reordenar toda la lista. Esto moverá el pedido si su estado Pendiente cambió.
-                ordersList.sort(getOrderComparator());
-
-                // 3. Volver a seleccionar el pedido actualizado.
-                ordersTable.getSelectionModel().select(updatedOrder);
-                showOrderDetails(updatedOrder); // Refrescar detalles
-            }
-            // Notificar usando el término de la UI
-            showAlert("Éxito", "Estado del pedido actualizado a " + displayStatus + " correctamente.", Alert.AlertType.INFORMATION);
-        } else {
-            showAlert("Error de DB", "No se pudo actualizar el estado del pedido. Revisa los logs del Manager para detalles.", Alert.AlertType.ERROR);
-        }
+        LOG.debug("Enviando estado a DB (Valor de DB): {}", dbStatus);
+
+        int orderId = selectedOrder.getOrderId();
+        DbExecutor.submit(() -> manager.updateOrderStatus(orderId, dbStatus),
+                updated -> {
+                    if (updated) {
+                        // El orden (Pendientes primero) lo resuelve la DB: recargamos desde la primera página
+                        // y volvemos a seleccionar el pedido si está entre los cargados.
+                        loadInitialData(orderId);
+                        // Notificar usando el término de la UI
+                        showAlert("Éxito", "Estado del pedido actualizado a " + displayStatus + " correctamente.", Alert.AlertType.INFORMATION);
+                    } else {
+                        showAlert("Error de DB", "No se pudo actualizar el estado del pedido. Revisa los logs del Manager para detalles.", Alert.AlertType.ERROR);
+                    }
+                },
+                e -> showAlert("Error de DB", "No se pudo actualizar el estado del pedido: " + e.getMessage(), Alert.AlertType.ERROR));
     }
 
     // --- Lógica de Creación de Nuevos Pedidos ---
@@ -456,20 +533,27 @@ public class OrdersAdminController {
         String currentDate = LocalDate.now().format(DateTimeFormatter.ISO_DATE);
         List<OrderItem> itemsToSave = new ArrayList<>(newOrderItemsList);
 
-        // El Manager se encarga de findOrCreateCustomer con el string del nombre
-        int newOrderId = manager.createNewOrder(customerName, currentDate, shippingAddress, itemsToSave);
-
-        if (newOrderId != -1) {
-            showAlert("Éxito", "El nuevo pedido (ID: " + newOrderId + ") ha sido creado y guardado en la DB.", Alert.AlertType.INFORMATION);
-            loadInitialData(); // Recargar y reordenar toda la lista, incluyendo el nuevo pedido
-            clearNewOrderForm();
-        } else {
-            showAlert("Error de DB", "Fallo al guardar el nuevo pedido en la base de datos. Revisa la consola para detalles.", Alert.AlertType.ERROR);
-        }
+        // El Manager se encarga de findOrCreateCustomer con el string del nombre (en segundo plano)
+        placeOrderButton.setDisable(true);
+        DbExecutor.submit(() -> manager.createNewOrder(customerName, currentDate, shippingAddress, itemsToSave),
+                newOrderId -> {
+                    placeOrderButton.setDisable(false);
+                    if (newOrderId != -1) {
+                        showAlert("Éxito", "El nuevo pedido (ID: " + newOrderId + ") ha sido creado y guardado en la DB.", Alert.AlertType.INFORMATION);
+                        loadInitialData(); // Recargar y reordenar toda la lista, incluyendo el nuevo pedido
+                        clearNewOrderForm();
+                    } else {
+                        showAlert("Error de DB", "Fallo al guardar el nuevo pedido en la base de datos. Revisa la consola para detalles.", Alert.AlertType.ERROR);
+                    }
 
-        // Tras crear un pedido, es posible que se haya añadido un nuevo cliente,
-        // por lo que recargamos la lista de autocompletado.
-        setupCustomerAutocomplete();
+                    // Tras crear un pedido, es posible que se haya añadido un nuevo cliente,
+                    // por lo que recargamos la lista de autocompletado.
+                    loadCustomerNames();
+                },
+                e -> {
+                    placeOrderButton.setDisable(false);
+                    showAlert("Error de DB", "Fallo al guardar el nuevo pedido: " + e.getMessage(), Alert.AlertType.ERROR);
+                });
     }
 
     /**
@@ -498,4 +582,13 @@ public class OrdersAdminController {
         alert.setContentText(message);
         alert.showAndWait();
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar la lista de pedidos desde la primera página y los nombres del autocompletado. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadInitialData();
+        loadCustomerNames();
+    }
+}
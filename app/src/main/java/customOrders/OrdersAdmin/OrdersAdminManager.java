@@ -1,9 +1,22 @@
 package customOrders.OrdersAdmin;
 
 import customOrders.PostgresConnector;
+import customOrders.Products.ProductManager;
+import customOrders.Products.ProductManager.ProductSummary;
+import customOrders.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * OrdersAdminManager: Capa de Lógica de Negocio que interactúa con PostgreSQL.
@@ -12,6 +25,20 @@ import java.util.List;
  */
 public class OrdersAdminManager {
 
+    private static final Log LOG = Log.get(OrdersAdminManager.class);
+
+    // Número máximo de order_id enviados en cada consulta de ítems (order_id = ANY(?))
+    static final int ITEMS_BATCH_SIZE = 5_000;
+
+    // Script con los índices del autocompletado de clientes en modo SQL
+    private static final String CUSTOMER_SEARCH_SCRIPT = "/db/customer_search_index.sql";
+    private static final AtomicBoolean customerSearchIndexRequested = new AtomicBoolean();
+
+    private final NameIdResolver nameIdResolver = NameIdResolver.getInstance();
+    private final ProductManager productManager = new ProductManager();
+    // Orden de los nombres de producto en el ComboBox (como el ORDER BY product_name de la DB en español)
+    private static final Collator PRODUCT_NAME_ORDER = Collator.getInstance(Locale.forLanguageTag("es"));
+
     // --- Clases de Datos Internas ---
 
     public static class OrderItem {
@@ -150,30 +177,54 @@ public class OrdersAdminManager {
     }
 
 
-    // --- Lógica de Carga de Datos ---
+    /**
+     * Clave de paginación por conjunto (keyset) de la lista de pedidos.
+     * Orden: Pendientes primero, luego fecha ascendente y order_id como desempate.
+     * La fecha se guarda como texto tal cual la devolvió la DB y se envía sin tipo,
+     * para que PostgreSQL la interprete con el tipo real de date_of_order.
+     */
+    public record OrderCursor(int statusPriority, String dateOfOrder, int orderId) {
+        /** Cursor que apunta justo después del pedido indicado. */
+        public static OrderCursor after(Order order) {
+            return new OrderCursor(OrdersAdminManager.statusPriority(order.getStatus()), order.getDate(), order.getOrderId());
+        }
+    }
 
     /**
-     * Carga productos disponibles.
+     * Página de pedidos y el cursor para pedir la siguiente (null si no hay más).
      */
-    public List<AvailableProduct> loadAvailableProducts() {
-        List<AvailableProduct> products = new ArrayList<>();
-        String SQL = "SELECT product_id, product_name, unit_price FROM products ORDER BY product_name";
+    public record OrderPage(List<Order> orders, OrderCursor nextCursor) {
+        public boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
 
-        try (Connection conn = PostgresConnector.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(SQL)) {
+    // Prioridad de estado usada en el ORDER BY (debe coincidir con ORDER_PRIORITY_SQL)
+    static int statusPriority(String status) {
+        return "Pendiente".equals(status) ? 0 : 1;
+    }
 
-            while (rs.next()) {
-                products.add(new AvailableProduct(
-                        rs.getInt("product_id"),
-                        rs.getString("product_name"),
-                        rs.getDouble("unit_price")));
+    private static final String ORDER_PRIORITY_SQL = "CASE WHEN o.order_status = 'Pendiente' THEN 0 ELSE 1 END";
+
+
+    // --- Lógica de Carga de Datos ---
+
+    /**
+     * Carga productos disponibles (ID, nombre y precio), ordenados por nombre.
+     * Se sirven desde la caché de resúmenes del catálogo: solo va a la DB si no está cargada.
+     */
+    public List<AvailableProduct> loadAvailableProducts() {
+        try {
+            List<AvailableProduct> products = new ArrayList<>();
+            for (ProductSummary summary : productManager.getProductSummaries()) {
+                products.add(new AvailableProduct(summary.productId(), summary.productName(), summary.unitPrice()));
             }
+            products.sort(Comparator.comparing(AvailableProduct::getName, Comparator.nullsLast(PRODUCT_NAME_ORDER)));
+            return products;
         } catch (SQLException ex) {
-            System.err.println("ERROR Manager: Fallo al cargar productos. Mensaje de SQL: " + ex.getMessage());
+            LOG.error("Fallo al cargar productos. Mensaje de SQL: {}", ex.getMessage());
             throw new RuntimeException("Fallo en la DB al cargar productos.", ex);
         }
-        return products;
     }
 
     /**
@@ -196,7 +247,7 @@ public class OrdersAdminManager {
             }
         } catch (SQLException ex) {
             // IMPRESIÓN MEJORADA para diagnóstico
-            System.err.println("ERROR Manager: Fallo crítico al cargar clientes. Revisa conexión o tabla 'customers'. Mensaje de SQL: " + ex.getMessage());
+            LOG.error("Fallo crítico al cargar clientes. Revisa conexión o tabla 'customers'. Mensaje de SQL: {}", ex.getMessage());
             throw new RuntimeException("Fallo en la DB al cargar clientes.", ex);
         }
         return customers;
@@ -219,19 +270,87 @@ public class OrdersAdminManager {
                 customerNames.add(rs.getString("full_name"));
             }
         } catch (SQLException ex) {
-            System.err.println("ERROR Manager: Fallo al cargar nombres de clientes para autocompletar. Mensaje de SQL: " + ex.getMessage());
+            LOG.error("Fallo al cargar nombres de clientes para autocompletar. Mensaje de SQL: {}", ex.getMessage());
             // No es un fallo crítico para el funcionamiento general, pero debe ser notificado.
             return new ArrayList<>(); // Devolver lista vacía en caso de error
         }
         return customerNames;
     }
 
+    /**
+     * Autocompletado en modo SQL: devuelve como mucho {@code limit} nombres de clientes que empiezan por
+     * {@code prefix} (nombre completo primero, luego cualquier otra palabra), sin distinguir mayúsculas ni tildes.
+     * Los nombres repetidos (clientes homónimos) se agrupan en la consulta, antes del LIMIT, para que lleguen
+     * {@code limit} sugerencias distintas.
+     * Usa los índices de customer_search_index.sql (ver ensureCustomerSearchIndex).
+     */
+    public List<String> searchCustomerNames(String prefix, int limit) throws SQLException {
+        String key = CustomerNameIndex.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        // Escapar comodines de LIKE para que '%' o '_' escritos por el usuario se busquen literalmente
+        String escaped = key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String SQL = "SELECT first_name || ' ' || last_name AS full_name, " +
+                "bool_or(customorders_fold_name(first_name, last_name) LIKE ?) AS full_match " +
+                "FROM customers " +
+                "WHERE customorders_fold_name(first_name, last_name) LIKE ? " +
+                "   OR customorders_fold_name(first_name, last_name) LIKE ? " +
+                "GROUP BY full_name " +
+                "ORDER BY full_match DESC, full_name " +
+                "LIMIT ?";
+
+        List<String> names = new ArrayList<>(limit);
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL)) {
+            ps.setString(1, escaped + "%");
+            ps.setString(2, escaped + "%");
+            ps.setString(3, "% " + escaped + "%");
+            ps.setInt(4, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString("full_name"));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Instala el índice de búsqueda de clientes la primera vez que se llama en el proceso (el script es
+     * idempotente). Lo llama el autocompletado en modo SQL al abrir la pantalla; si falla (p.ej. el usuario de
+     * la DB no puede crear extensiones) no se reintenta y hay que ejecutar db/customer_search_index.sql a mano.
+     */
+    public static void ensureCustomerSearchIndex() throws SQLException, IOException {
+        if (customerSearchIndexRequested.compareAndSet(false, true)) {
+            installCustomerSearchIndex();
+            LOG.info("Índice de búsqueda de clientes instalado ({}).", CUSTOMER_SEARCH_SCRIPT);
+        }
+    }
 
     /**
-     * Carga todos los pedidos.
+     * Instala las extensiones, la función de normalización y los índices usados por searchCustomerNames.
+     */
+    public static void installCustomerSearchIndex() throws SQLException, IOException {
+        String script;
+        try (InputStream in = OrdersAdminManager.class.getResourceAsStream(CUSTOMER_SEARCH_SCRIPT)) {
+            if (in == null) {
+                throw new IOException("No se encontró el recurso " + CUSTOMER_SEARCH_SCRIPT);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = PostgresConnector.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(script);
+        }
+    }
+
+    /**
+     * Carga todos los pedidos con sus ítems.
+     * Las cabeceras se leen en una consulta y los ítems se cargan en lotes con
+     * {@code order_id = ANY(?)}, agrupándolos en memoria (evita una consulta por pedido).
      */
     public List<Order> loadAllOrders() {
-        List<Order> orders = new ArrayList<>();
         String SQL_ORDERS = "SELECT o.order_id, c.first_name, c.last_name, o.date_of_order, o.order_status, o.shipping_address " +
                 "FROM orders o JOIN customers c ON o.customer_id = c.customer_id " +
                 "ORDER BY o.date_of_order DESC";
@@ -240,51 +359,138 @@ public class OrdersAdminManager {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_ORDERS)) {
 
-            while (rs.next()) {
-                int orderId = rs.getInt("order_id");
-                String customerName = rs.getString("first_name") + " " + rs.getString("last_name");
-
-                List<OrderItem> items = loadOrderItems(conn, orderId);
-
-                orders.add(new Order(
-                        orderId,
-                        customerName,
-                        rs.getString("date_of_order"),
-                        rs.getString("order_status"),
-                        rs.getString("shipping_address"),
-                        items
-                ));
+            return readOrdersWithItems(conn, rs);
+        } catch (SQLException ex) {
+            LOG.error("Fallo al cargar pedidos. Mensaje de SQL: {}", ex.getMessage());
+            throw new RuntimeException("Fallo en la DB al cargar pedidos.", ex);
+        }
+    }
+
+    /**
+     * Carga una página de pedidos (con sus ítems) usando paginación keyset sobre
+     * (prioridad de estado, date_of_order, order_id). El orden se resuelve en SQL,
+     * por lo que el coste de cada página no depende del tamaño total de la tabla.
+     *
+     * Para que PostgreSQL pueda recorrer un índice en lugar de ordenar, se recomienda:
+     * {@code CREATE INDEX idx_orders_keyset ON orders ((CASE WHEN order_status = 'Pendiente' THEN 0 ELSE 1 END), date_of_order, order_id);}
+     *
+     * @param after Cursor devuelto por la página anterior, o null para la primera página.
+     * @param pageSize Número máximo de pedidos de la página.
+     */
+    public OrderPage loadOrdersPage(OrderCursor after, int pageSize) {
+        String SQL_PAGE = "SELECT o.order_id, c.first_name, c.last_name, o.date_of_order, o.order_status, o.shipping_address " +
+                "FROM orders o JOIN customers c ON o.customer_id = c.customer_id " +
+                (after != null ? "WHERE (" + ORDER_PRIORITY_SQL + ", o.date_of_order, o.order_id) > (?, ?, ?) " : "") +
+                "ORDER BY " + ORDER_PRIORITY_SQL + ", o.date_of_order, o.order_id " +
+                "LIMIT ?";
+
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_PAGE)) {
+
+            int idx = 1;
+            if (after != null) {
+                pstmt.setInt(idx++, after.statusPriority());
+                pstmt.setObject(idx++, after.dateOfOrder(), Types.OTHER); // Sin tipo: toma el de la columna
+                pstmt.setInt(idx++, after.orderId());
+            }
+            // Pedimos una fila extra para saber si existe una página siguiente
+            pstmt.setInt(idx, pageSize + 1);
+
+            Map<Integer, List<OrderItem>> itemsByOrder = new LinkedHashMap<>();
+            List<Order> orders;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                orders = readOrderHeaders(rs, itemsByOrder);
             }
+
+            // La fila extra solo indica que hay página siguiente: se descarta antes de cargar los ítems
+            boolean hasNextPage = orders.size() > pageSize;
+            if (hasNextPage) {
+                itemsByOrder.remove(orders.get(pageSize).getOrderId());
+                orders = new ArrayList<>(orders.subList(0, pageSize));
+            }
+            loadItemsByOrderIds(conn, itemsByOrder);
+
+            return new OrderPage(orders, hasNextPage ? OrderCursor.after(orders.get(orders.size() - 1)) : null);
         } catch (SQLException ex) {
-            System.err.println("ERROR Manager: Fallo al cargar pedidos. Mensaje de SQL: " + ex.getMessage());
+            LOG.error("Fallo al cargar página de pedidos. Mensaje de SQL: {}", ex.getMessage());
             throw new RuntimeException("Fallo en la DB al cargar pedidos.", ex);
         }
+    }
+
+    /**
+     * Lee las cabeceras de un ResultSet (order_id, first_name, last_name, date_of_order,
+     * order_status, shipping_address) y les adjunta sus ítems con una carga por lotes.
+     */
+    static List<Order> readOrdersWithItems(Connection conn, ResultSet rs) throws SQLException {
+        Map<Integer, List<OrderItem>> itemsByOrder = new LinkedHashMap<>();
+        List<Order> orders = readOrderHeaders(rs, itemsByOrder);
+        loadItemsByOrderIds(conn, itemsByOrder);
+        return orders;
+    }
+
+    /**
+     * Lee las cabeceras de un ResultSet sin sus ítems.
+     * @param itemsByOrder Recibe la lista de ítems (vacía) de cada pedido leído, para rellenarla con
+     *                     {@link #loadItemsByOrderIds}.
+     */
+    private static List<Order> readOrderHeaders(ResultSet rs, Map<Integer, List<OrderItem>> itemsByOrder) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        while (rs.next()) {
+            int orderId = rs.getInt("order_id");
+            String customerName = rs.getString("first_name") + " " + rs.getString("last_name");
+
+            // La lista se rellena después, en la carga por lotes
+            List<OrderItem> items = new ArrayList<>();
+            itemsByOrder.put(orderId, items);
+
+            orders.add(new Order(
+                    orderId,
+                    customerName,
+                    rs.getString("date_of_order"),
+                    rs.getString("order_status"),
+                    rs.getString("shipping_address"),
+                    items
+            ));
+        }
         return orders;
     }
 
     /**
-     * Carga los ítems asociados a un pedido específico.
+     * Rellena las listas de ítems de varios pedidos con una consulta por lote
+     * ({@code order_id = ANY(?)}) en lugar de una consulta por pedido.
+     * @param itemsByOrder Lista de ítems (vacía) de cada pedido, indexada por order_id.
      */
-    private List<OrderItem> loadOrderItems(Connection conn, int orderId) throws SQLException {
-        List<OrderItem> items = new ArrayList<>();
-        String SQL_ITEMS = "SELECT pio.product_quantity, p.unit_price, p.product_name " +
+    static void loadItemsByOrderIds(Connection conn, Map<Integer, List<OrderItem>> itemsByOrder) throws SQLException {
+        if (itemsByOrder.isEmpty()) {
+            return;
+        }
+
+        String SQL_ITEMS = "SELECT pio.order_id, pio.product_quantity, p.unit_price, p.product_name " +
                 "FROM products_in_the_order pio " +
                 "JOIN products p ON pio.product_id = p.product_id " +
-                "WHERE pio.order_id = ?";
+                "WHERE pio.order_id = ANY(?)";
 
+        List<Integer> orderIds = new ArrayList<>(itemsByOrder.keySet());
         try (PreparedStatement pstmt = conn.prepareStatement(SQL_ITEMS)) {
-            pstmt.setInt(1, orderId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    items.add(new OrderItem(
-                            rs.getString("product_name"),
-                            rs.getInt("product_quantity"),
-                            rs.getDouble("unit_price")
-                    ));
+            for (int from = 0; from < orderIds.size(); from += ITEMS_BATCH_SIZE) {
+                List<Integer> chunk = orderIds.subList(from, Math.min(from + ITEMS_BATCH_SIZE, orderIds.size()));
+                Array idArray = conn.createArrayOf("integer", chunk.toArray());
+                try {
+                    pstmt.setArray(1, idArray);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            itemsByOrder.get(rs.getInt("order_id")).add(new OrderItem(
+                                    rs.getString("product_name"),
+                                    rs.getInt("product_quantity"),
+                                    rs.getDouble("unit_price")
+                            ));
+                        }
+                    }
+                } finally {
+                    idArray.free();
                 }
             }
         }
-        return items;
     }
 
 
@@ -295,13 +501,13 @@ public class OrdersAdminManager {
      */
     public boolean updateOrderStatus(int orderId, String newStatus) {
         if (newStatus == null || newStatus.trim().isEmpty()) {
-            System.err.println("ERROR Manager: El nuevo estado no puede estar vacío.");
+            LOG.error("El nuevo estado no puede estar vacío.");
             return false;
         }
 
         String statusToSend = newStatus.trim();
 
-        System.out.println("DEBUG: Enviando estado a DB: " + statusToSend);
+        LOG.debug("Enviando estado a DB: {}", statusToSend);
 
         String SQL = "UPDATE orders SET order_status = ? WHERE order_id = ?";
         try (Connection conn = PostgresConnector.getConnection();
@@ -310,7 +516,7 @@ public class OrdersAdminManager {
             pstmt.setInt(2, orderId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException ex) {
-            System.err.println("ERROR Manager al actualizar estado. Valor enviado: " + statusToSend + ". Mensaje SQL: " + ex.getMessage());
+            LOG.error("Fallo al actualizar estado. Valor enviado: {}. Mensaje SQL: {}", statusToSend, ex.getMessage());
             return false;
         }
     }
@@ -329,7 +535,7 @@ public class OrdersAdminManager {
             totalAmount += item.getQuantity() * item.getUnitPrice();
         }
 
-        System.out.println("DEBUG: Monto total calculado: " + totalAmount);
+        LOG.debug("Monto total calculado: {}", totalAmount);
 
         try {
             conn = PostgresConnector.getConnection();
@@ -341,7 +547,11 @@ public class OrdersAdminManager {
             String firstName = parts[0];
             String lastName = (parts.length > 1) ? parts[1] : "";
 
-            newCustomerId = findOrCreateCustomer(conn, firstName, lastName, shippingAddress);
+            Integer existingCustomerId = nameIdResolver.findCustomerId(conn, firstName, lastName);
+            boolean customerCreated = existingCustomerId == null;
+            newCustomerId = customerCreated
+                    ? createCustomer(conn, firstName, lastName, shippingAddress)
+                    : existingCustomerId;
 
             // 3. Insertar Pedido principal
             String SQL_ORDER = "INSERT INTO orders (customer_id, date_of_order, order_status, total_amount, shipping_address) VALUES (?, ?, ?, ?, ?) RETURNING order_id";
@@ -361,9 +571,12 @@ public class OrdersAdminManager {
             // 4. Insertar Ítems del Pedido
             if (newOrderId != -1) {
                 String SQL_ITEMS = "INSERT INTO products_in_the_order (order_id, product_id, product_quantity, item_unit_price) VALUES (?, ?, ?, ?)";
+                // Todos los IDs de producto del pedido en memoria o con una sola consulta
+                Map<String, Integer> productIds = nameIdResolver.resolveProductIds(conn,
+                        items.stream().map(OrderItem::getProductName).toList());
                 try (PreparedStatement pstmt = conn.prepareStatement(SQL_ITEMS)) {
                     for (OrderItem item : items) {
-                        int productId = getProductIdByName(conn, item.getProductName());
+                        int productId = productIds.get(item.getProductName());
 
                         pstmt.setInt(1, newOrderId);
                         pstmt.setInt(2, productId);
@@ -379,15 +592,18 @@ public class OrdersAdminManager {
             }
 
             conn.commit(); // Confirmar Transacción
+            if (customerCreated) {
+                nameIdResolver.rememberCustomer(firstName, lastName, newCustomerId);
+            }
             return newOrderId;
 
         } catch (SQLException ex) {
-            System.err.println("ERROR Manager al crear pedido (Transacción fallida). Mensaje SQL: " + ex.getMessage());
+            LOG.error("Fallo al crear pedido (Transacción fallida). Mensaje SQL: {}", ex.getMessage());
             if (conn != null) {
                 try {
                     conn.rollback();
                 } catch (SQLException e) {
-                    System.err.println("Error al hacer rollback: " + e.getMessage());
+                    LOG.error("Error al hacer rollback: {}", e.getMessage());
                 }
             }
             return -1;
@@ -396,26 +612,16 @@ public class OrdersAdminManager {
                 try {
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    LOG.error("Error al cerrar conexión: {}", e.getMessage());
                 }
             }
         }
     }
 
-    private int findOrCreateCustomer(Connection conn, String firstName, String lastName, String shippingAddress) throws SQLException {
-        // 1. Buscar por nombre y apellido
-        String SQL_FIND = "SELECT customer_id FROM customers WHERE first_name = ? AND last_name = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(SQL_FIND)) {
-            pstmt.setString(1, firstName);
-            pstmt.setString(2, lastName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("customer_id");
-                }
-            }
-        }
-
-        // 2. Crear si no existe
+    /**
+     * Crea el cliente (cuando NameIdResolver no lo encontró).
+     */
+    private int createCustomer(Connection conn, String firstName, String lastName, String shippingAddress) throws SQLException {
         String SQL_CREATE = "INSERT INTO customers (first_name, last_name, address) VALUES (?, ?, ?) RETURNING customer_id";
         try (PreparedStatement pstmt = conn.prepareStatement(SQL_CREATE)) {
             pstmt.setString(1, firstName);
@@ -429,17 +635,4 @@ public class OrdersAdminManager {
         }
         throw new SQLException("Fallo al encontrar o crear cliente.");
     }
-
-    private int getProductIdByName(Connection conn, String productName) throws SQLException {
-        String SQL = "SELECT product_id FROM products WHERE product_name = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(SQL)) {
-            pstmt.setString(1, productName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("product_id");
-                }
-            }
-        }
-        throw new SQLException("Producto no encontrado: " + productName);
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package customOrders.OrdersAdmin;
 
 // Importamos las clases de modelo definidas estáticamente en el Manager
 import customOrders.PostgresConnector;
+import customOrders.util.Log;
 
 import static customOrders.OrdersAdmin.OrdersAdminManager.Order;
 import static customOrders.OrdersAdmin.OrdersAdminManager.OrderItem;
@@ -11,6 +12,7 @@ import static customOrders.OrdersAdmin.OrdersAdminManager.Customer; // Importar
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * OrdersDataService: Contiene la lógica para interactuar con la base de datos
@@ -20,12 +22,13 @@ import java.util.List;
  */
 public class OrdersDataService {
 
+    private static final Log LOG = Log.get(OrdersDataService.class);
+
     /**
      * Obtiene todos los pedidos de la base de datos, incluyendo sus items.
      * @return Una lista de objetos Order.
      */
     public List<Order> getAllOrders() throws SQLException {
-        List<Order> orders = new ArrayList<>();
         String SQL_SELECT_ORDERS = "SELECT o.order_id, c.first_name, c.last_name, o.date_of_order, o.order_status, o.shipping_address " +
                 "FROM orders o JOIN customers c ON o.customer_id = c.customer_id " +
                 "ORDER BY o.date_of_order DESC";
@@ -34,46 +37,9 @@ public class OrdersDataService {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ORDERS)) {
 
-            while (rs.next()) {
-                int orderId = rs.getInt("order_id");
-                String customerName = rs.getString("first_name") + " " + rs.getString("last_name");
-
-                String date = rs.getString("date_of_order");
-                String status = rs.getString("order_status");
-                String shippingAddress = rs.getString("shipping_address");
-
-                List<OrderItem> items = getOrderItems(orderId, conn);
-
-                orders.add(new Order(orderId, customerName, date, status, shippingAddress, items));
-            }
+            // Los ítems se cargan por lotes y se agrupan en memoria (sin consulta por pedido)
+            return OrdersAdminManager.readOrdersWithItems(conn, rs);
         }
-
-        return orders;
-    }
-
-    /**
-     * Consulta auxiliar para obtener los ítems de un pedido dado su ID.
-     */
-    private List<OrderItem> getOrderItems(int orderId, Connection conn) throws SQLException {
-        List<OrderItem> items = new ArrayList<>();
-        String SQL_SELECT_ITEMS = "SELECT p.product_name, pio.product_quantity, p.unit_price " +
-                "FROM products_in_the_order pio " +
-                "JOIN products p ON pio.product_id = p.product_id " +
-                "WHERE pio.order_id = ?";
-
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ITEMS)) {
-            ps.setInt(1, orderId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String productName = rs.getString("product_name");
-                    int quantity = rs.getInt("product_quantity");
-                    double unitPrice = rs.getDouble("unit_price");
-                    items.add(new OrderItem(productName, quantity, unitPrice));
-                }
-            }
-        }
-
-        return items;
     }
 
     /**
@@ -168,9 +134,12 @@ public class OrdersDataService {
                 }
             }
 
+            // Todos los IDs de producto del pedido en memoria o con una sola consulta
+            Map<String, Integer> productIds = NameIdResolver.getInstance().resolveProductIds(conn,
+                    items.stream().map(OrderItem::getProductName).toList());
             try (PreparedStatement psItem = conn.prepareStatement(SQL_INSERT_ITEM)) {
                 for (OrderItem item : items) {
-                    int productId = getProductIdByName(conn, item.getProductName());
+                    int productId = productIds.get(item.getProductName());
 
                     psItem.setInt(1, newOrderId);
                     psItem.setInt(2, productId);
@@ -185,7 +154,7 @@ public class OrdersDataService {
             return newOrderId;
 
         } catch (SQLException e) {
-            System.err.println("Error al crear nuevo pedido en OrdersDataService: " + e.getMessage());
+            LOG.error("Error al crear nuevo pedido: {}", e.getMessage());
             conn.rollback();
             throw e;
         } finally {
@@ -195,17 +164,4 @@ public class OrdersDataService {
             }
         }
     }
-
-    private int getProductIdByName(Connection conn, String productName) throws SQLException {
-        String SQL = "SELECT product_id FROM products WHERE product_name = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(SQL)) {
-            pstmt.setString(1, productName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("product_id");
-                }
-            }
-        }
-        throw new SQLException("Producto no encontrado: " + productName);
-    }
-}
\ No newline at end of file
+}
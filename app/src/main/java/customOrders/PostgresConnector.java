@@ -68,22 +68,72 @@ import java.sql.*;
  */
 public class PostgresConnector {
 
-    // -Parámetros de Conexión
-    private static final String URL = "jdbc:postgresql://localhost:5432/data_model_with_custom_orders";
-    private static final String USUARIO = "empleado2";
-    private static final String CONTRASENA = "empleado2025";
+    // -Parámetros de Conexión (se pueden sobrescribir con -DcustomOrders.db.url=..., p.ej. para los benchmarks)
+    // reWriteBatchedInserts: el driver reescribe los lotes de INSERT (executeBatch) como INSERT multi-fila
+    private static final String URL = System.getProperty("customOrders.db.url",
+            "jdbc:postgresql://localhost:5432/data_model_with_custom_orders?reWriteBatchedInserts=true");
+    private static final String USUARIO = System.getProperty("customOrders.db.user", "empleado2");
+    private static final String CONTRASENA = System.getProperty("customOrders.db.password", "empleado2025");
+
+    // -Parámetros del Pool (se pueden sobrescribir con -DcustomOrders.pool.maxSize=..., etc.)
+    private static final int POOL_MIN_SIZE = Integer.getInteger("customOrders.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("customOrders.pool.maxSize", 10);
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("customOrders.pool.maxWaitMillis", 10_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("customOrders.pool.idleTimeoutMillis", 300_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("customOrders.pool.leakThresholdMillis", 60_000L);
+
+    /**
+     * Inicialización perezosa y segura entre hilos del pool (idiom holder).
+     */
+    private static final class PoolHolder {
+        private static final ConnectionPool POOL = createPool();
+
+        private static ConnectionPool createPool() {
+            ConnectionPool pool = new ConnectionPool(URL, USUARIO, CONTRASENA,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_MAX_WAIT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "connection-pool-shutdown"));
+            return pool;
+        }
+    }
 
 
     /**
-     * Establece y devuelve una nueva conexión a la base de datos.
+     * Obtiene una conexión del pool compartido.
+     * Llamar a close() sobre la conexión la devuelve al pool (compatible con try-with-resources).
+     * La conexión viene instrumentada por {@link QueryMetrics} (latencia y filas de cada sentencia).
      * @return Objeto Connection activo.
-     * @throws SQLException Si falla la conexión.
+     * @throws SQLException Si falla la conexión o no hay conexiones libres a tiempo.
      */
     public static Connection getConnection() throws SQLException {
-        // Usa DriverManager para establecer la conexión con los parámetros definidos
+        long start = System.nanoTime();
+        Connection connection = PoolHolder.POOL.getConnection();
+        return QueryMetrics.getInstance().instrument(connection, System.nanoTime() - start);
+    }
+
+    /**
+     * true si {@code backendPid} es el proceso servidor de una conexión del pool de este proceso
+     * (los NOTIFY llegan con el PID de la sesión que los envió; ver ChangeNotifications).
+     */
+    static boolean isPooledBackend(int backendPid) {
+        return PoolHolder.POOL.ownsBackend(backendPid);
+    }
+
+    /**
+     * Abre una conexión física propia, fuera del pool, para usos de larga duración
+     * (p.ej. el LISTEN de ChangeNotifications, que no debe ocupar una conexión del pool).
+     * El llamador es responsable de cerrarla.
+     */
+    static Connection openDedicatedConnection() throws SQLException {
         return DriverManager.getConnection(URL, USUARIO, CONTRASENA);
     }
 
+    /**
+     * Métricas actuales del pool (esperas, préstamos, fugas detectadas, etc.).
+     */
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return PoolHolder.POOL.getStats();
+    }
+
     public static void main(String[] args) {
 
         System.out.println("Intentando conectar a la base de datos PostgreSQL...");
@@ -119,5 +169,8 @@ public class PostgresConnector {
             System.out.println("Verifica los parámetros de conexión, el driver y que el servidor PostgreSQL esté en ejecución.");
             System.out.println("Detalle del Error: " + e.getMessage());
         }
+
+        // Incluye las métricas del pool
+        System.out.println(QueryMetrics.getInstance().snapshot().toReport());
     }
 }
\ No newline at end of file
@@ -6,15 +6,20 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import customOrders.Refreshable;
 import customOrders.ProductTypes.ProductType;
 import customOrders.ProductTypes.ProductTypeManager;
+import customOrders.util.DbLoader;
+import customOrders.util.Log;
 
 import java.net.URL;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class ProductsTypesController implements Initializable {
+public class ProductsTypesController implements Initializable, Refreshable {
+
+    private static final Log LOG = Log.get(ProductsTypesController.class);
 
     // Componentes FXML de la tabla
     @FXML private TableView productTypeTable;
@@ -31,6 +36,8 @@ public class ProductsTypesController implements Initializable {
 
     private ProductTypeManager manager = new ProductTypeManager();
     private ObservableList<ProductType> productTypeList = FXCollections.observableArrayList();
+    // Carga de la tabla fuera del hilo de JavaFX
+    private final DbLoader<List<ProductType>> typesLoader = new DbLoader<>();
 
     // Variable para rastrear el elemento seleccionado para edición/eliminación
     private ProductType selectedType;
@@ -62,24 +69,27 @@ public class ProductsTypesController implements Initializable {
      * Carga todos los tipos de producto de la base de datos y actualiza la tabla.
      */
     private void loadProductTypes() {
-        try {
-            List<ProductType> list = manager.getAllProductTypes();
-            productTypeList.setAll(list);
+        typesLoader.load(manager::getAllProductTypes, this::showProductTypes, e -> {
+            messageLabel.setText("Error al cargar los datos: " + e.getMessage());
+            LOG.error("Error al cargar los tipos de producto.", e);
+        });
+    }
 
-            // 4. Actualiza los ítems del ComboBox (tipos disponibles como padre)
-            // Se usa una copia de la lista para no interferir con la lista principal de la tabla
-            ObservableList<ProductType> parentOptions = FXCollections.observableArrayList(list);
+    /**
+     * Vuelca en la tabla y en el ComboBox de padres los tipos cargados (hilo de JavaFX).
+     */
+    private void showProductTypes(List<ProductType> list) {
+        productTypeList.setAll(list);
 
-            // Agregamos una opción 'Null' al inicio para indicar que no hay padre
-            parentOptions.add(0, new ProductType("", "Ninguno (Top Level)", null));
-            parentTypeComboBox.setItems(parentOptions);
+        // 4. Actualiza los ítems del ComboBox (tipos disponibles como padre)
+        // Se usa una copia de la lista para no interferir con la lista principal de la tabla
+        ObservableList<ProductType> parentOptions = FXCollections.observableArrayList(list);
 
-            messageLabel.setText("Datos cargados correctamente. Total: " + list.size());
+        // Agregamos una opción 'Null' al inicio para indicar que no hay padre
+        parentOptions.add(0, new ProductType("", "Ninguno (Top Level)", null));
+        parentTypeComboBox.setItems(parentOptions);
 
-        } catch (SQLException e) {
-            messageLabel.setText("Error al cargar los datos: " + e.getMessage());
-            e.printStackTrace();
-        }
+        messageLabel.setText("Datos cargados correctamente. Total: " + list.size());
     }
 
     /**
@@ -185,7 +195,7 @@ public class ProductsTypesController implements Initializable {
 
         } catch (SQLException e) {
             messageLabel.setText("Error de DB al guardar: " + e.getLocalizedMessage());
-            e.printStackTrace();
+            LOG.error("Error de DB al guardar el tipo de producto.", e);
         }
     }
 
@@ -219,9 +229,17 @@ public class ProductsTypesController implements Initializable {
                     handleNew(); // Limpiar el formulario
                 } catch (SQLException e) {
                     messageLabel.setText("Error de DB al eliminar: Podría haber productos o subtipos asociados.");
-                    e.printStackTrace();
+                    LOG.error("Error de DB al eliminar el tipo de producto.", e);
                 }
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar los tipos de producto. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadProductTypes();
+    }
+}
@@ -0,0 +1,350 @@
+package customOrders.Products;
+
+import customOrders.ChangeNotifications;
+import customOrders.PostgresConnector;
+import org.postgresql.PGConnection;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Importación masiva de productos desde un CSV.
+ *
+ * El archivo se envía tal cual a una tabla temporal con COPY (CopyManager del driver), sin parsearlo
+ * fila a fila en Java. La validación y la fusión se hacen en SQL, dentro de UNA transacción:
+ * - Cada fila inválida se rechaza con su motivo (el resto se importa igualmente).
+ * - La clave natural es product_name: si ya existe se actualiza, si no se inserta.
+ * - En una actualización, las columnas ausentes o vacías en el CSV conservan su valor actual.
+ * Los triggers no notifican fila a fila; al final se publica un único RESYNC de products.
+ *
+ * Formato: CSV con cabecera (UTF-8, separador coma, punto decimal). Las columnas de la cabecera pueden
+ * venir en cualquier orden; product_name es obligatoria. Para productos nuevos también lo son
+ * product_type_code, supplier_id y unit_price.
+ */
+public class ProductBulkImporter {
+
+    // Columnas aceptadas en la cabecera (nombres de la tabla Products)
+    static final Set<String> COLUMNS = Set.of(
+            "product_name", "product_type_code", "supplier_id", "unit_price", "quantity",
+            "product_description", "reorder_level", "reorder_quantity", "other_details",
+            "weight_kg", "is_active", "image_url");
+
+    // Rechazos que se devuelven con detalle (el total siempre es exacto)
+    static final int MAX_REPORTED_REJECTS = 1_000;
+    // Cada cuántos bytes enviados se informa del progreso (y se comprueba la cancelación)
+    private static final int PROGRESS_EVERY_BYTES = 1 << 20;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    // Formatos que caben en los tipos de la tabla: un valor fuera de rango abortaría toda la importación
+    private static final String INT_PATTERN = "'^-?[0-9]{1,9}$'";
+    private static final String NON_NEGATIVE_INT_PATTERN = "'^[0-9]{1,9}$'";
+    private static final String PRICE_PATTERN = "'^[0-9]{1,8}([.][0-9]{1,2})?$'";   // numeric(10,2)
+    private static final String WEIGHT_PATTERN = "'^[0-9]{1,6}([.][0-9]{1,2})?$'";  // numeric(8,2)
+    private static final String BOOLEAN_VALUES = "('true','false','t','f','1','0','si','sí','no','yes','y','n')";
+    private static final String TRUE_VALUES = "('true','t','1','si','sí','yes','y')";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE product_import_staging (" +
+            "row_no bigserial, product_name text, product_type_code text, supplier_id text, unit_price text, " +
+            "quantity text, product_description text, reorder_level text, reorder_quantity text, " +
+            "other_details text, weight_kg text, is_active text, image_url text) ON COMMIT DROP";
+
+    // Primer motivo de rechazo de cada fila (NULL = válida). Reproduce las restricciones de la tabla
+    // (longitudes, rangos y CHECK) para que una fila inválida se rechace sola en vez de abortar el lote.
+    // El orden de los WHEN importa: cada cast solo se evalúa si el formato ya se validó antes.
+    private static final String CREATE_REJECTS_SQL =
+            "CREATE TEMP TABLE product_import_rejects ON COMMIT DROP AS " +
+            "SELECT row_no, product_name, reason FROM (" +
+            " SELECT s.row_no, s.product_name, CASE" +
+            "  WHEN s.product_name IS NULL OR btrim(s.product_name) = '' THEN 'Falta el nombre del producto'" +
+            "  WHEN s.next_row_no IS NOT NULL THEN 'Nombre repetido en el archivo (se usa la fila ' || s.next_row_no || ')'" +
+            "  WHEN length(btrim(s.product_name)) > 100 THEN 'Nombre demasiado largo (máx. 100 caracteres)'" +
+            "  WHEN length(s.product_description) > 500 THEN 'Descripción demasiado larga (máx. 500 caracteres)'" +
+            "  WHEN length(s.other_details) > 255 THEN 'Otros detalles demasiado largos (máx. 255 caracteres)'" +
+            "  WHEN length(btrim(s.image_url)) > 500 THEN 'URL de imagen demasiado larga (máx. 500 caracteres)'" +
+            "  WHEN btrim(s.unit_price) !~ " + PRICE_PATTERN + " THEN 'Precio no válido: ' || s.unit_price" +
+            "  WHEN btrim(s.unit_price)::numeric = 0 THEN 'El precio debe ser mayor que 0'" +
+            "  WHEN btrim(s.weight_kg) !~ " + WEIGHT_PATTERN + " THEN 'Peso no válido: ' || s.weight_kg" +
+            "  WHEN btrim(s.quantity) !~ " + INT_PATTERN + " THEN 'Cantidad no válida: ' || s.quantity" +
+            "  WHEN btrim(s.reorder_level) !~ " + NON_NEGATIVE_INT_PATTERN + " THEN 'Nivel de reorden no válido: ' || s.reorder_level" +
+            "  WHEN btrim(s.reorder_quantity) !~ " + NON_NEGATIVE_INT_PATTERN + " THEN 'Cantidad de reorden no válida: ' || s.reorder_quantity" +
+            "  WHEN btrim(s.reorder_quantity)::int = 0 THEN 'La cantidad de reorden debe ser mayor que 0'" +
+            "  WHEN btrim(s.supplier_id) !~ " + INT_PATTERN + " THEN 'ID de proveedor no válido: ' || s.supplier_id" +
+            "  WHEN lower(btrim(s.is_active)) NOT IN " + BOOLEAN_VALUES + " THEN 'Valor de is_active no válido: ' || s.is_active" +
+            "  WHEN s.product_type_code IS NOT NULL AND NOT EXISTS (SELECT 1 FROM Product_Types t" +
+            "       WHERE t.product_type_code = btrim(s.product_type_code))" +
+            "       THEN 'Tipo de producto desconocido: ' || s.product_type_code" +
+            "  WHEN s.supplier_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM Suppliers su" +
+            "       WHERE su.supplier_id = btrim(s.supplier_id)::int)" +
+            "       THEN 'Proveedor desconocido: ' || s.supplier_id" +
+            "  WHEN (s.product_type_code IS NULL OR s.supplier_id IS NULL OR s.unit_price IS NULL)" +
+            "       AND NOT EXISTS (SELECT 1 FROM Products p WHERE p.product_name = btrim(s.product_name))" +
+            "       THEN 'Producto nuevo sin tipo, proveedor o precio'" +
+            " END AS reason" +
+            " FROM (SELECT st.*, lead(st.row_no) OVER (PARTITION BY btrim(st.product_name) ORDER BY st.row_no) AS next_row_no" +
+            "       FROM product_import_staging st) s" +
+            ") checked WHERE reason IS NOT NULL";
+
+    // Filas válidas ya convertidas a sus tipos (NULL = columna ausente o vacía)
+    private static final String CREATE_ROWS_SQL =
+            "CREATE TEMP TABLE product_import_rows ON COMMIT DROP AS " +
+            "SELECT btrim(s.product_name) AS product_name, btrim(s.product_type_code) AS product_type_code, " +
+            "btrim(s.supplier_id)::int AS supplier_id, btrim(s.unit_price)::numeric AS unit_price, " +
+            "btrim(s.quantity)::int AS quantity, s.product_description, " +
+            "btrim(s.reorder_level)::int AS reorder_level, btrim(s.reorder_quantity)::int AS reorder_quantity, " +
+            "s.other_details, btrim(s.weight_kg)::numeric AS weight_kg, " +
+            "lower(btrim(s.is_active)) IN " + TRUE_VALUES + " AS is_active, btrim(s.image_url) AS image_url " +
+            "FROM product_import_staging s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM product_import_rejects r WHERE r.row_no = s.row_no)";
+
+    // Sin ON CONFLICT: no depende de que exista un índice único sobre product_name
+    private static final String UPDATE_SQL =
+            "UPDATE Products p SET " +
+            "product_type_code = COALESCE(r.product_type_code, p.product_type_code), " +
+            "supplier_id = COALESCE(r.supplier_id, p.supplier_id), " +
+            "unit_price = COALESCE(r.unit_price, p.unit_price), " +
+            "quantity = COALESCE(r.quantity, p.quantity), " +
+            "product_description = COALESCE(r.product_description, p.product_description), " +
+            "reorder_level = COALESCE(r.reorder_level, p.reorder_level), " +
+            "reorder_quantity = COALESCE(r.reorder_quantity, p.reorder_quantity), " +
+            "other_details = COALESCE(r.other_details, p.other_details), " +
+            "weight_kg = COALESCE(r.weight_kg, p.weight_kg), " +
+            "is_active = COALESCE(r.is_active, p.is_active), " +
+            "image_url = COALESCE(r.image_url, p.image_url) " +
+            "FROM product_import_rows r WHERE p.product_name = r.product_name";
+
+    // Valores por defecto de los productos nuevos (cumplen los CHECK: reorder_quantity > 0)
+    private static final String INSERT_SQL =
+            "INSERT INTO Products (product_type_code, supplier_id, product_name, unit_price, product_description, " +
+            "reorder_level, reorder_quantity, other_details, weight_kg, date_added, is_active, quantity, image_url) " +
+            "SELECT r.product_type_code, r.supplier_id, r.product_name, r.unit_price, r.product_description, " +
+            "COALESCE(r.reorder_level, 0), COALESCE(r.reorder_quantity, 1), r.other_details, r.weight_kg, " +
+            "CURRENT_DATE, COALESCE(r.is_active, true), COALESCE(r.quantity, 0), r.image_url " +
+            "FROM product_import_rows r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Products p WHERE p.product_name = r.product_name)";
+
+    private static final String REJECTS_SQL =
+            "SELECT row_no, product_name, reason FROM product_import_rejects ORDER BY row_no LIMIT " + MAX_REPORTED_REJECTS;
+
+    /**
+     * Recibe el avance del envío del archivo (desde el hilo que importa).
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    /**
+     * Fila rechazada.
+     * @param row Número de registro de datos en el archivo (1 = primera fila tras la cabecera).
+     */
+    public record Reject(long row, String productName, String reason) {
+        @Override
+        public String toString() {
+            return "Fila " + row + (productName != null ? " (" + productName + ")" : "") + ": " + reason;
+        }
+    }
+
+    /**
+     * Resultado de una importación.
+     * @param rejects Detalle de como mucho {@link #MAX_REPORTED_REJECTS} rechazos; {@code rejected} es el total.
+     */
+    public record ImportResult(long rowsRead, int inserted, int updated, long rejected,
+                               List<Reject> rejects, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsRead / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Filas leídas: %d | Insertados: %d | Actualizados: %d | Rechazados: %d | %.0f filas/s",
+                    rowsRead, inserted, updated, rejected, rowsPerSecond());
+        }
+    }
+
+    private final ProductCatalogCache catalogCache = ProductCatalogCache.getInstance();
+
+    public ImportResult importCsv(Path csv) throws SQLException, IOException {
+        return importCsv(csv, (sent, total) -> { }, () -> false);
+    }
+
+    /**
+     * Importa el CSV {@code csv}. Bloquea hasta terminar: llamar fuera del hilo de JavaFX.
+     * Si algo falla (o se cancela) no se aplica nada: todo ocurre en una única transacción.
+     * @param cancelled Se consulta durante el envío; si devuelve true se aborta con CancellationException.
+     * @throws IllegalArgumentException si la cabecera tiene columnas desconocidas, repetidas o le falta product_name.
+     */
+    public ImportResult importCsv(Path csv, ProgressListener progress, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        long totalBytes = Files.size(csv);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(csv), READ_BUFFER_BYTES);
+             Connection conn = PostgresConnector.getConnection()) {
+            String headerLine = readLine(in);
+            List<String> columns = parseHeader(headerLine);
+            ProgressInputStream body = new ProgressInputStream(in,
+                    headerLine.getBytes(StandardCharsets.UTF_8).length + 1L, totalBytes, progress, cancelled);
+
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                ChangeNotifications.suppressRowNotifications(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_STAGING_SQL);
+                }
+
+                // FORCE_NULL: un campo vacío, con o sin comillas, es NULL ("no cambiar" / valor por defecto)
+                String columnList = String.join(", ", columns);
+                String copySql = "COPY product_import_staging (" + columnList + ") FROM STDIN " +
+                        "WITH (FORMAT csv, ENCODING 'UTF8', FORCE_NULL (" + columnList + "))";
+                long rowsRead = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql, body);
+                progress.onProgress(totalBytes, totalBytes);
+
+                int inserted;
+                int updated;
+                long rejected;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ANALYZE product_import_staging");
+                    // Evita que otra estación cree o renombre productos entre la validación y la fusión
+                    stmt.execute("LOCK TABLE Products IN SHARE ROW EXCLUSIVE MODE");
+                    rejected = stmt.executeUpdate(CREATE_REJECTS_SQL);
+                    stmt.execute(CREATE_ROWS_SQL);
+                    updated = stmt.executeUpdate(UPDATE_SQL);
+                    inserted = stmt.executeUpdate(INSERT_SQL);
+                }
+                List<Reject> rejects = readRejects(conn);
+
+                ChangeNotifications.publishResync(conn, ChangeNotifications.Table.PRODUCTS);
+                conn.commit();
+                catalogCache.invalidate();
+                return new ImportResult(rowsRead, inserted, updated, rejected, rejects, System.nanoTime() - start);
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+            }
+        }
+    }
+
+    private static List<Reject> readRejects(Connection conn) throws SQLException {
+        List<Reject> rejects = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(REJECTS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rejects.add(new Reject(rs.getLong(1), rs.getString(2), rs.getString(3)));
+            }
+        }
+        return List.copyOf(rejects);
+    }
+
+    /**
+     * Valida la cabecera y devuelve los nombres de columna normalizados, en el orden del archivo.
+     * Los nombres son identificadores simples, así que basta con separar por comas y quitar comillas.
+     */
+    static List<String> parseHeader(String headerLine) {
+        String header = headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine;
+        if (header.isBlank()) {
+            throw new IllegalArgumentException("El archivo está vacío o no tiene cabecera.");
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : header.split(",", -1)) {
+            String column = field.strip().replace("\"", "").toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Columna desconocida en la cabecera: '" + field.strip()
+                        + "'. Columnas válidas: " + String.join(", ", COLUMNS.stream().sorted().toList()));
+            }
+            if (!columns.add(column)) {
+                throw new IllegalArgumentException("Columna repetida en la cabecera: " + column);
+            }
+        }
+        if (!columns.contains("product_name")) {
+            throw new IllegalArgumentException("La cabecera debe incluir la columna product_name.");
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Lee la primera línea (la cabecera) byte a byte, dejando el resto del flujo intacto para el COPY.
+     * @return La línea decodificada como UTF-8, sin el fin de línea.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * Cuenta los bytes que el driver lee para el COPY, informa del progreso y permite cancelar
+     * (la excepción hace que el driver aborte el COPY).
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final long totalBytes;
+        private final ProgressListener progress;
+        private final BooleanSupplier cancelled;
+        private long sent;
+        private long nextReport;
+
+        ProgressInputStream(InputStream in, long alreadySent, long totalBytes,
+                            ProgressListener progress, BooleanSupplier cancelled) {
+            super(in);
+            this.sent = alreadySent;
+            this.totalBytes = totalBytes;
+            this.progress = progress;
+            this.cancelled = cancelled;
+            this.nextReport = alreadySent + PROGRESS_EVERY_BYTES;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(int bytes) {
+            sent += bytes;
+            if (sent >= nextReport) {
+                nextReport = sent + PROGRESS_EVERY_BYTES;
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Importación cancelada tras enviar " + sent + " bytes.");
+                }
+                progress.onProgress(sent, totalBytes);
+            }
+        }
+    }
+}
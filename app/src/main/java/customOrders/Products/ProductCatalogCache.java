@@ -0,0 +1,332 @@
+package customOrders.Products;
+
+import customOrders.Products.ProductManager.ProductStock;
+import customOrders.Products.ProductManager.ProductSummary;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché del catálogo de productos compartida por todo el proceso.
+ *
+ * Guarda una "foto" inmutable del catálogo (lista ordenada por product_id + índices por ID y por nombre),
+ * de modo que las pantallas que abren el catálogo (Productos, Inventario Diario, Crear Pedido)
+ * no repiten la consulta completa a la DB cada vez.
+ *
+ * Las escrituras de ProductManager (y el descuento de stock de un pedido) parchean la foto
+ * creando una nueva (copy-on-write); los lectores nunca ven una foto a medio modificar.
+ * Los Product cacheados son compartidos: no deben modificarse con sus setters.
+ *
+ * Además mantiene las proyecciones ligeras (ProductSummary, ProductStock), que se cargan con sus propias
+ * consultas: cada parche o invalidación se aplica también a ellas, aunque el catálogo completo no esté cargado.
+ */
+public class ProductCatalogCache {
+
+    /**
+     * Carga del catálogo completo desde la DB (normalmente ProductManager::loadAllProducts).
+     */
+    @FunctionalInterface
+    public interface Loader {
+        List<Product> load() throws SQLException;
+    }
+
+    /**
+     * Foto inmutable del catálogo.
+     * @param products Productos ordenados por product_id.
+     * @param byId Índice por product_id.
+     * @param byName Índice por nombre exacto (si hay nombres repetidos, gana el de menor ID).
+     */
+    public record Snapshot(List<Product> products, Map<Integer, Product> byId, Map<String, Product> byName) {
+
+        static Snapshot of(List<Product> products) {
+            List<Product> sorted = new ArrayList<>(products);
+            sorted.sort(Comparator.comparing(Product::getProduct_id));
+            Map<Integer, Product> byId = new HashMap<>(sorted.size() * 2);
+            Map<String, Product> byName = new HashMap<>(sorted.size() * 2);
+            for (Product p : sorted) {
+                byId.put(p.getProduct_id(), p);
+                if (p.getProduct_name() != null) {
+                    byName.putIfAbsent(p.getProduct_name(), p);
+                }
+            }
+            return new Snapshot(Collections.unmodifiableList(sorted),
+                    Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableMap(byName));
+        }
+    }
+
+    /**
+     * Métricas de la caché.
+     * @param hits Lecturas servidas desde memoria (round-trips ahorrados).
+     * @param misses Lecturas que tuvieron que ir a la DB.
+     * @param patches Escrituras aplicadas sobre la foto sin recargar.
+     * @param invalidations Veces que la foto se descartó completa.
+     */
+    public record CacheStats(long hits, long misses, long patches, long invalidations, int cachedProducts) {
+        @Override
+        public String toString() {
+            long total = hits + misses;
+            double hitRatio = total == 0 ? 0.0 : hits * 100.0 / total;
+            return String.format("Caché de Productos: aciertos=%d, fallos=%d (%.1f%% aciertos), parches=%d, invalidaciones=%d, productos=%d",
+                    hits, misses, hitRatio, patches, invalidations, cachedProducts);
+        }
+    }
+
+    private static final ProductCatalogCache INSTANCE = new ProductCatalogCache();
+
+    public static ProductCatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    private volatile Snapshot snapshot;
+    // Se incrementa en cada escritura: una carga que empezó antes no debe instalar datos viejos
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder patches = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private final ProjectionCache<ProductSummary> summaries =
+            new ProjectionCache<>("Resumen de Productos", ProductSummary::productId);
+    private final ProjectionCache<ProductStock> stocks =
+            new ProjectionCache<>("Stock de Productos", ProductStock::productId);
+
+    ProductCatalogCache() {
+    }
+
+    /**
+     * Devuelve la foto actual, cargándola con {@code loader} si no hay ninguna.
+     */
+    public Snapshot getSnapshot(Loader loader) throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+        Snapshot loaded = Snapshot.of(loader.load());
+        synchronized (this) {
+            if (version == loadVersion) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Lista inmutable de todos los productos (ordenada por product_id).
+     */
+    public List<Product> getAll(Loader loader) throws SQLException {
+        return getSnapshot(loader).products();
+    }
+
+    public Optional<Product> findById(int productId, Loader loader) throws SQLException {
+        return Optional.ofNullable(getSnapshot(loader).byId().get(productId));
+    }
+
+    public Optional<Product> findByName(String productName, Loader loader) throws SQLException {
+        return Optional.ofNullable(getSnapshot(loader).byName().get(productName));
+    }
+
+    public List<ProductSummary> getSummaries(ProjectionCache.Loader<ProductSummary> loader) throws SQLException {
+        return summaries.getAll(loader);
+    }
+
+    public List<ProductStock> getStocks(ProjectionCache.Loader<ProductStock> loader) throws SQLException {
+        return stocks.getAll(loader);
+    }
+
+    // --- Parches (tras una escritura confirmada en la DB) ---
+
+    /**
+     * Inserta o reemplaza un producto en la foto.
+     */
+    public void put(Product product) {
+        patch(products -> {
+            products.put(product.getProduct_id(), product);
+            return products;
+        });
+        putInProjections(product);
+    }
+
+    /**
+     * Reemplaza un producto editado conservando su date_added original
+     * (el formulario de edición no la envía: UPDATE no modifica esa columna).
+     */
+    public void replace(Product product) {
+        patch(products -> {
+            Product old = products.get(product.getProduct_id());
+            products.put(product.getProduct_id(), old == null ? product : withDateAdded(product, old.getDate_added()));
+            return products;
+        });
+        putInProjections(product);
+    }
+
+    public void remove(int productId) {
+        patch(products -> {
+            products.remove(productId);
+            return products;
+        });
+        summaries.patch(items -> {
+            items.remove(productId);
+            return items;
+        });
+        stocks.patch(items -> {
+            items.remove(productId);
+            return items;
+        });
+    }
+
+    /**
+     * Fija el stock maestro de un producto.
+     */
+    public void setQuantity(int productId, int newQuantity) {
+        patch(products -> {
+            products.computeIfPresent(productId, (id, p) -> withQuantity(p, newQuantity));
+            return products;
+        });
+        summaries.patch(items -> {
+            items.computeIfPresent(productId, (id, s) -> s.withQuantity(newQuantity));
+            return items;
+        });
+        stocks.patch(items -> {
+            items.computeIfPresent(productId, (id, s) -> s.withQuantity(newQuantity));
+            return items;
+        });
+    }
+
+    /**
+     * Cambia la URL de imagen de un producto cacheado.
+     */
+    public void setImageUrl(int productId, String imageUrl) {
+        patch(products -> {
+            products.computeIfPresent(productId, (id, p) -> withImageUrl(p, imageUrl));
+            return products;
+        });
+        summaries.patch(items -> {
+            items.computeIfPresent(productId, (id, s) -> s.withImageUrl(imageUrl));
+            return items;
+        });
+    }
+
+    /**
+     * Suma {@code delta} (negativo para descontar) al stock de varios productos de una sola vez.
+     * @param deltas product_id -> variación de stock.
+     */
+    public void adjustQuantities(Map<Integer, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        patch(products -> {
+            deltas.forEach((productId, delta) -> products.computeIfPresent(productId,
+                    (id, p) -> withQuantity(p, (p.getQuantity() == null ? 0 : p.getQuantity()) + delta)));
+            return products;
+        });
+        summaries.patch(items -> {
+            deltas.forEach((productId, delta) -> items.computeIfPresent(productId,
+                    (id, s) -> s.withQuantity(s.quantity() + delta)));
+            return items;
+        });
+        stocks.patch(items -> {
+            deltas.forEach((productId, delta) -> items.computeIfPresent(productId,
+                    (id, s) -> s.withQuantity(s.quantity() + delta)));
+            return items;
+        });
+    }
+
+    /**
+     * Descarta la foto completa y las proyecciones; la siguiente lectura recarga desde la DB.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            version++;
+            snapshot = null;
+            invalidations.increment();
+        }
+        summaries.invalidate();
+        stocks.invalidate();
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * true si hay algo en memoria que mantener al día: la foto completa o alguna proyección.
+     */
+    public boolean hasCachedData() {
+        return isLoaded() || summaries.isLoaded() || stocks.isLoaded();
+    }
+
+    /**
+     * Foto actual sin cargarla si no existe (no cuenta como acierto ni fallo).
+     */
+    public Optional<Snapshot> peekSnapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    public CacheStats getStats() {
+        Snapshot current = snapshot;
+        return new CacheStats(hits.sum(), misses.sum(), patches.sum(), invalidations.sum(),
+                current == null ? 0 : current.products().size());
+    }
+
+    public List<ProjectionCache.ProjectionStats> getProjectionStats() {
+        return List.of(summaries.getStats(), stocks.getStats());
+    }
+
+    private void putInProjections(Product product) {
+        summaries.patch(items -> {
+            items.put(product.getProduct_id(), ProductSummary.of(product));
+            return items;
+        });
+        stocks.patch(items -> {
+            items.put(product.getProduct_id(), ProductStock.of(product));
+            return items;
+        });
+    }
+
+    private synchronized void patch(UnaryOperator<Map<Integer, Product>> change) {
+        version++;
+        Snapshot current = snapshot;
+        if (current == null) {
+            return; // No hay nada cacheado: la próxima lectura ya traerá el cambio
+        }
+        Map<Integer, Product> products = change.apply(new HashMap<>(current.byId()));
+        snapshot = Snapshot.of(List.copyOf(products.values()));
+        patches.increment();
+    }
+
+    static Product withQuantity(Product p, int quantity) {
+        return new Product(p.getProduct_id(), p.getProduct_type_code(), p.getSupplier_id(), p.getProduct_name(),
+                p.getUnit_price(), p.getProduct_description(), p.getReorder_level(), p.getReorder_quantity(),
+                p.getOther_details(), p.getWeight_kg(), p.getDate_added(), p.getIs_active(), quantity, p.getImage_url());
+    }
+
+    static Product withDateAdded(Product p, LocalDate dateAdded) {
+        return new Product(p.getProduct_id(), p.getProduct_type_code(), p.getSupplier_id(), p.getProduct_name(),
+                p.getUnit_price(), p.getProduct_description(), p.getReorder_level(), p.getReorder_quantity(),
+                p.getOther_details(), p.getWeight_kg(), dateAdded, p.getIs_active(), p.getQuantity(), p.getImage_url());
+    }
+
+    static Product withImageUrl(Product p, String imageUrl) {
+        return new Product(p.getProduct_id(), p.getProduct_type_code(), p.getSupplier_id(), p.getProduct_name(),
+                p.getUnit_price(), p.getProduct_description(), p.getReorder_level(), p.getReorder_quantity(),
+                p.getOther_details(), p.getWeight_kg(), p.getDate_added(), p.getIs_active(), p.getQuantity(), imageUrl);
+    }
+}
@@ -1,20 +1,27 @@
 package customOrders.Products;
 
 // Importamos las clases FK anidadas que definiste en ProductManager
+import customOrders.Refreshable;
 import customOrders.Products.ProductManager.ProductTypeFK;
 import customOrders.Products.ProductManager.SupplierFK;
 
 import customOrders.Products.Product;
+import customOrders.util.DbExecutor;
+import customOrders.util.DbLoader;
 import customOrders.util.Dialogs;
+import customOrders.util.Log;
 import customOrders.util.Validator;
 // AÑADIDO: Importación de ImageUtil para cargar imágenes
+import customOrders.util.ImageCache;
 import customOrders.util.ImageUtil;
+import customOrders.util.ThumbnailStore;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -25,7 +32,9 @@ import java.io.FileNotFoundException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 // Nuevas importaciones para manejo de archivos
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -37,12 +46,18 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 
 
-public class ProductController {
+public class ProductController implements Refreshable {
+
+    private static final Log LOG = Log.get(ProductController.class);
 
     // RUTA LÓGICA (DENTRO DEL CLASSPATH) - Solo se usa para determinar la carpeta de guardado.
     // La ruta física de destino será: src/main/resources/ + esta ruta.
     private static final String RESOURCE_PATH_PREFIX = "customOrders/resources/product_images/";
 
+    // Tamaño del ImageView de previsualización (ProductsView.fxml): la imagen se decodifica ya a este tamaño
+    private static final int PREVIEW_WIDTH = 200;
+    private static final int PREVIEW_HEIGHT = 150;
+
     // *************************************************************
     // ** Campos FXML de la Tabla **
     // *************************************************************
@@ -96,6 +111,8 @@ public class ProductController {
     private Button deleteButton;
     @FXML
     private Button saveButton;
+    @FXML
+    private Button importCsvButton;
 
     // *************************************************************
     // ** Campos FXML para Imagen (VERIFICA ESTOS EN TU FXML) **
@@ -108,8 +125,13 @@ public class ProductController {
 
     private final ProductManager productManager = new ProductManager();
     private ObservableList<Product> productData;
-    private ObservableList<ProductTypeFK> productTypes;
-    private ObservableList<SupplierFK> suppliers;
+    private final ObservableList<ProductTypeFK> productTypes = FXCollections.observableArrayList();
+    private final ObservableList<SupplierFK> suppliers = FXCollections.observableArrayList();
+    // Carga de la tabla fuera del hilo de JavaFX (cancela recargas superadas)
+    private final DbLoader<List<Product>> productLoader = new DbLoader<>();
+    private final ProductBulkImporter bulkImporter = new ProductBulkImporter();
+    // Importación CSV en curso (null si no hay ninguna): el botón la cancela
+    private Task<ProductBulkImporter.ImportResult> importTask;
 
     // *************************************************************
     // ** Método initialize **
@@ -144,7 +166,11 @@ public class ProductController {
         activeColumn.setCellValueFactory(cellData ->
                 new SimpleObjectProperty<>(cellData.getValue().getIs_active()));
 
-        // Iniciar la carga de datos
+        productTypeCombo.setItems(productTypes);
+        supplierCombo.setItems(suppliers);
+        productLoader.showProgressOn(productTable);
+
+        // Iniciar la carga de datos (en segundo plano)
         loadForeignKeys();
         loadProductData();
 
@@ -153,31 +179,32 @@ public class ProductController {
                 (observable, oldValue, newValue) -> showProductDetails(newValue));
     }
 
-    // Método auxiliar para cargar datos
+    // Método auxiliar para cargar datos (la consulta corre fuera del hilo de JavaFX)
     private void loadProductData() {
-        try {
-            // Llama al método correcto en ProductManager
-            productData = FXCollections.observableArrayList(productManager.getAllProducts());
-            productTable.setItems(productData);
-            messageLabel.setText("Total de productos: " + productData.size());
-        } catch (Exception e) {
-            // Captura cualquier excepción durante la carga de datos
-            Dialogs.showErrorDialog("Error de Carga", "No se pudo cargar la lista de productos.", e.getMessage(), e);
-        }
+        messageLabel.setText("Cargando productos...");
+        productLoader.load(productManager::getAllProducts,
+                products -> {
+                    productData = FXCollections.observableArrayList(products);
+                    productTable.setItems(productData);
+                    messageLabel.setText("Total de productos: " + productData.size());
+                },
+                // Captura cualquier excepción durante la carga de datos
+                e -> Dialogs.showErrorDialog("Error de Carga", "No se pudo cargar la lista de productos.", e.getMessage(), e));
     }
 
-    // Método auxiliar para cargar claves foráneas
+    // Método auxiliar para cargar claves foráneas (ambas consultas en paralelo)
     private void loadForeignKeys() {
-        try {
-            // Llama a los métodos con el sufijo FK
-            productTypes = FXCollections.observableArrayList(productManager.getAllProductTypesFK());
-            productTypeCombo.setItems(productTypes);
-            suppliers = FXCollections.observableArrayList(productManager.getAllSupplierFKs());
-            supplierCombo.setItems(suppliers);
-        } catch (Exception e) {
-            // Captura cualquier excepción durante la carga de FK
-            Dialogs.showErrorDialog("Error de Carga de Dependencias", "No se pudo cargar Tipos de Producto o Proveedores.", e.getMessage(), e);
-        }
+        CompletableFuture<List<ProductTypeFK>> typesFuture = DbExecutor.supplyAsync(productManager::getAllProductTypesFK);
+        CompletableFuture<List<SupplierFK>> suppliersFuture = DbExecutor.supplyAsync(productManager::getAllSupplierFKs);
+
+        typesFuture.thenAcceptBothAsync(suppliersFuture, (types, supplierList) -> {
+            productTypes.setAll(types);
+            suppliers.setAll(supplierList);
+        }, DbExecutor.FX_THREAD).exceptionallyAsync(error -> {
+            Throwable cause = DbExecutor.unwrap(error);
+            Dialogs.showErrorDialog("Error de Carga de Dependencias", "No se pudo cargar Tipos de Producto o Proveedores.", cause.getMessage(), cause);
+            return null;
+        }, DbExecutor.FX_THREAD);
     }
 
 
@@ -222,10 +249,9 @@ public class ProductController {
             // APLICACIÓN DE LA CORRECCIÓN: Usar ImageUtil para cargar la imagen,
             // ya que maneja URLs web, rutas absolutas y nombres de archivo de Classpath.
             if (imageUrl != null && !imageUrl.trim().isEmpty()) {
-                Image image = ImageUtil.loadImageFromProductUrl(imageUrl);
-                previewImageView.setImage(image);
+                ImageUtil.loadProductImage(previewImageView, imageUrl, PREVIEW_WIDTH, PREVIEW_HEIGHT);
             } else {
-                previewImageView.setImage(null);
+                ImageUtil.clearProductImage(previewImageView);
             }
 
             deleteButton.setDisable(false);
@@ -246,7 +272,7 @@ public class ProductController {
 
             // Limpiar el campo de URL e ImageView
             imageUrlField.setText("");
-            previewImageView.setImage(null);
+            ImageUtil.clearProductImage(previewImageView);
 
             deleteButton.setDisable(true);
         }
@@ -264,13 +290,12 @@ public class ProductController {
     private void updateImagePreview() {
         String urlString = imageUrlField.getText();
         if (urlString == null || urlString.trim().isEmpty()) {
-            previewImageView.setImage(null);
+            ImageUtil.clearProductImage(previewImageView);
             return;
         }
 
         // Usamos el ImageUtil centralizado para previsualizar cualquier tipo de ruta (web, absoluta, classpath)
-        Image image = ImageUtil.loadImageFromProductUrl(urlString);
-        previewImageView.setImage(image);
+        ImageUtil.loadProductImage(previewImageView, urlString, PREVIEW_WIDTH, PREVIEW_HEIGHT);
     }
 
     // *************************************************************
@@ -290,7 +315,7 @@ public class ProductController {
         fileChooser.getExtensionFilters().add(extFilter);
 
         if (deleteButton == null || deleteButton.getScene() == null) {
-            System.err.println("Error: No se pudo obtener la ventana (Stage).");
+            LOG.error("No se pudo obtener la ventana (Stage).");
             return;
         }
         Stage stage = (Stage) deleteButton.getScene().getWindow();
@@ -301,7 +326,9 @@ public class ProductController {
             // Esto es importante para el método handleSave, que detectará que es un archivo local
             // y lo copiará a la carpeta de recursos, guardando solo el nombre.
             imageUrlField.setText(file.getAbsolutePath());
-            updateImagePreview(); // Mostrar la vista previa
+            // Generar las miniaturas al importar: los listados nunca tendrán que decodificar el original
+            ThumbnailStore.getInstance().importAsync(file.getAbsolutePath(), file.toPath())
+                    .whenComplete((imported, error) -> Platform.runLater(this::updateImagePreview)); // Mostrar la vista previa
         }
     }
 
@@ -389,6 +416,11 @@ public class ProductController {
 
                             // Copiar el archivo
                             Files.copy(sourceFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
+                            // Registrar las miniaturas bajo el nombre guardado en la DB (ya existen desde browseImage,
+                            // solo se calcula el hash). Si ya existía una imagen con ese nombre, la cacheada queda obsoleta.
+                            ImageCache.getInstance().invalidate(fileName);
+                            ThumbnailStore.getInstance().importAsync(fileName, destination)
+                                    .thenRun(() -> ImageCache.getInstance().invalidate(fileName));
 
                             // GUARDAR SOLO EL NOMBRE DEL ARCHIVO EN LA BASE DE DATOS
                             imageUrl = fileName;
@@ -493,4 +525,88 @@ public class ProductController {
             Dialogs.showWarningDialog("Advertencia", "No hay producto seleccionado.", "Por favor, selecciona un producto de la tabla para eliminar.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Importa productos desde un CSV (alta o actualización por nombre) en segundo plano.
+     * Mientras se ejecuta, el mismo botón la cancela.
+     */
+    @FXML
+    private void handleImportCsv() {
+        if (importTask != null) {
+            importTask.cancel(true);
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Importar Productos desde CSV");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files (*.csv)", "*.csv"));
+        File file = fileChooser.showOpenDialog(productTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Task<ProductBulkImporter.ImportResult> task = new Task<>() {
+            @Override
+            protected ProductBulkImporter.ImportResult call() throws Exception {
+                return bulkImporter.importCsv(file.toPath(),
+                        (sent, total) -> updateMessage(String.format("Importando %s: %d%%...",
+                                file.getName(), total == 0 ? 100 : sent * 100 / total)),
+                        this::isCancelled);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            ProductBulkImporter.ImportResult result = task.getValue();
+            finishImport();
+            messageLabel.setText("Importación CSV: " + result);
+            loadProductData();
+            if (result.rejected() == 0) {
+                Dialogs.showInformationDialog("Importación Completada", "Productos importados correctamente.", result.toString());
+            } else {
+                Dialogs.showWarningDialog("Importación Completada con Rechazos",
+                        result.rejected() + " filas no se importaron.", result + "\n\n" + describeRejects(result));
+            }
+        });
+        task.setOnFailed(e -> {
+            finishImport();
+            Throwable error = DbExecutor.unwrap(task.getException());
+            messageLabel.setText("ERROR al importar CSV: " + error.getMessage());
+            Dialogs.showErrorDialog("Error de Importación", "No se importó ningún producto.", error.getMessage(), error);
+        });
+        task.setOnCancelled(e -> {
+            finishImport();
+            messageLabel.setText("Importación CSV cancelada: no se aplicó ningún cambio.");
+        });
+
+        importTask = task;
+        // Sin bind: el resto de acciones de la pantalla siguen escribiendo en messageLabel
+        task.messageProperty().addListener((obs, oldMessage, message) -> messageLabel.setText(message));
+        importCsvButton.setText("Cancelar");
+        DbExecutor.execute(task);
+    }
+
+    // Las primeras filas rechazadas, una por línea (el diálogo no admite listas largas)
+    private static String describeRejects(ProductBulkImporter.ImportResult result) {
+        int shown = Math.min(result.rejects().size(), 20);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < shown; i++) {
+            text.append(result.rejects().get(i)).append('\n');
+        }
+        if (result.rejected() > shown) {
+            text.append("... y ").append(result.rejected() - shown).append(" más.");
+        }
+        return text.toString();
+    }
+
+    private void finishImport() {
+        importTask = null;
+        importCsvButton.setText("Importar CSV");
+    }
+
+    /**
+     * Vuelve a cargar la tabla de productos. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadProductData();
+    }
+}
@@ -1,15 +1,26 @@
 package customOrders.Products;
 
+import customOrders.ChangeNotifications;
 import customOrders.PostgresConnector;
 import customOrders.Products.Product;
+import customOrders.util.Log;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class ProductManager {
 
+    private static final Log LOG = Log.get(ProductManager.class);
+
     // --- Clases Auxiliares (Records) para las Claves Foráneas ---
     // Se definen aquí para que puedan ser importadas y usadas por el Controller
     // Usados para llenar los ComboBox y mapear los datos
@@ -22,44 +33,243 @@ public class ProductManager {
         public String toString() { return id + " - " + name; }
     }
 
+    // --- Proyecciones ligeras del catálogo ---
+    // Las pantallas que solo muestran unos pocos campos no leen las columnas de texto (descripción, detalles)
+
+    /**
+     * Lo que muestran la galería de Crear Pedido y los ComboBox de productos.
+     */
+    public record ProductSummary(int productId, String productName, double unitPrice, int quantity, String imageUrl) {
+        static ProductSummary of(Product p) {
+            return new ProductSummary(p.getProduct_id(), p.getProduct_name(),
+                    p.getUnit_price() == null ? 0.0 : p.getUnit_price(),
+                    p.getQuantity() == null ? 0 : p.getQuantity(), p.getImage_url());
+        }
+
+        ProductSummary withQuantity(int newQuantity) {
+            return new ProductSummary(productId, productName, unitPrice, newQuantity, imageUrl);
+        }
+
+        ProductSummary withImageUrl(String newImageUrl) {
+            return new ProductSummary(productId, productName, unitPrice, quantity, newImageUrl);
+        }
+    }
+
+    /**
+     * Lo que necesita la tabla de Inventario Diario.
+     */
+    public record ProductStock(int productId, String productName, int quantity) {
+        static ProductStock of(Product p) {
+            return new ProductStock(p.getProduct_id(), p.getProduct_name(), p.getQuantity() == null ? 0 : p.getQuantity());
+        }
+
+        ProductStock withQuantity(int newQuantity) {
+            return new ProductStock(productId, productName, newQuantity);
+        }
+    }
+
+    private static final String PRODUCT_SUMMARIES_SQL =
+            "SELECT product_id, product_name, unit_price, quantity, image_url FROM Products ORDER BY product_id";
+    private static final String PRODUCT_STOCKS_SQL =
+            "SELECT product_id, product_name, quantity FROM Products ORDER BY product_id";
+
+    /**
+     * Resultado de una actualización masiva (precios o stock).
+     * @param missingIds Productos que no existen (se ignoran).
+     * @param rejectedIds Productos que se quedarían con stock negativo o con un precio no válido;
+     *                    si hay alguno no se aplica nada.
+     */
+    public record BulkUpdateResult(int updated, List<Integer> missingIds, List<Integer> rejectedIds) {
+        public boolean isApplied() {
+            return rejectedIds.isEmpty();
+        }
+    }
+
+    // Bloquea las filas en orden de product_id (como la reserva de stock del checkout: sin interbloqueos)
+    // y devuelve cuáles existen
+    private static final String LOCK_PRODUCTS_SQL =
+            "SELECT product_id FROM Products WHERE product_id = ANY(?) ORDER BY product_id FOR UPDATE";
+    private static final String UPDATE_PRICES_SQL =
+            "UPDATE Products p SET unit_price = u.price " +
+            "FROM unnest(?::int[], ?::numeric[]) AS u(product_id, price) " +
+            "WHERE p.product_id = u.product_id RETURNING p.product_id";
+    // unit_price es numeric(10,2): el máximo representable es 99999999.99
+    private static final BigDecimal MAX_UNIT_PRICE_EXCLUSIVE = BigDecimal.valueOf(100_000_000L);
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE Products p SET quantity = p.quantity + d.delta " +
+            "FROM unnest(?::int[], ?::int[]) AS d(product_id, delta) " +
+            "WHERE p.product_id = d.product_id AND p.quantity + d.delta >= 0 RETURNING p.product_id";
+
+    private static final String PRODUCT_COLUMNS_SQL = "SELECT product_id, product_type_code, supplier_id, product_name, unit_price, " +
+            "product_description, reorder_level, reorder_quantity, other_details, " +
+            "weight_kg, date_added, is_active, quantity, image_url FROM Products";
+
+    private final ProductCatalogCache catalogCache = ProductCatalogCache.getInstance();
+
+    /**
+     * Obtiene todos los productos (lista inmutable, ordenada por product_id).
+     * Se sirve desde la caché compartida del catálogo; solo va a la DB si no está cargada.
+     */
+    public List<Product> getAllProducts() throws SQLException {
+        return catalogCache.getAll(this::loadAllProducts);
+    }
+
+    /**
+     * Busca un producto por ID en la caché del catálogo.
+     */
+    public Optional<Product> findProductById(int productId) throws SQLException {
+        return catalogCache.findById(productId, this::loadAllProducts);
+    }
+
+    /**
+     * Busca un producto por su nombre exacto en la caché del catálogo.
+     */
+    public Optional<Product> findProductByName(String productName) throws SQLException {
+        return catalogCache.findByName(productName, this::loadAllProducts);
+    }
+
+    /**
+     * Resumen de todos los productos (ordenado por product_id), desde su propia caché.
+     * Para la galería y los ComboBox: no carga el catálogo completo.
+     */
+    public List<ProductSummary> getProductSummaries() throws SQLException {
+        return catalogCache.getSummaries(this::loadProductSummaries);
+    }
+
+    /**
+     * Stock de todos los productos (ordenado por product_id), desde su propia caché.
+     */
+    public List<ProductStock> getProductStocks() throws SQLException {
+        return catalogCache.getStocks(this::loadProductStocks);
+    }
+
+    /**
+     * Métricas de la caché del catálogo (aciertos = consultas ahorradas).
+     */
+    public static ProductCatalogCache.CacheStats getCatalogCacheStats() {
+        return ProductCatalogCache.getInstance().getStats();
+    }
+
+    /**
+     * Métricas de las cachés de las proyecciones (resumen y stock).
+     */
+    public static List<ProjectionCache.ProjectionStats> getProjectionCacheStats() {
+        return ProductCatalogCache.getInstance().getProjectionStats();
+    }
+
     /**
      * Obtiene todos los productos de la base de datos.
      * Incluye el nuevo campo 'image_url'.
      */
-    public List<Product> getAllProducts() throws SQLException {
+    List<Product> loadAllProducts() throws SQLException {
         List<Product> productList = new ArrayList<>();
         // ** CAMBIO: Agregamos image_url a la consulta SELECT **
-        String sql = "SELECT product_id, product_type_code, supplier_id, product_name, unit_price, " +
-                "product_description, reorder_level, reorder_quantity, other_details, " +
-                "weight_kg, date_added, is_active, quantity, image_url FROM Products ORDER BY product_id";
+        String sql = PRODUCT_COLUMNS_SQL + " ORDER BY product_id";
 
         try (Connection conn = PostgresConnector.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Product product = new Product(
-                        rs.getInt("product_id"),
-                        rs.getString("product_type_code"),
-                        rs.getInt("supplier_id"),
-                        rs.getString("product_name"),
-                        rs.getDouble("unit_price"),
-                        rs.getString("product_description"),
-                        rs.getInt("reorder_level"),
-                        rs.getInt("reorder_quantity"),
-                        rs.getString("other_details"),
-                        rs.getDouble("weight_kg"),
-                        rs.getDate("date_added").toLocalDate(), // Convertir Date a LocalDate
-                        rs.getBoolean("is_active"),
-                        rs.getInt("quantity"),
-                        rs.getString("image_url") // ** NUEVO: Obtener la URL de la imagen **
-                );
-                productList.add(product);
+                productList.add(readProduct(rs));
             }
         }
         return productList;
     }
 
+    List<ProductSummary> loadProductSummaries() throws SQLException {
+        List<ProductSummary> summaries = new ArrayList<>();
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PRODUCT_SUMMARIES_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                summaries.add(new ProductSummary(rs.getInt(1), rs.getString(2), rs.getDouble(3),
+                        rs.getInt(4), rs.getString(5)));
+            }
+        }
+        return summaries;
+    }
+
+    List<ProductStock> loadProductStocks() throws SQLException {
+        List<ProductStock> stocks = new ArrayList<>();
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PRODUCT_STOCKS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                stocks.add(new ProductStock(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+            }
+        }
+        return stocks;
+    }
+
+    /**
+     * Lee un único producto de la DB (sin pasar por la caché).
+     * @return Optional vacío si el producto ya no existe.
+     */
+    Optional<Product> loadProductById(int productId) throws SQLException {
+        String sql = PRODUCT_COLUMNS_SQL + " WHERE product_id = ?";
+
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(readProduct(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Mantiene la caché del catálogo al día con los cambios hechos desde otras estaciones
+     * (notificaciones de la tabla products). Se llama una vez al arrancar la aplicación.
+     * Los INSERT/UPDATE de esta misma estación se ignoran: quien escribió ya parcheó la caché
+     * (insertProduct, updateProduct, checkout...), y releer la fila costaría un SELECT por cada escritura.
+     */
+    public static void enableCatalogChangeSync() {
+        ProductManager loader = new ProductManager();
+        ProductCatalogCache cache = ProductCatalogCache.getInstance();
+
+        ChangeNotifications.getInstance().subscribe(ChangeNotifications.Table.PRODUCTS, event -> {
+            switch (event.operation()) {
+                case DELETE -> cache.remove(event.id());
+                case INSERT, UPDATE -> {
+                    if (event.local() || !cache.hasCachedData()) {
+                        return; // Nada que parchear: la próxima lectura cargará datos frescos
+                    }
+                    try {
+                        loader.loadProductById(event.id())
+                                .ifPresentOrElse(cache::put, () -> cache.remove(event.id()));
+                    } catch (SQLException e) {
+                        LOG.warn("No se pudo refrescar el producto {} en caché: {}", event.id(), e.getMessage());
+                        cache.invalidate();
+                    }
+                }
+                case RESYNC -> cache.invalidate();
+            }
+        });
+    }
+
+    private static Product readProduct(ResultSet rs) throws SQLException {
+        return new Product(
+                rs.getInt("product_id"),
+                rs.getString("product_type_code"),
+                rs.getInt("supplier_id"),
+                rs.getString("product_name"),
+                rs.getDouble("unit_price"),
+                rs.getString("product_description"),
+                rs.getInt("reorder_level"),
+                rs.getInt("reorder_quantity"),
+                rs.getString("other_details"),
+                rs.getDouble("weight_kg"),
+                rs.getDate("date_added").toLocalDate(), // Convertir Date a LocalDate
+                rs.getBoolean("is_active"),
+                rs.getInt("quantity"),
+                rs.getString("image_url") // ** NUEVO: Obtener la URL de la imagen **
+        );
+    }
+
     /**
      * Inserta un nuevo producto. Asume que product_id es autogenerado.
      * Incluye el nuevo campo 'image_url'.
@@ -97,12 +307,14 @@ public class ProductManager {
                 if (generatedKeys.next()) {
                     // Retornar un nuevo objeto Product con el ID generado (y la imageUrl)
                     int newId = generatedKeys.getInt(1);
-                    return new Product(
+                    Product inserted = new Product(
                             newId, product.getProduct_type_code(), product.getSupplier_id(), product.getProduct_name(), product.getUnit_price(),
                             product.getProduct_description(), product.getReorder_level(), product.getReorder_quantity(), product.getOther_details(),
                             product.getWeight_kg(), LocalDate.now(), product.getIs_active(), product.getQuantity(),
                             product.getImage_url() // ** NUEVO: Incluir la URL de la imagen **
                     );
+                    catalogCache.put(inserted);
+                    return inserted;
                 } else {
                     throw new SQLException("La inserción de producto falló, no se obtuvo ID generado.");
                 }
@@ -130,7 +342,11 @@ public class ProductManager {
             ps.setString(1, imageUrl);
             ps.setInt(2, productId);
 
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                catalogCache.setImageUrl(productId, imageUrl);
+            }
+            return updated;
         }
     }
 
@@ -162,7 +378,11 @@ public class ProductManager {
             ps.setString(12, product.getImage_url()); // ** NUEVO: Setear la URL de la imagen **
             ps.setInt(13, product.getProduct_id()); // WHERE condition (PK)
 
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                catalogCache.replace(product);
+            }
+            return updated;
         }
     }
 
@@ -176,7 +396,11 @@ public class ProductManager {
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, productId);
-            return ps.executeUpdate() > 0;
+            boolean deleted = ps.executeUpdate() > 0;
+            if (deleted) {
+                catalogCache.remove(productId);
+            }
+            return deleted;
         }
     }
 
@@ -200,11 +424,10 @@ public class ProductManager {
 
             int affectedRows = ps.executeUpdate();
             if (affectedRows == 0) {
-                System.err.println("Advertencia: No se encontró el Producto ID " + productId +
-                        " para actualizar el stock maestro.");
+                LOG.warn("No se encontró el Producto ID {} para actualizar el stock maestro.", productId);
             } else {
-                System.out.println("Actualización de Stock Maestro exitosa para Producto ID " + productId +
-                        ". Nueva Cantidad: " + newQuantity);
+                catalogCache.setQuantity(productId, newQuantity);
+                LOG.debug("Actualización de Stock Maestro exitosa para Producto ID {}. Nueva Cantidad: {}", productId, newQuantity);
             }
         }
         // SQLException se propaga automáticamente si falla la conexión o la consulta.
@@ -256,6 +479,143 @@ public class ProductManager {
         return list;
     }
 
+    // **********************************************
+    // *** ACTUALIZACIONES MASIVAS (precios y stock) ***
+    // **********************************************
+
+    /**
+     * Cambia el precio de varios productos en una sola sentencia y una sola transacción
+     * (UPDATE ... FROM unnest de dos arrays), en lugar de un updateProduct completo por producto.
+     * Los precios se redondean a 2 decimales (HALF_UP, como la columna numeric(10,2)) antes de validarlos;
+     * si alguno no es válido no se aplica nada y se devuelve en {@link BulkUpdateResult#rejectedIds()}.
+     * @param newPrices product_id -> nuevo precio unitario.
+     */
+    public BulkUpdateResult updatePrices(Map<Integer, Double> newPrices) throws SQLException {
+        TreeMap<Integer, BigDecimal> prices = new TreeMap<>();
+        List<Integer> invalid = new ArrayList<>();
+        new TreeMap<>(newPrices).forEach((productId, price) -> {
+            BigDecimal unitPrice = toUnitPrice(price);
+            if (unitPrice == null) {
+                invalid.add(productId);
+            } else {
+                prices.put(productId, unitPrice);
+            }
+        });
+        if (!invalid.isEmpty()) {
+            LOG.warn("Precios no válidos en la actualización masiva (no se aplica ninguno): {}", invalid);
+            return new BulkUpdateResult(0, List.of(), List.copyOf(invalid));
+        }
+        return bulkUpdate(UPDATE_PRICES_SQL, "numeric", prices);
+    }
+
+    /**
+     * Precio tal como lo guardaría la columna unit_price, o null si no cabe o viola chk_unit_price (> 0):
+     * p.ej. 0.004 se queda en 0.00 y 1e8 desborda numeric(10,2).
+     */
+    private static BigDecimal toUnitPrice(Double price) {
+        if (price == null || price.isNaN() || price.isInfinite()) {
+            return null;
+        }
+        BigDecimal rounded = BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP);
+        if (rounded.signum() <= 0 || rounded.compareTo(MAX_UNIT_PRICE_EXCLUSIVE) >= 0) {
+            return null;
+        }
+        return rounded;
+    }
+
+    /**
+     * Suma a la vez una variación de stock (positiva al recibir mercancía, negativa al descontar) a varios
+     * productos, en una sola sentencia y una sola transacción.
+     * Es todo o nada: si algún producto se quedaría con stock negativo no se aplica ningún cambio y se
+     * devuelve en {@link BulkUpdateResult#rejectedIds()}.
+     * @param deltas product_id -> variación de stock.
+     */
+    public BulkUpdateResult adjustStock(Map<Integer, Integer> deltas) throws SQLException {
+        deltas.forEach((productId, delta) -> {
+            if (delta == null) {
+                throw new IllegalArgumentException("Variación de stock nula para el producto " + productId);
+            }
+        });
+        return bulkUpdate(ADJUST_STOCK_SQL, "integer", new TreeMap<>(deltas));
+    }
+
+    /**
+     * Ejecuta una actualización masiva {@code (ids[], valores[])} en una transacción.
+     * Las filas se bloquean primero en orden de product_id; una fila existente que la sentencia no
+     * actualiza (por la condición del WHERE) cuenta como rechazada y provoca el ROLLBACK de todo.
+     * Las notificaciones por fila se sustituyen por un único RESYNC de products al confirmar.
+     */
+    private BulkUpdateResult bulkUpdate(String updateSql, String valueType, TreeMap<Integer, ? extends Number> values)
+            throws SQLException {
+        if (values.isEmpty()) {
+            return new BulkUpdateResult(0, List.of(), List.of());
+        }
+
+        try (Connection conn = PostgresConnector.getConnection()) {
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            Array idArray = conn.createArrayOf("integer", values.keySet().toArray());
+            Array valueArray = conn.createArrayOf(valueType, values.values().toArray());
+            try {
+                ChangeNotifications.suppressRowNotifications(conn);
+
+                Set<Integer> existing = new HashSet<>();
+                try (PreparedStatement ps = conn.prepareStatement(LOCK_PRODUCTS_SQL)) {
+                    ps.setArray(1, idArray);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getInt(1));
+                        }
+                    }
+                }
+
+                Set<Integer> updatedIds = new HashSet<>();
+                try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+                    ps.setArray(1, idArray);
+                    ps.setArray(2, valueArray);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            updatedIds.add(rs.getInt(1));
+                        }
+                    }
+                }
+
+                List<Integer> missing = new ArrayList<>();
+                List<Integer> rejected = new ArrayList<>();
+                for (Integer productId : values.keySet()) {
+                    if (!existing.contains(productId)) {
+                        missing.add(productId);
+                    } else if (!updatedIds.contains(productId)) {
+                        rejected.add(productId);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    LOG.warn("Productos inexistentes ignorados en la actualización masiva: {}", missing);
+                }
+                if (!rejected.isEmpty()) {
+                    conn.rollback();
+                    return new BulkUpdateResult(0, List.copyOf(missing), List.copyOf(rejected));
+                }
+
+                if (!updatedIds.isEmpty()) {
+                    ChangeNotifications.publishResync(conn, ChangeNotifications.Table.PRODUCTS);
+                }
+                conn.commit();
+                if (!updatedIds.isEmpty()) {
+                    catalogCache.invalidate();
+                }
+                return new BulkUpdateResult(updatedIds.size(), List.copyOf(missing), List.of());
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                idArray.free();
+                valueArray.free();
+                conn.setAutoCommit(originalAutoCommit);
+            }
+        }
+    }
+
     // ************************************************************
     // *** PROXY METHODS (Para compatibilidad con el código antiguo) ***
     // ************************************************************
@@ -0,0 +1,126 @@
+package customOrders.Products;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché de una proyección ligera del catálogo (p.ej. {@link ProductManager.ProductSummary}).
+ *
+ * Funciona igual que la foto de {@link ProductCatalogCache}: una lista inmutable ordenada por product_id
+ * que se carga con su propia consulta (solo las columnas de la proyección) y que las escrituras parchean
+ * creando una lista nueva. ProductCatalogCache es quien la mantiene al día: cada cambio del catálogo
+ * se aplica también a las proyecciones cargadas.
+ */
+public final class ProjectionCache<T> {
+
+    /**
+     * Carga de la proyección completa desde la DB.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> load() throws SQLException;
+    }
+
+    /**
+     * Métricas de una proyección (mismo significado que {@link ProductCatalogCache.CacheStats}).
+     */
+    public record ProjectionStats(String name, long hits, long misses, long patches, long invalidations, int cachedItems) {
+        @Override
+        public String toString() {
+            long total = hits + misses;
+            double hitRatio = total == 0 ? 0.0 : hits * 100.0 / total;
+            return String.format("Caché de %s: aciertos=%d, fallos=%d (%.1f%% aciertos), parches=%d, invalidaciones=%d, elementos=%d",
+                    name, hits, misses, hitRatio, patches, invalidations, cachedItems);
+        }
+    }
+
+    private final String name;
+    private final ToIntFunction<T> idOf;
+
+    private volatile List<T> items;
+    // Se incrementa en cada escritura: una carga que empezó antes no debe instalar datos viejos
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder patches = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    ProjectionCache(String name, ToIntFunction<T> idOf) {
+        this.name = name;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Lista inmutable (ordenada por product_id), cargándola con {@code loader} si no está en memoria.
+     */
+    public List<T> getAll(Loader<T> loader) throws SQLException {
+        List<T> current = items;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+        List<T> loaded = sorted(loader.load());
+        synchronized (this) {
+            if (version == loadVersion) {
+                items = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    public boolean isLoaded() {
+        return items != null;
+    }
+
+    /**
+     * Aplica un cambio sobre la proyección cargada (mapa product_id -> elemento). Si no está cargada
+     * no hace nada: la próxima lectura ya traerá los datos nuevos.
+     */
+    synchronized void patch(UnaryOperator<Map<Integer, T>> change) {
+        version++;
+        List<T> current = items;
+        if (current == null) {
+            return;
+        }
+        Map<Integer, T> byId = new HashMap<>(current.size() * 2);
+        for (T item : current) {
+            byId.put(idOf.applyAsInt(item), item);
+        }
+        items = sorted(change.apply(byId).values());
+        patches.increment();
+    }
+
+    synchronized void invalidate() {
+        version++;
+        items = null;
+        invalidations.increment();
+    }
+
+    public ProjectionStats getStats() {
+        List<T> current = items;
+        return new ProjectionStats(name, hits.sum(), misses.sum(), patches.sum(), invalidations.sum(),
+                current == null ? 0 : current.size());
+    }
+
+    private List<T> sorted(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        list.sort(Comparator.comparingInt(idOf));
+        return Collections.unmodifiableList(list);
+    }
+}
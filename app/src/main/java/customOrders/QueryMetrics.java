@@ -0,0 +1,551 @@
+package customOrders;
+
+import customOrders.util.FlightEvents;
+import customOrders.util.LatencyHistogram;
+import customOrders.util.Log;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentación de las llamadas JDBC de todos los managers.
+ *
+ * {@link PostgresConnector#getConnection()} envuelve cada conexión del pool en un proxy (como hace
+ * ConnectionPool) que mide cada sentencia ejecutada:
+ * - Histograma de latencia por sentencia (SQL normalizado), ejecuciones, errores y filas
+ *   (leídas del ResultSet o afectadas por el UPDATE/lote).
+ * - Tiempo de obtención de conexión del pool.
+ * - Registro de consultas lentas (por encima de customOrders.db.slowQueryMillis) con sus parámetros,
+ *   que además se avisan por System.err.
+ *
+ * Los datos se ven en la pantalla de Diagnóstico ({@link DiagnosticsController}) y se pueden volcar a un
+ * archivo con {@link #dump(Path)}; con -DcustomOrders.db.metricsDump=ruta se vuelcan al cerrar la aplicación.
+ * Cada ejecución emite además un evento JFR {@link FlightEvents.JdbcStatement} (si hay una grabación activa).
+ * Se desactiva con -DcustomOrders.db.instrumentation=false. Las operaciones COPY (CopyManager) no pasan
+ * por aquí.
+ */
+public final class QueryMetrics {
+
+    private static final Log LOG = Log.get(QueryMetrics.class);
+
+    /**
+     * Métricas acumuladas de una sentencia.
+     * @param rows Filas leídas (consultas) o afectadas (actualizaciones y lotes).
+     */
+    public record StatementStats(String sql, long executions, long errors, long rows, LatencyHistogram.Summary latency) { }
+
+    /**
+     * Ejecución que superó el umbral de consulta lenta.
+     * @param rows Filas leídas o afectadas (-1 si no se conocen).
+     */
+    public record SlowQuery(Instant at, String sql, String parameters, double millis, long rows, String thread) {
+        @Override
+        public String toString() {
+            return String.format("%s  %.1f ms  filas=%d  [%s]  %s  parámetros: %s",
+                    TIME_FORMAT.format(at), millis, rows, thread, sql, parameters);
+        }
+    }
+
+    /**
+     * Foto de todas las métricas.
+     * @param statements Ordenadas por tiempo total (las que más pesan primero).
+     * @param slowQueries La más reciente primero.
+     */
+    public record Snapshot(Instant capturedAt, Instant since, boolean enabled, long slowQueryThresholdMillis,
+                           LatencyHistogram.Summary connectionAcquire, ConnectionPool.PoolStats pool,
+                           List<StatementStats> statements, List<SlowQuery> slowQueries) {
+
+        /**
+         * Informe de texto (el que se vuelca a archivo).
+         */
+        public String toReport() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== Métricas de acceso a datos ===\n");
+            sb.append("Capturado: ").append(TIME_FORMAT.format(capturedAt))
+                    .append("  (desde ").append(TIME_FORMAT.format(since)).append(")\n");
+            if (!enabled) {
+                sb.append("Instrumentación desactivada (customOrders.db.instrumentation=false).\n");
+            }
+            sb.append("Obtención de conexión: ").append(connectionAcquire).append('\n');
+            sb.append(pool).append("\n\n");
+
+            sb.append("--- Sentencias (por tiempo total) ---\n");
+            for (StatementStats s : statements) {
+                LatencyHistogram.Summary l = s.latency();
+                sb.append(String.format("total=%.1f ms  n=%d  errores=%d  filas=%d  media=%.2f  p50=%.2f  p95=%.2f  p99=%.2f  máx=%.2f ms%n    %s%n",
+                        l.totalMillis(), s.executions(), s.errors(), s.rows(), l.meanMillis(),
+                        l.p50Millis(), l.p95Millis(), l.p99Millis(), l.maxMillis(), s.sql()));
+            }
+
+            sb.append("\n--- Consultas lentas (>= ").append(slowQueryThresholdMillis).append(" ms) ---\n");
+            for (SlowQuery q : slowQueries) {
+                sb.append(q).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("customOrders.db.instrumentation", "true"));
+    private static final long SLOW_QUERY_MILLIS = Long.getLong("customOrders.db.slowQueryMillis", 250L);
+    private static final String DUMP_ON_EXIT = System.getProperty("customOrders.db.metricsDump");
+
+    // Límite de sentencias distintas (SQL con literales concatenados no debe crecer sin fin)
+    private static final int MAX_TRACKED_STATEMENTS = 500;
+    private static final String OTHER_STATEMENTS = "(otras sentencias)";
+    private static final String STATEMENT_BATCH = "(lote de sentencias)";
+    private static final int SLOW_LOG_CAPACITY = 200;
+    private static final int MAX_SQL_LENGTH = 2_000;
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final long SLOW_QUERY_NANOS = SLOW_QUERY_MILLIS * 1_000_000L;
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // Se sustituyen enteros en reset(): quien tenga la referencia vieja solo alimenta métricas descartadas
+    private volatile ConcurrentHashMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram acquire = new LatencyHistogram();
+    private volatile Instant since = Instant.now();
+    private final ArrayDeque<SlowQuery> slowLog = new ArrayDeque<>();
+
+    private QueryMetrics() {
+        if (DUMP_ON_EXIT != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dump(Path.of(DUMP_ON_EXIT));
+                } catch (IOException e) {
+                    // Al cerrar la JVM se escribe directamente: el log asíncrono puede estar ya vaciado
+                    System.err.println("ERROR Métricas: No se pudo volcar a " + DUMP_ON_EXIT + ": " + e.getMessage());
+                }
+            }, "query-metrics-dump"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return SLOW_QUERY_MILLIS;
+    }
+
+    /**
+     * Registra el tiempo de obtención de la conexión y la envuelve para medir sus sentencias.
+     */
+    Connection instrument(Connection connection, long acquireNanos) {
+        if (!ENABLED) {
+            return connection;
+        }
+        acquire.recordNanos(acquireNanos);
+        return (Connection) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    public Snapshot snapshot() {
+        List<StatementStats> stats = new ArrayList<>();
+        statements.forEach((sql, m) -> stats.add(new StatementStats(sql, m.executions.sum(), m.errors.sum(),
+                m.rows.sum(), m.latency.getSummary())));
+        stats.sort(Comparator.comparingDouble((StatementStats s) -> s.latency().totalMillis()).reversed());
+
+        List<SlowQuery> slow;
+        synchronized (slowLog) {
+            slow = new ArrayList<>(slowLog);
+        }
+        return new Snapshot(Instant.now(), since, ENABLED, SLOW_QUERY_MILLIS, acquire.getSummary(),
+                PostgresConnector.getPoolStats(), stats, slow);
+    }
+
+    /**
+     * Escribe el informe de {@link #snapshot()} en {@code file} (UTF-8, sobrescribe).
+     */
+    public Path dump(Path file) throws IOException {
+        Files.writeString(file, snapshot().toReport(), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Descarta todas las métricas acumuladas y empieza de cero.
+     */
+    public void reset() {
+        statements = new ConcurrentHashMap<>();
+        acquire = new LatencyHistogram();
+        since = Instant.now();
+        synchronized (slowLog) {
+            slowLog.clear();
+        }
+    }
+
+    // --- Registro ---
+
+    private static final class StatementMetrics {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    private StatementMetrics metricsFor(String sql) {
+        ConcurrentHashMap<String, StatementMetrics> current = statements;
+        StatementMetrics metrics = current.get(sql);
+        if (metrics != null) {
+            return metrics;
+        }
+        String key = current.size() < MAX_TRACKED_STATEMENTS ? sql : OTHER_STATEMENTS;
+        return current.computeIfAbsent(key, k -> new StatementMetrics());
+    }
+
+    /**
+     * Una ejecución ya medida. Las filas de una consulta se conocen al terminar de leer su ResultSet,
+     * así que {@link #finish} (filas y registro de lenta) puede llegar después que la latencia.
+     */
+    private final class Execution {
+        private final StatementMetrics metrics;
+        private final String sql;
+        private final long nanos;
+        private final String parameters;  // solo si es lenta
+        private final FlightEvents.JdbcStatement event;  // ya terminado (end()), se confirma con las filas
+        private boolean finished;
+
+        private Execution(StatementMetrics metrics, String sql, long nanos, String parameters,
+                          FlightEvents.JdbcStatement event) {
+            this.metrics = metrics;
+            this.sql = sql;
+            this.nanos = nanos;
+            this.parameters = parameters;
+            this.event = event;
+        }
+
+        private void finish(long rows) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (rows > 0) {
+                metrics.rows.add(rows);
+            }
+            if (nanos >= SLOW_QUERY_NANOS) {
+                logSlow(new SlowQuery(Instant.now(), sql, parameters, nanos / 1_000_000.0, rows,
+                        Thread.currentThread().getName()));
+            }
+            if (event.shouldCommit()) {
+                event.sql = sql;
+                event.rows = rows;
+                event.commit();
+            }
+        }
+    }
+
+    private void logSlow(SlowQuery query) {
+        synchronized (slowLog) {
+            if (slowLog.size() == SLOW_LOG_CAPACITY) {
+                slowLog.removeLast();
+            }
+            slowLog.addFirst(query);
+        }
+        LOG.warn("SQL lenta: {} ms, filas={}: {} | parámetros: {}",
+                query.millis(), query.rows(), query.sql(), query.parameters());
+    }
+
+    /**
+     * SQL como clave: espacios colapsados y longitud acotada.
+     */
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "(null)";
+        }
+        String normalized = sql.strip().replaceAll("\\s+", " ");
+        return normalized.length() > MAX_SQL_LENGTH ? normalized.substring(0, MAX_SQL_LENGTH) + "..." : normalized;
+    }
+
+    private static String describe(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        String text = value instanceof String s ? "'" + s + "'" : String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // --- Proxies ---
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrapStatement(proxy, (Statement) invokeTarget(target, method, args), Statement.class, null);
+                case "prepareStatement":
+                    return wrapStatement(proxy, (Statement) invokeTarget(target, method, args),
+                            PreparedStatement.class, normalize((String) args[0]));
+                case "prepareCall":
+                    return wrapStatement(proxy, (Statement) invokeTarget(target, method, args),
+                            CallableStatement.class, normalize((String) args[0]));
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InstrumentedConnection[" + target + "]";
+                default:
+                    break;
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Statement wrapStatement(Object connectionProxy, Statement statement, Class<?> type, String sql) {
+            return (Statement) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler((Connection) connectionProxy, statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final Statement target;
+        private final String preparedSql;  // null en un Statement simple
+        private Object[] parameters = new Object[8];
+        private int batchSize;
+        private ResultSetHandler openResultSet;
+
+        private StatementHandler(Connection connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(proxy, method, args);
+            }
+            switch (name) {
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "clearParameters":
+                    Arrays.fill(parameters, null);
+                    break;
+                case "getResultSet": {
+                    ResultSet rs = (ResultSet) invokeTarget(target, method, args);
+                    return rs == null || openResultSet == null ? rs : openResultSet.wrap(proxy, rs);
+                }
+                case "getConnection":
+                    return connection;
+                case "close":
+                    closeResultSet();
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InstrumentedStatement[" + target + "]";
+                default:
+                    // setInt(1, ...), setString(2, ...), setNull(3, Types.X)...: parámetros por posición
+                    if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index && index > 0) {
+                        rememberParameter(index, name.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            closeResultSet();
+            String name = method.getName();
+            boolean batch = name.startsWith("executeBatch") || name.equals("executeLargeBatch");
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? normalize(s) : STATEMENT_BATCH;
+            StatementMetrics metrics = metricsFor(sql);
+            FlightEvents.JdbcStatement event = new FlightEvents.JdbcStatement();
+            event.batchSize = batch ? batchSize : 0;
+
+            event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                long nanos = System.nanoTime() - start;
+                event.end();
+                event.error = String.valueOf(e.getMessage());
+                metrics.executions.increment();
+                metrics.errors.increment();
+                metrics.latency.recordNanos(nanos);
+                new Execution(metrics, sql, nanos, nanos >= SLOW_QUERY_NANOS ? describeParameters(batch) : null,
+                        event).finish(-1);
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            event.end();
+            metrics.executions.increment();
+            metrics.latency.recordNanos(nanos);
+            Execution execution = new Execution(metrics, sql, nanos,
+                    nanos >= SLOW_QUERY_NANOS ? describeParameters(batch) : null, event);
+            if (batch) {
+                batchSize = 0;
+            }
+
+            if (result instanceof ResultSet rs) {
+                openResultSet = new ResultSetHandler(execution);
+                return openResultSet.wrap(proxy, rs);
+            }
+            if (result instanceof int[] counts) {
+                execution.finish(Arrays.stream(counts).filter(c -> c > 0).asLongStream().sum());
+            } else if (result instanceof long[] counts) {
+                execution.finish(Arrays.stream(counts).filter(c -> c > 0).sum());
+            } else if (result instanceof Number count) {
+                execution.finish(count.longValue());
+            } else if (Boolean.TRUE.equals(result)) {
+                // execute() con ResultSet: las filas se cuentan si se pide con getResultSet()
+                openResultSet = new ResultSetHandler(execution);
+            } else {
+                execution.finish(target.getUpdateCount());
+            }
+            return result;
+        }
+
+        private void rememberParameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+        }
+
+        private String describeParameters(boolean batch) {
+            if (preparedSql == null) {
+                return batch ? "(lote de " + batchSize + ")" : "(ninguno)";
+            }
+            int last = parameters.length;
+            while (last > 0 && parameters[last - 1] == null) {
+                last--;
+            }
+            if (last == 0 && !batch) {
+                return "(ninguno)";
+            }
+            StringBuilder sb = new StringBuilder(batch ? "(lote de " + batchSize + "; último) [" : "[");
+            for (int i = 0; i < last; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(i + 1).append('=').append(describe(parameters[i]));
+            }
+            return sb.append(']').toString();
+        }
+
+        private void closeResultSet() {
+            if (openResultSet != null) {
+                openResultSet.finish();
+                openResultSet = null;
+            }
+        }
+    }
+
+    /**
+     * Cuenta las filas leídas; al agotarse o cerrarse el ResultSet (o su sentencia) cierra la ejecución.
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final Execution execution;
+        private ResultSet target;
+        private Object statementProxy;
+        private long rows;
+
+        private ResultSetHandler(Execution execution) {
+            this.execution = execution;
+        }
+
+        private ResultSet wrap(Object statementProxy, ResultSet resultSet) {
+            this.target = resultSet;
+            this.statementProxy = statementProxy;
+            return (ResultSet) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, this);
+        }
+
+        private void finish() {
+            execution.finish(rows);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    boolean hasRow = target.next();
+                    if (hasRow) {
+                        rows++;
+                    } else {
+                        finish();
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    finish();
+                    break;
+                case "getStatement":
+                    return statementProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package customOrders;
+
+/**
+ * Interfaz para controladores de módulo que pueden volver a cargar sus datos sin recrear la vista.
+ * La usa ModuleRegistry: los módulos se cargan una sola vez y se refrescan bajo demanda.
+ */
+public interface Refreshable {
+    /**
+     * Vuelve a consultar los datos que muestra el módulo (en segundo plano, sin bloquear el hilo de JavaFX).
+     */
+    void refresh();
+}
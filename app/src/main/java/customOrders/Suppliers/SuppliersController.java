@@ -1,5 +1,7 @@
 package customOrders.Suppliers;
 
+import customOrders.Refreshable;
+import customOrders.util.DbLoader;
 import customOrders.util.Dialogs;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -10,10 +12,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-public class SuppliersController implements Initializable {
+public class SuppliersController implements Initializable, Refreshable {
 
     // --- Instancia del Manager para interactuar con la DB ---
     // Usamos el nombre de clase completo por si hay ambigüedades
@@ -40,6 +43,8 @@ public class SuppliersController implements Initializable {
     // No necesitamos fx:id para guardar/nuevo si solo usamos onAction
 
     private ObservableList<Suppliers> supplierList = FXCollections.observableArrayList();
+    // Carga de la tabla fuera del hilo de JavaFX
+    private final DbLoader<List<Suppliers>> supplierLoader = new DbLoader<>();
     private Suppliers selectedSupplier;
 
     /**
@@ -55,6 +60,7 @@ public class SuppliersController implements Initializable {
         addressColumn.setCellValueFactory(new PropertyValueFactory<>("address")); // Usamos el campo 'address'
 
         supplierTable.setItems(supplierList);
+        supplierLoader.showProgressOn(supplierTable);
 
         // 2. Cargar datos reales de la DB
         loadData();
@@ -72,15 +78,17 @@ public class SuppliersController implements Initializable {
      * Carga los datos de la DB al ObservableList y actualiza la TableView.
      */
     private void loadData() {
-        try {
-            supplierList.setAll(manager.getAllSuppliers());
-            messageLabel.setText("Proveedores cargados. Total: " + supplierList.size());
-        } catch (SQLException e) {
-            Dialogs.showErrorDialog("Error de Conexión o Carga",
-                    "No se pudo cargar la lista de proveedores desde la base de datos.",
-                    "Revise su configuración de PostgreSQL y el método getAllSuppliers().", e);
-            messageLabel.setText("ERROR de DB al cargar proveedores.");
-        }
+        supplierLoader.load(manager::getAllSuppliers,
+                suppliers -> {
+                    supplierList.setAll(suppliers);
+                    messageLabel.setText("Proveedores cargados. Total: " + supplierList.size());
+                },
+                e -> {
+                    Dialogs.showErrorDialog("Error de Conexión o Carga",
+                            "No se pudo cargar la lista de proveedores desde la base de datos.",
+                            "Revise su configuración de PostgreSQL y el método getAllSuppliers().", e);
+                    messageLabel.setText("ERROR de DB al cargar proveedores.");
+                });
     }
 
     /**
@@ -250,4 +258,12 @@ public class SuppliersController implements Initializable {
         // Habilitar/deshabilitar el botón de eliminar basado en si hay algo seleccionado
         deleteButton.setDisable(selectedSupplier == null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelve a cargar la lista de proveedores. Lo invoca el dashboard (ModuleRegistry) al refrescar el módulo.
+     */
+    @Override
+    public void refresh() {
+        loadData();
+    }
+}
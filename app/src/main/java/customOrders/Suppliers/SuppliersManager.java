@@ -1,6 +1,7 @@
 package customOrders.Suppliers;
 
 import customOrders.PostgresConnector; // Importamos el conector real
+import customOrders.util.Log;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -11,6 +12,8 @@ import java.util.List;
 
 public class SuppliersManager {
 
+    private static final Log LOG = Log.get(SuppliersManager.class);
+
     /**
      * Obtiene una lista de todos los proveedores de la base de datos.
      * @return Una lista de objetos Suppliers.
@@ -39,7 +42,7 @@ public class SuppliersManager {
             }
         }
         catch (SQLException e) {
-            System.err.println("Error al obtener proveedores de la DB: " + e.getMessage());
+            LOG.error("Error al obtener proveedores de la DB: {}", e.getMessage());
             throw e;
         }
 
@@ -0,0 +1,672 @@
+package customOrders;
+
+import customOrders.util.Log;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generador de datos sintéticos para pruebas de carga y escalado.
+ *
+ * Llena product_types (categorías raíz con subcategorías), suppliers, products, customers, orders,
+ * products_in_the_order y daily_inventory con proporciones realistas (por defecto 1M de pedidos,
+ * ~5M de líneas y 2 años de inventario diario).
+ *
+ * - Determinista: con la misma {@link Config} (semilla, tamaños y último día) genera exactamente las mismas
+ *   filas, con cualquier paralelismo. Cada bloque de filas usa su propio generador aleatorio derivado de
+ *   (semilla, tabla, bloque) y los IDs se asignan explícitamente.
+ * - Rápido: las filas se envían con COPY, por bloques, desde varias conexiones en paralelo (cada bloque en
+ *   su transacción). Las tablas se cargan por fases para respetar las claves foráneas.
+ * - Coherente: el precio de cada línea es el del producto, el total del pedido es la suma de sus líneas,
+ *   la dirección de envío es la del cliente y el estado depende de la antigüedad del pedido.
+ *
+ * Las tablas deben estar vacías (o usar replaceExisting, que las vacía con TRUNCATE). Si un bloque falla
+ * los ya confirmados se quedan: hay que volver a lanzar la generación con replaceExisting.
+ *
+ * Uso: {@code SyntheticDataGenerator --orders=1000000 --seed=7 --replace} (ver {@link #main}).
+ */
+public final class SyntheticDataGenerator {
+
+    private static final Log LOG = Log.get(SyntheticDataGenerator.class);
+
+    /**
+     * Parámetros de la generación.
+     * @param lastDay Último día del histórico (pedidos e inventario). Forma parte de la semilla.
+     * @param historyDays Días de histórico de pedidos y de inventario diario.
+     * @param averageLinesPerOrder Líneas por pedido (media; entre 1 y 2*media-1, siempre productos distintos).
+     * @param parallelism Conexiones que cargan bloques a la vez.
+     */
+    public record Config(long seed, LocalDate lastDay, int historyDays,
+                         int rootProductTypes, int productTypesPerRoot, int suppliers, int products,
+                         int customers, int orders, int averageLinesPerOrder, int parallelism) {
+
+        public Config {
+            if (rootProductTypes < 1 || rootProductTypes > 99 || productTypesPerRoot < 1 || productTypesPerRoot > 99) {
+                throw new IllegalArgumentException("Los tipos de producto deben estar entre 1 y 99 por nivel.");
+            }
+            if (historyDays < 1 || suppliers < 1 || products < 1 || customers < 1 || orders < 0
+                    || averageLinesPerOrder < 1 || parallelism < 1) {
+                throw new IllegalArgumentException("Tamaños de generación no válidos: " + this);
+            }
+            if ((orders + 1L) * maxLinesPerOrder(averageLinesPerOrder, products) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Demasiadas líneas de pedido para order_item_id (integer).");
+            }
+        }
+
+        /**
+         * Conjunto completo: 1M de pedidos (~5M de líneas), 100k clientes, 20k productos, 2 años de inventario.
+         */
+        public static Config defaults() {
+            return new Config(42L, LocalDate.of(2025, 12, 31), 730, 8, 6, 400, 20_000, 100_000,
+                    1_000_000, 5, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("semilla=%d, último día=%s, días=%d, tipos=%dx%d, proveedores=%d, productos=%d, " +
+                            "clientes=%d, pedidos=%d, líneas/pedido=%d, paralelismo=%d",
+                    seed, lastDay, historyDays, rootProductTypes, productTypesPerRoot, suppliers, products,
+                    customers, orders, averageLinesPerOrder, parallelism);
+        }
+    }
+
+    /**
+     * Filas cargadas en una tabla y tiempo de la fase en la que se cargó.
+     */
+    public record TableLoad(String table, long rows, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-22s %,12d filas  %7.1f s  %,12.0f filas/s",
+                    table, rows, elapsedNanos / 1e9, rowsPerSecond());
+        }
+    }
+
+    // Bloques de filas (unidad de trabajo paralelo y de transacción)
+    private static final int PRODUCT_CHUNK = 5_000;
+    private static final int CUSTOMER_CHUNK = 25_000;
+    private static final int ORDER_CHUNK = 20_000;
+    private static final int INVENTORY_CHUNK_PRODUCTS = 200;
+
+    // Flujos aleatorios independientes (se combinan con la semilla y el índice)
+    private static final long STREAM_PRODUCT = 1;
+    private static final long STREAM_PRICE = 2;
+    private static final long STREAM_CUSTOMER = 3;
+    private static final long STREAM_ADDRESS = 4;
+    private static final long STREAM_ORDERS = 5;
+    private static final long STREAM_INVENTORY = 6;
+    private static final long STREAM_SUPPLIER = 7;
+
+    private static final int MAX_PRICE_CENTS = 50_000;
+    private static final String NULL = "\\N";
+
+    private static final String[] PRODUCT_NOUNS = {"Mesa", "Silla", "Lámpara", "Estante", "Taza", "Cuaderno",
+            "Mochila", "Reloj", "Cojín", "Marco", "Jarrón", "Camiseta", "Gorra", "Llavero", "Agenda", "Vela"};
+    private static final String[] PRODUCT_ADJECTIVES = {"Clásico", "Moderno", "Rústico", "Personalizado",
+            "Premium", "Compacto", "Artesanal", "Infantil", "Deluxe", "Ecológico", "Vintage", "Básico"};
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "Maria", "Jose", "Carmen", "Juan", "Laura",
+            "Carlos", "Sofia", "Miguel", "Lucia", "Pedro", "Elena", "Jorge", "Paula", "Diego", "Marta", "Pablo"};
+    private static final String[] LAST_NAMES = {"Garcia", "Martinez", "Lopez", "Sanchez", "Perez", "Gomez",
+            "Martin", "Jimenez", "Ruiz", "Hernandez", "Diaz", "Moreno", "Alvarez", "Romero", "Torres", "Navarro"};
+    private static final String[] STREETS = {"Mayor", "Real", "del Sol", "de la Paz", "Nueva", "del Mar",
+            "Castilla", "Reforma", "Juárez", "Hidalgo", "Alameda", "del Río"};
+    private static final String[] CITIES = {"Madrid", "Sevilla", "Valencia", "Bilbao", "Zaragoza",
+            "Ciudad de México", "Guadalajara", "Monterrey", "Bogotá", "Lima"};
+
+    private final Config config;
+    private final int maxLinesPerOrder;
+    private final LocalDate firstDay;
+    private final String[] dayStrings;
+
+    public SyntheticDataGenerator(Config config) {
+        this.config = config;
+        this.maxLinesPerOrder = maxLinesPerOrder(config.averageLinesPerOrder(), config.products());
+        this.firstDay = config.lastDay().minusDays(config.historyDays() - 1L);
+        this.dayStrings = new String[config.historyDays()];
+        for (int d = 0; d < dayStrings.length; d++) {
+            dayStrings[d] = firstDay.plusDays(d).toString();
+        }
+    }
+
+    /**
+     * Genera y carga todo el conjunto de datos.
+     * @param replaceExisting Vaciar antes las tablas (TRUNCATE ... RESTART IDENTITY CASCADE). Si es false
+     *                        y ya hay datos se lanza IllegalStateException sin tocar nada.
+     * @return Filas y tiempo por tabla.
+     */
+    public List<TableLoad> generate(boolean replaceExisting) throws SQLException {
+        LOG.info("Generando datos sintéticos ({})...", config);
+        long start = System.nanoTime();
+
+        try (Connection conn = PostgresConnector.openDedicatedConnection()) {
+            if (replaceExisting) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("TRUNCATE products_in_the_order, daily_inventory, orders, customers, products, " +
+                            "suppliers, product_types RESTART IDENTITY CASCADE");
+                }
+            } else if (hasData(conn)) {
+                throw new IllegalStateException("Las tablas ya tienen datos: usa replaceExisting para vaciarlas antes.");
+            }
+        }
+
+        List<TableLoad> loads = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(config.parallelism(), workerFactory());
+        try {
+            // Fase 1: catálogos pequeños (sin dependencias)
+            long phase = System.nanoTime();
+            long types = runChunks(pool, List.of(this::loadProductTypes));
+            long suppliers = runChunks(pool, List.of(this::loadSuppliers));
+            long elapsed = System.nanoTime() - phase;
+            loads.add(new TableLoad("product_types", types, elapsed));
+            loads.add(new TableLoad("suppliers", suppliers, elapsed));
+
+            // Fase 2: productos y clientes
+            phase = System.nanoTime();
+            List<Callable<Long>> productChunks = new ArrayList<>();
+            for (int from = 1; from <= config.products(); from += PRODUCT_CHUNK) {
+                int first = from;
+                productChunks.add(() -> loadProducts(first, Math.min(config.products(), first + PRODUCT_CHUNK - 1)));
+            }
+            List<Callable<Long>> customerChunks = new ArrayList<>();
+            for (int from = 1; from <= config.customers(); from += CUSTOMER_CHUNK) {
+                int first = from;
+                customerChunks.add(() -> loadCustomers(first, Math.min(config.customers(), first + CUSTOMER_CHUNK - 1)));
+            }
+            List<Future<Long>> productFutures = submitAll(pool, productChunks);
+            List<Future<Long>> customerFutures = submitAll(pool, customerChunks);
+            long products = sum(productFutures);
+            long customers = sum(customerFutures);
+            elapsed = System.nanoTime() - phase;
+            loads.add(new TableLoad("products", products, elapsed));
+            loads.add(new TableLoad("customers", customers, elapsed));
+
+            // Fase 3: pedidos con sus líneas e inventario diario
+            phase = System.nanoTime();
+            AtomicInteger orderLines = new AtomicInteger();
+            List<Callable<Long>> orderChunks = new ArrayList<>();
+            for (int from = 1; from <= config.orders(); from += ORDER_CHUNK) {
+                int first = from;
+                orderChunks.add(() -> loadOrders(first, Math.min(config.orders(), first + ORDER_CHUNK - 1), orderLines));
+            }
+            List<Callable<Long>> inventoryChunks = new ArrayList<>();
+            for (int from = 1; from <= config.products(); from += INVENTORY_CHUNK_PRODUCTS) {
+                int first = from;
+                inventoryChunks.add(() -> loadInventory(first, Math.min(config.products(), first + INVENTORY_CHUNK_PRODUCTS - 1)));
+            }
+            List<Future<Long>> orderFutures = submitAll(pool, orderChunks);
+            List<Future<Long>> inventoryFutures = submitAll(pool, inventoryChunks);
+            long orders = sum(orderFutures);
+            long inventory = sum(inventoryFutures);
+            elapsed = System.nanoTime() - phase;
+            loads.add(new TableLoad("orders", orders, elapsed));
+            loads.add(new TableLoad("products_in_the_order", orderLines.get(), elapsed));
+            loads.add(new TableLoad("daily_inventory", inventory, elapsed));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        finish();
+        LOG.info("Generación terminada en {} ms.", (System.nanoTime() - start) / 1_000_000);
+        return loads;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Carga de cada tabla (un bloque por llamada, en su propia conexión y transacción)
+    // ---------------------------------------------------------------------------------------------
+
+    private long loadProductTypes() throws SQLException {
+        StringBuilder rows = new StringBuilder();
+        for (int root = 1; root <= config.rootProductTypes(); root++) {
+            rows.append(rootTypeCode(root)).append('\t').append(NULL).append('\t')
+                    .append("Categoría ").append(root).append('\n');
+        }
+        for (int root = 1; root <= config.rootProductTypes(); root++) {
+            for (int child = 1; child <= config.productTypesPerRoot(); child++) {
+                rows.append(childTypeCode(root, child)).append('\t').append(rootTypeCode(root)).append('\t')
+                        .append("Subcategoría ").append(root).append('.').append(child).append('\n');
+            }
+        }
+        return copyInTransaction("product_types (product_type_code, parent_product_type_code, product_type_name)", rows);
+    }
+
+    private long loadSuppliers() throws SQLException {
+        StringBuilder rows = new StringBuilder();
+        for (int id = 1; id <= config.suppliers(); id++) {
+            SplittableRandom random = randomFor(STREAM_SUPPLIER, id);
+            String lastName = pick(random, LAST_NAMES);
+            rows.append(id).append('\t')
+                    .append("Distribuciones ").append(lastName).append(' ').append(id).append('\t')
+                    .append(pick(random, FIRST_NAMES)).append(' ').append(lastName).append('\t')
+                    .append(phone(random)).append('\t')
+                    .append("Polígono ").append(pick(random, STREETS)).append(' ').append(1 + random.nextInt(200))
+                    .append(", ").append(pick(random, CITIES)).append('\t')
+                    .append("ventas").append(id).append("@proveedor.example.com").append('\n');
+        }
+        return copyInTransaction("suppliers (supplier_id, supplier_name, contact_name, phone, address, email)", rows);
+    }
+
+    private long loadProducts(int firstId, int lastId) throws SQLException {
+        StringBuilder rows = new StringBuilder((lastId - firstId + 1) * 200);
+        for (int id = firstId; id <= lastId; id++) {
+            ProductSpec spec = productSpec(id);
+            rows.append(id).append('\t')
+                    .append(spec.typeCode()).append('\t')
+                    .append(spec.supplierId()).append('\t')
+                    .append(spec.name()).append('\t');
+            appendCents(rows, priceCents(id)).append('\t')
+                    .append(spec.name()).append(": producto generado para pruebas de carga.").append('\t')
+                    .append(spec.reorderLevel()).append('\t')
+                    .append(spec.reorderQuantity()).append('\t')
+                    .append(NULL).append('\t');
+            appendCents(rows, spec.weightGrams() / 10).append('\t')
+                    .append(spec.dateAdded()).append('\t')
+                    .append(spec.active() ? 't' : 'f').append('\t')
+                    .append(spec.quantity()).append('\t')
+                    .append(NULL).append('\n');
+        }
+        return copyInTransaction("products (product_id, product_type_code, supplier_id, product_name, unit_price, " +
+                "product_description, reorder_level, reorder_quantity, other_details, weight_kg, date_added, " +
+                "is_active, quantity, image_url)", rows);
+    }
+
+    private long loadCustomers(int firstId, int lastId) throws SQLException {
+        StringBuilder rows = new StringBuilder((lastId - firstId + 1) * 150);
+        for (int id = firstId; id <= lastId; id++) {
+            SplittableRandom random = randomFor(STREAM_CUSTOMER, id);
+            String firstName = pick(random, FIRST_NAMES);
+            String lastName = pick(random, LAST_NAMES);
+            rows.append(id).append('\t')
+                    .append(firstName).append('\t')
+                    .append(lastName).append('\t')
+                    .append(firstName.toLowerCase(Locale.ROOT)).append('.').append(lastName.toLowerCase(Locale.ROOT))
+                    .append('.').append(id).append("@example.com").append('\t')
+                    .append(phone(random)).append('\t')
+                    .append(config.lastDay().minusDays(random.nextInt(4 * 365))).append('\t')
+                    .append(customerAddress(id)).append('\n');
+        }
+        return copyInTransaction("customers (customer_id, first_name, last_name, email, phone_number, date_joined, address)", rows);
+    }
+
+    /**
+     * Un bloque de pedidos y sus líneas, en la misma transacción (primero los pedidos: las líneas los referencian).
+     */
+    private long loadOrders(int firstId, int lastId, AtomicInteger lineCounter) throws SQLException {
+        SplittableRandom random = randomFor(STREAM_ORDERS, firstId);
+        int count = lastId - firstId + 1;
+        StringBuilder orders = new StringBuilder(count * 80);
+        StringBuilder lines = new StringBuilder(count * config.averageLinesPerOrder() * 30);
+        int[] orderProducts = new int[maxLinesPerOrder];
+        int lineCount = 0;
+
+        for (int orderId = firstId; orderId <= lastId; orderId++) {
+            int lineTotal = 1 + random.nextInt(maxLinesPerOrder);
+            long totalCents = 0;
+            for (int line = 0; line < lineTotal; line++) {
+                int productId;
+                do {
+                    productId = skewedId(random, config.products());
+                } while (contains(orderProducts, line, productId));
+                orderProducts[line] = productId;
+
+                int quantity = 1 + (random.nextInt(10) < 7 ? 0 : random.nextInt(5));
+                int cents = priceCents(productId);
+                totalCents += (long) cents * quantity;
+                lines.append(orderId * maxLinesPerOrder + line).append('\t')
+                        .append(orderId).append('\t')
+                        .append(productId).append('\t')
+                        .append(quantity).append('\t');
+                appendCents(lines, cents).append('\n');
+            }
+            lineCount += lineTotal;
+
+            // Los IDs siguen el orden cronológico; el volumen de pedidos crece con el tiempo
+            int day = (int) (config.historyDays() * Math.sqrt((orderId - 0.5) / config.orders()));
+            int customerId = skewedId(random, config.customers());
+            orders.append(orderId).append('\t')
+                    .append(customerId).append('\t')
+                    .append(dayStrings[day]).append('\t')
+                    .append(orderStatus(random, config.historyDays() - 1 - day)).append('\t');
+            appendCents(orders, totalCents).append('\t')
+                    .append(customerAddress(customerId)).append('\n');
+        }
+
+        try (Connection conn = openLoadConnection()) {
+            try {
+                copy(conn, "orders (order_id, customer_id, date_of_order, order_status, total_amount, shipping_address)", orders);
+                copy(conn, "products_in_the_order (order_item_id, order_id, product_id, product_quantity, item_unit_price)", lines);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        lineCounter.addAndGet(lineCount);
+        return count;
+    }
+
+    /**
+     * Inventario diario de un rango de productos: un paseo aleatorio por producto (ventas diarias y
+     * reposición de reorder_quantity al bajar del nivel de pedido), siempre con nivel >= 0.
+     */
+    private long loadInventory(int firstProductId, int lastProductId) throws SQLException {
+        int days = config.historyDays();
+        StringBuilder rows = new StringBuilder((lastProductId - firstProductId + 1) * days * 24);
+        for (int productId = firstProductId; productId <= lastProductId; productId++) {
+            ProductSpec spec = productSpec(productId);
+            SplittableRandom random = randomFor(STREAM_INVENTORY, productId);
+            int level = spec.reorderLevel() + spec.reorderQuantity();
+            for (int day = 0; day < days; day++) {
+                rows.append(dayStrings[day]).append('\t').append(productId).append('\t').append(level).append('\n');
+                level = Math.max(0, level - random.nextInt(spec.dailyDemand() + 1));
+                if (level <= spec.reorderLevel()) {
+                    level += spec.reorderQuantity();
+                }
+            }
+        }
+        return copyInTransaction("daily_inventory (date_of_inventory, product_id, level)", rows);
+    }
+
+    /**
+     * Ajusta las secuencias a los IDs generados, actualiza estadísticas y avisa a las estaciones
+     * conectadas con un RESYNC por tabla (las notificaciones por fila se suprimieron durante la carga).
+     */
+    private void finish() throws SQLException {
+        try (Connection conn = PostgresConnector.openDedicatedConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT setval('products_product_id_seq', " + config.products() + ")");
+            stmt.execute("SELECT setval('suppliers_supplier_id_seq', " + config.suppliers() + ")");
+            stmt.execute("SELECT setval('customers_customer_id_seq', " + config.customers() + ")");
+            if (config.orders() > 0) {
+                stmt.execute("SELECT setval('orders_order_id_seq', " + config.orders() + ")");
+                stmt.execute("SELECT setval('products_in_the_order_order_item_id_seq', " +
+                        "(SELECT max(order_item_id) FROM products_in_the_order))");
+            }
+            stmt.execute("ANALYZE product_types, suppliers, products, customers, orders, products_in_the_order, daily_inventory");
+
+            conn.setAutoCommit(false);
+            for (ChangeNotifications.Table table : ChangeNotifications.Table.values()) {
+                ChangeNotifications.publishResync(conn, table);
+            }
+            conn.commit();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Valores derivados (funciones puras de la semilla: se pueden recalcular desde cualquier bloque)
+    // ---------------------------------------------------------------------------------------------
+
+    private record ProductSpec(String name, String typeCode, int supplierId, int reorderLevel, int reorderQuantity,
+                               int dailyDemand, int weightGrams, LocalDate dateAdded, boolean active, int quantity) {
+    }
+
+    private ProductSpec productSpec(int productId) {
+        SplittableRandom random = randomFor(STREAM_PRODUCT, productId);
+        String name = pick(random, PRODUCT_NOUNS) + " " + pick(random, PRODUCT_ADJECTIVES) + " " + productId;
+        String typeCode = childTypeCode(1 + random.nextInt(config.rootProductTypes()),
+                1 + random.nextInt(config.productTypesPerRoot()));
+        int dailyDemand = 1 + random.nextInt(20);
+        int reorderQuantity = dailyDemand * (7 + random.nextInt(24));
+        int reorderLevel = dailyDemand * (2 + random.nextInt(6));
+        return new ProductSpec(name, typeCode, 1 + random.nextInt(config.suppliers()), reorderLevel, reorderQuantity,
+                dailyDemand, 50 + random.nextInt(20_000),
+                firstDay.minusDays(random.nextInt(365)), random.nextInt(20) != 0,
+                reorderLevel + random.nextInt(reorderQuantity + 1));
+    }
+
+    /**
+     * Precio en céntimos (> 0): la mayoría de productos son baratos y unos pocos caros.
+     */
+    private int priceCents(int productId) {
+        double u = unitInterval(mix(STREAM_PRICE, productId));
+        return 100 + (int) ((MAX_PRICE_CENTS - 100) * u * u);
+    }
+
+    private String customerAddress(int customerId) {
+        SplittableRandom random = randomFor(STREAM_ADDRESS, customerId);
+        return "Calle " + pick(random, STREETS) + " " + (1 + random.nextInt(300)) + ", " + pick(random, CITIES);
+    }
+
+    /**
+     * Estado según la antigüedad (en días): lo reciente sigue en curso, lo antiguo ya se entregó.
+     */
+    private static String orderStatus(SplittableRandom random, int ageDays) {
+        if (random.nextInt(100) < 3) {
+            return "Cancelado";
+        }
+        if (ageDays <= 1) {
+            return random.nextBoolean() ? "Pendiente" : "Procesando";
+        }
+        if (ageDays <= 5) {
+            return random.nextBoolean() ? "Procesando" : "Enviado";
+        }
+        if (ageDays <= 12) {
+            return random.nextBoolean() ? "Enviado" : "Entregado";
+        }
+        return "Entregado";
+    }
+
+    /**
+     * ID en [1, max] con sesgo hacia los primeros (productos populares, clientes recurrentes).
+     */
+    private static int skewedId(SplittableRandom random, int max) {
+        double u = random.nextDouble();
+        return 1 + (int) (max * u * u);
+    }
+
+    private static int maxLinesPerOrder(int averageLinesPerOrder, int products) {
+        return Math.max(1, Math.min(2 * averageLinesPerOrder - 1, products));
+    }
+
+    private static String rootTypeCode(int root) {
+        return String.format("R%02d", root);
+    }
+
+    private static String childTypeCode(int root, int child) {
+        return String.format("R%02d-%02d", root, child);
+    }
+
+    private static String phone(SplittableRandom random) {
+        return "55" + (10_000_000 + random.nextInt(90_000_000));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder appendCents(StringBuilder sb, long cents) {
+        long remainder = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        return sb.append(remainder);
+    }
+
+    private SplittableRandom randomFor(long stream, long index) {
+        return new SplittableRandom(mix(stream, index));
+    }
+
+    private long mix(long stream, long index) {
+        return mix64(config.seed() + stream * 0x9E3779B97F4A7C15L + mix64(index));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static double unitInterval(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // COPY y ejecución en paralelo
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Conexión propia (fuera del pool de la aplicación) preparada para carga masiva: sin esperar al
+     * fsync en cada COMMIT y sin notificaciones por fila. La transacción queda abierta.
+     */
+    private static Connection openLoadConnection() throws SQLException {
+        Connection conn = PostgresConnector.openDedicatedConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET synchronous_commit = off");
+            conn.setAutoCommit(false);
+            ChangeNotifications.suppressRowNotifications(conn);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private static long copyInTransaction(String tableAndColumns, StringBuilder rows) throws SQLException {
+        try (Connection conn = openLoadConnection()) {
+            try {
+                long copied = copy(conn, tableAndColumns, rows);
+                conn.commit();
+                return copied;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * COPY en formato texto (tabuladores, \N para NULL). Los valores generados no contienen tabuladores,
+     * saltos de línea ni barras invertidas, así que no hace falta escaparlos.
+     */
+    private static long copy(Connection conn, String tableAndColumns, StringBuilder rows) throws SQLException {
+        CopyManager copyApi = conn.unwrap(PGConnection.class).getCopyAPI();
+        byte[] data = rows.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            return copyApi.copyIn("COPY " + tableAndColumns + " FROM STDIN", new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new SQLException("Fallo al enviar el COPY de " + tableAndColumns, e);
+        }
+    }
+
+    private static long runChunks(ExecutorService pool, List<Callable<Long>> chunks) throws SQLException {
+        return sum(submitAll(pool, chunks));
+    }
+
+    private static List<Future<Long>> submitAll(ExecutorService pool, List<Callable<Long>> chunks) {
+        List<Future<Long>> futures = new ArrayList<>(chunks.size());
+        for (Callable<Long> chunk : chunks) {
+            futures.add(pool.submit(chunk));
+        }
+        return futures;
+    }
+
+    private static long sum(List<Future<Long>> futures) throws SQLException {
+        long total = 0;
+        for (Future<Long> future : futures) {
+            try {
+                total += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Generación interrumpida.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException("Fallo en un bloque de la generación.", e.getCause());
+            }
+        }
+        return total;
+    }
+
+    private static ThreadFactory workerFactory() {
+        return Thread.ofPlatform().name("datagen-", 0).factory();
+    }
+
+    private static boolean hasData(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM products) OR EXISTS (SELECT 1 FROM customers) " +
+                     "OR EXISTS (SELECT 1 FROM orders) OR EXISTS (SELECT 1 FROM product_types)")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Opciones {@code --clave=valor} sobre {@link Config#defaults()}: seed, lastDay (yyyy-MM-dd), days,
+     * rootTypes, typesPerRoot, suppliers, products, customers, orders, linesPerOrder, parallelism;
+     * y {@code --replace} para vaciar antes las tablas.
+     * Conexión: propiedades customOrders.db.url / .user / .password (ver PostgresConnector).
+     */
+    public static void main(String[] args) throws Exception {
+        Config d = Config.defaults();
+        long seed = d.seed();
+        LocalDate lastDay = d.lastDay();
+        int days = d.historyDays(), rootTypes = d.rootProductTypes(), typesPerRoot = d.productTypesPerRoot();
+        int suppliers = d.suppliers(), products = d.products(), customers = d.customers(), orders = d.orders();
+        int linesPerOrder = d.averageLinesPerOrder(), parallelism = d.parallelism();
+        boolean replace = false;
+
+        for (String arg : args) {
+            if (arg.equals("--replace")) {
+                replace = true;
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Opción no reconocida: " + arg);
+            }
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "seed" -> seed = Long.parseLong(value);
+                case "lastDay" -> lastDay = LocalDate.parse(value);
+                case "days" -> days = Integer.parseInt(value);
+                case "rootTypes" -> rootTypes = Integer.parseInt(value);
+                case "typesPerRoot" -> typesPerRoot = Integer.parseInt(value);
+                case "suppliers" -> suppliers = Integer.parseInt(value);
+                case "products" -> products = Integer.parseInt(value);
+                case "customers" -> customers = Integer.parseInt(value);
+                case "orders" -> orders = Integer.parseInt(value);
+                case "linesPerOrder" -> linesPerOrder = Integer.parseInt(value);
+                case "parallelism" -> parallelism = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Opción no reconocida: " + arg);
+            }
+        }
+
+        Config config = new Config(seed, lastDay, days, rootTypes, typesPerRoot, suppliers, products,
+                customers, orders, linesPerOrder, parallelism);
+        List<TableLoad> loads = new SyntheticDataGenerator(config).generate(replace);
+        System.out.println("\n--- Filas generadas ---");
+        loads.forEach(System.out::println);
+    }
+}
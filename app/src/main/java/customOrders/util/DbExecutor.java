@@ -0,0 +1,102 @@
+package customOrders.util;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Ejecutor compartido para el acceso a datos (JDBC) fuera del hilo de JavaFX.
+ * Cada tarea corre en su propio hilo virtual; el pool de conexiones de PostgresConnector
+ * es quien limita la concurrencia real contra la base de datos.
+ *
+ * Los resultados se devuelven al hilo de JavaFX (Platform.runLater) mediante {@link #FX_THREAD}
+ * o a través de los manejadores de un {@link Task}.
+ */
+public final class DbExecutor {
+
+    /**
+     * Llamada a la base de datos que puede lanzar excepciones chequeadas (p.ej. SQLException).
+     */
+    @FunctionalInterface
+    public interface DbCall<T> {
+        T call() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("db-worker-", 0).factory());
+
+    /**
+     * Executor que ejecuta en el hilo de JavaFX (directamente si ya estamos en él).
+     */
+    public static final Executor FX_THREAD = command -> {
+        if (Platform.isFxApplicationThread()) {
+            command.run();
+        } else {
+            Platform.runLater(command);
+        }
+    };
+
+    private DbExecutor() {
+    }
+
+    /**
+     * Ejecuta la llamada en segundo plano y devuelve un CompletableFuture.
+     * Las excepciones chequeadas llegan envueltas en CompletionException.
+     * Para tocar la UI con el resultado, usar {@code thenAcceptAsync(..., DbExecutor.FX_THREAD)}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(DbCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Ejecuta la llamada en segundo plano como un Task de JavaFX.
+     * onSuccess y onError se invocan en el hilo de JavaFX; si el Task se cancela, no se invoca ninguno.
+     */
+    public static <T> Task<T> submit(DbCall<T> call, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        Task<T> task = task(call);
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> onError.accept(task.getException()));
+        execute(task);
+        return task;
+    }
+
+    /**
+     * Envuelve la llamada en un Task sin lanzarlo (para configurar manejadores antes de {@link #execute}).
+     */
+    public static <T> Task<T> task(DbCall<T> call) {
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return call.call();
+            }
+        };
+    }
+
+    /**
+     * Lanza un Task en el ejecutor de acceso a datos.
+     */
+    public static void execute(Task<?> task) {
+        EXECUTOR.execute(task);
+    }
+
+    /**
+     * Devuelve la causa real de un error de CompletableFuture (quita CompletionException).
+     */
+    public static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
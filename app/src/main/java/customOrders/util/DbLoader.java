@@ -0,0 +1,84 @@
+package customOrders.util;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+import java.util.function.Consumer;
+
+/**
+ * Carga de datos de una pantalla en segundo plano (vía {@link DbExecutor}).
+ * Si se pide una carga nueva mientras otra sigue en curso, la anterior se cancela
+ * y su resultado se descarta (p.ej. al cambiar varias veces de fecha en un DatePicker).
+ *
+ * Debe usarse desde el hilo de JavaFX.
+ */
+public class DbLoader<T> {
+
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
+    private Task<T> current;
+
+    /**
+     * Lanza una carga, cancelando la anterior si sigue en curso.
+     * @param call Consulta a ejecutar fuera del hilo de JavaFX.
+     * @param onSuccess Se ejecuta en el hilo de JavaFX con el resultado (solo si es la carga vigente).
+     * @param onError Se ejecuta en el hilo de JavaFX con el error (solo si es la carga vigente).
+     */
+    public void load(DbExecutor.DbCall<T> call, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        cancel();
+        loading.set(true);
+
+        Task<T> task = DbExecutor.task(call);
+        current = task;
+        // Los manejadores ignoran resultados de cargas ya sustituidas por otra más reciente
+        task.setOnSucceeded(e -> {
+            if (task != current) return;
+            current = null;
+            loading.set(false);
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            if (task != current) return;
+            current = null;
+            loading.set(false);
+            onError.accept(task.getException());
+        });
+        DbExecutor.execute(task);
+    }
+
+    /**
+     * Cancela la carga en curso (su resultado se descarta).
+     */
+    public void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+        loading.set(false);
+    }
+
+    public boolean isLoading() {
+        return loading.get();
+    }
+
+    public ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    /**
+     * Muestra un indicador de progreso en la tabla (placeholder) y el cursor de espera mientras se carga.
+     */
+    public void showProgressOn(TableView<?> table) {
+        Node originalPlaceholder = table.getPlaceholder();
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(48, 48);
+        loading.addListener((obs, wasLoading, isLoading) -> {
+            table.setPlaceholder(isLoading ? progress : originalPlaceholder);
+            table.setCursor(isLoading ? Cursor.WAIT : Cursor.DEFAULT);
+        });
+    }
+}
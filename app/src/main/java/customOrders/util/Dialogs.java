@@ -38,7 +38,7 @@ public class Dialogs {
      * @param content Mensaje de contenido.
      * @param ex La excepción cuyo stack trace se mostrará en detalle.
      */
-    public static void showErrorDialog(String title, String header, String content, Exception ex) {
+    public static void showErrorDialog(String title, String header, String content, Throwable ex) {
         Alert alert = new Alert(AlertType.ERROR);
         alert.setTitle(title);
         alert.setHeaderText(header);
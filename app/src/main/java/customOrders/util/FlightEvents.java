@@ -0,0 +1,142 @@
+package customOrders.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos propios de JDK Flight Recorder, para ver en una grabación dónde se va el tiempo de la aplicación
+ * junto con los eventos del JDK (GC, bloqueos, E/S...). Fuera de una grabación no cuestan casi nada:
+ * commit() no hace nada si el evento no está activo.
+ *
+ * Grabación continua (se queda con la última hora y la vuelca al salir):
+ * {@code -XX:StartFlightRecording:settings=default,maxage=1h,dumponexit=true,filename=customOrders.jfr}
+ * y se abre con JDK Mission Control o {@code jfr print --events customOrders.* customOrders.jfr}.
+ * Las sentencias JDBC solo se registran a partir de 10 ms (con su pila, para saber quién las lanzó); el umbral
+ * se cambia en las mismas opciones, p.ej. {@code +customOrders.JdbcStatement#threshold=0ms} para verlas todas.
+ *
+ * Los eventos JDBC los emite {@code QueryMetrics}, así que requieren customOrders.db.instrumentation=true (por defecto).
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "Custom Orders";
+
+    private FlightEvents() { }
+
+    /**
+     * Un intento de pedido completo (CreateOrderManager.createOrderAndUpdateStock), incluida la devolución de la conexión.
+     */
+    @Name("customOrders.Checkout")
+    @Label("Checkout de Pedido")
+    @Category({CATEGORY, "Pedidos"})
+    @StackTrace(false)
+    public static final class Checkout extends Event {
+        @Label("Cliente")
+        public int customerId;
+
+        @Label("Líneas")
+        @Description("Líneas del carrito")
+        public int lineCount;
+
+        @Label("Productos Distintos")
+        public int distinctProducts;
+
+        @Label("Importe Total")
+        public double totalAmount;
+
+        @Label("Reserva de Stock")
+        @Description("Duración del UPDATE condicional del stock (lote)")
+        @Timespan(Timespan.NANOSECONDS)
+        public long stockUpdateDuration;
+
+        @Label("Resultado")
+        @Description("creado, sin stock o error")
+        public String outcome;
+
+        @Label("ID de Pedido")
+        @Description("-1 si no se creó")
+        public int orderId;
+    }
+
+    /**
+     * Obtención de un módulo de un dashboard (ModuleRegistry): carga del FXML o reutilización.
+     */
+    @Name("customOrders.ModuleLoad")
+    @Label("Carga de Módulo")
+    @Category({CATEGORY, "Interfaz"})
+    @StackTrace(false)
+    public static final class ModuleLoad extends Event {
+        @Label("FXML")
+        public String fxmlPath;
+
+        @Label("Controlador")
+        public String controller;
+
+        @Label("Reutilizado")
+        @Description("El módulo ya estaba cargado (no se parseó el FXML)")
+        public boolean cached;
+
+        @Label("Precarga")
+        @Description("Cargado en la precarga tras el login, no al navegar")
+        public boolean warmUp;
+
+        @Label("Correcto")
+        public boolean success;
+    }
+
+    /**
+     * Decodificación de una imagen de producto (ImageUtil.decode, en el pool de ImageCache).
+     */
+    @Name("customOrders.ImageDecode")
+    @Label("Decodificación de Imagen")
+    @Category({CATEGORY, "Interfaz"})
+    @StackTrace(false)
+    public static final class ImageDecode extends Event {
+        @Label("Imagen")
+        public String imageUrl;
+
+        @Label("Ancho")
+        public int width;
+
+        @Label("Alto")
+        public int height;
+
+        @Label("Origen")
+        @Description("miniatura, miniatura generada, original o no encontrada")
+        public String source;
+
+        @Label("Correcto")
+        public boolean success;
+    }
+
+    /**
+     * Un round-trip JDBC (execute*, executeBatch) de una conexión del pool. La duración es la de la llamada;
+     * las filas de una consulta se cuentan al terminar de leer su ResultSet.
+     * Por defecto solo las de 10 ms o más: registrar cada round-trip con su pila encarecería la grabación continua.
+     */
+    @Name("customOrders.JdbcStatement")
+    @Label("Sentencia JDBC")
+    @Category({CATEGORY, "Base de Datos"})
+    @Threshold("10 ms")
+    public static final class JdbcStatement extends Event {
+        @Label("SQL")
+        public String sql;
+
+        @Label("Filas")
+        @Description("Filas leídas o afectadas (-1 si no se conocen)")
+        public long rows;
+
+        @Label("Tamaño del Lote")
+        @Description("Sentencias del lote (0 si no es un lote)")
+        public int batchSize;
+
+        @Label("Error")
+        @Description("Mensaje de la excepción, o null si fue bien")
+        public String error;
+    }
+}
@@ -0,0 +1,259 @@
+package customOrders.util;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché de imágenes decodificadas compartida por toda la aplicación.
+ *
+ * - Clave: (URL, tamaño de destino). La imagen se decodifica ya reducida a ese tamaño,
+ *   así una miniatura de 40 px no retiene los píxeles de la foto original.
+ * - Presupuesto en bytes (ancho x alto x 4 de cada imagen) con expulsión LRU.
+ * - La decodificación se hace en un pool de hilos en segundo plano; varias peticiones de la misma
+ *   clave comparten la misma decodificación.
+ * - {@link #loadInto} muestra un placeholder en el ImageView hasta que la imagen está lista.
+ */
+public class ImageCache {
+
+    private static final Log LOG = Log.get(ImageCache.class);
+
+    // Presupuesto por defecto: 64 MB de píxeles (se puede cambiar con -DcustomOrders.imageCache.maxBytes=...)
+    private static final long MAX_BYTES = Long.getLong("customOrders.imageCache.maxBytes", 64L * 1024 * 1024);
+    private static final int MAX_FAILED_KEYS = 10_000;
+    private static final int DECODER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    // Clave guardada en las propiedades del ImageView para descartar resultados de peticiones anteriores
+    private static final String PENDING_KEY_PROPERTY = "customOrders.imageCache.pendingKey";
+
+    /**
+     * Clave de la caché. Un tamaño 0 x 0 significa "tamaño original".
+     */
+    public record Key(String url, int width, int height) { }
+
+    /**
+     * Métricas de la caché.
+     */
+    public record CacheStats(long hits, long misses, long evictions, long errorPlaceholders, int entries, long bytes, long maxBytes) {
+        @Override
+        public String toString() {
+            return String.format("Caché de Imágenes: aciertos=%d, fallos=%d, expulsiones=%d, placeholders de error=%d, entradas=%d, memoria=%.1f/%.1f MB",
+                    hits, misses, evictions, errorPlaceholders, entries, bytes / (1024.0 * 1024.0), maxBytes / (1024.0 * 1024.0));
+        }
+    }
+
+    private static final ImageCache INSTANCE = new ImageCache(MAX_BYTES);
+
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<Key, Image> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+    private final Map<Key, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    // Claves que no se pudieron cargar: no se reintentan hasta invalidate(url)
+    private final Set<Key> failedKeys = ConcurrentHashMap.newKeySet();
+    private final ExecutorService decoders;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder errorPlaceholders = new LongAdder();
+
+    ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.decoders = Executors.newFixedThreadPool(DECODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "image-decoder-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1); // La UI tiene prioridad sobre las miniaturas
+            return thread;
+        });
+    }
+
+    /**
+     * Devuelve la imagen si ya está decodificada en caché (sin bloquear).
+     */
+    public Image getIfPresent(String url, int width, int height) {
+        Key key = new Key(url, width, height);
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la imagen de la caché o la decodifica en segundo plano.
+     * El futuro falla si la imagen no se puede cargar.
+     */
+    public CompletableFuture<Image> get(String url, int width, int height) {
+        Key key = new Key(url, width, height);
+        Image cached = getIfPresent(url, width, height);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Image> future = new CompletableFuture<>();
+        CompletableFuture<Image> pending = inFlight.putIfAbsent(key, future);
+        if (pending != null) {
+            return pending; // Ya se está decodificando: se comparte el resultado
+        }
+
+        misses.increment();
+        decoders.execute(() -> {
+            try {
+                Image image = decode(key);
+                put(key, image);
+                inFlight.remove(key);
+                future.complete(image);
+            } catch (RuntimeException e) {
+                LOG.error("Error al cargar la imagen: {}", e.getMessage());
+                if (failedKeys.size() >= MAX_FAILED_KEYS) {
+                    failedKeys.clear();
+                }
+                failedKeys.add(key);
+                inFlight.remove(key);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Muestra en el ImageView la imagen de {@code url} al tamaño indicado.
+     * Si no está en caché, pone el placeholder y la decodifica en segundo plano; si mientras tanto el
+     * ImageView se reutiliza para otra imagen (celdas recicladas), el resultado antiguo se descarta.
+     * Debe llamarse desde el hilo de JavaFX.
+     */
+    public void loadInto(ImageView view, String url, int width, int height) {
+        if (url == null || url.trim().isEmpty()) {
+            view.getProperties().remove(PENDING_KEY_PROPERTY);
+            view.setImage(ImageUtil.placeholder(width, height));
+            return;
+        }
+
+        Key key = new Key(url.trim(), width, height);
+        if (failedKeys.contains(key)) {
+            // Ya falló antes: placeholder de error directamente, sin volver a intentar la carga
+            errorPlaceholders.increment();
+            view.getProperties().remove(PENDING_KEY_PROPERTY);
+            view.setImage(ImageUtil.errorPlaceholder(width, height));
+            return;
+        }
+        Image cached = getIfPresent(key.url(), width, height);
+        if (cached != null) {
+            hits.increment();
+            view.getProperties().remove(PENDING_KEY_PROPERTY);
+            view.setImage(cached);
+            return;
+        }
+
+        view.getProperties().put(PENDING_KEY_PROPERTY, key);
+        view.setImage(ImageUtil.placeholder(width, height));
+        get(key.url(), width, height).whenComplete((image, error) -> Platform.runLater(() -> {
+            if (!key.equals(view.getProperties().get(PENDING_KEY_PROPERTY))) {
+                return; // El ImageView ya muestra otra cosa
+            }
+            view.getProperties().remove(PENDING_KEY_PROPERTY);
+            if (image != null) {
+                view.setImage(image);
+            } else {
+                errorPlaceholders.increment();
+                view.setImage(ImageUtil.errorPlaceholder(width, height));
+            }
+        }));
+    }
+
+    /**
+     * Vacía el ImageView y descarta su carga pendiente (si la hay).
+     */
+    public void clear(ImageView view) {
+        view.getProperties().remove(PENDING_KEY_PROPERTY);
+        view.setImage(null);
+    }
+
+    /**
+     * Descarta todas las entradas de una URL (p.ej. al cambiar la imagen de un producto).
+     */
+    public void invalidate(String url) {
+        failedKeys.removeIf(key -> key.url().equals(url));
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Key, Image>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Image> entry = it.next();
+                if (entry.getKey().url().equals(url)) {
+                    currentBytes -= sizeOf(entry.getValue());
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), errorPlaceholders.sum(), entries.size(), currentBytes, maxBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Image decode(Key key) {
+        Image image = ImageUtil.decode(key.url(), key.width(), key.height());
+        if (image == null || image.isError()) {
+            throw new IllegalStateException("No se pudo cargar la imagen: " + key.url());
+        }
+        return image;
+    }
+
+    private void put(Key key, Image image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) {
+            return; // Más grande que todo el presupuesto: no se cachea
+        }
+        lock.lock();
+        try {
+            Image previous = entries.put(key, image);
+            if (previous != null) {
+                currentBytes -= sizeOf(previous);
+            }
+            currentBytes += size;
+
+            Iterator<Map.Entry<Key, Image>> it = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && it.hasNext()) {
+                Map.Entry<Key, Image> eldest = it.next();
+                currentBytes -= sizeOf(eldest.getValue());
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Píxeles decodificados en formato BGRA (4 bytes por píxel)
+    private static long sizeOf(Image image) {
+        return (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight()) * 4L;
+    }
+}
@@ -2,13 +2,14 @@ package customOrders.util;
 
 import javafx.geometry.Pos;
 import javafx.scene.control.TableCell;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import customOrders.Products.Product;
 
 /**
  * TableCell personalizado para renderizar una ruta de archivo (String) como una imagen (ImageView).
- * Muestra una imagen cargada desde la URL del producto dentro de la celda.
+ * Muestra una miniatura cargada desde la URL del producto dentro de la celda.
+ * Las miniaturas salen de la caché compartida (ImageCache): se decodifican una sola vez a IMAGE_SIZE
+ * y las celdas recicladas no reciben imágenes de filas anteriores.
  */
 public class ImageTableCell<T> extends TableCell<Product, String> {
 
@@ -29,38 +30,17 @@ public class ImageTableCell<T> extends TableCell<Product, String> {
     @Override
     protected void updateItem(String item, boolean empty) {
         super.updateItem(item, empty);
+        setText(null);
 
         if (empty || item == null || item.trim().isEmpty()) {
             // Si la celda está vacía o no hay URL, no mostramos nada.
+            ImageUtil.clearProductImage(imageView);
             setGraphic(null);
-            setText(null);
         } else {
-            try {
-                // El 'item' es la URL de la imagen (obtenida de getImageUrl()).
-                // Usamos Image(url, true) para cargar en background y manejar errores.
-                Image image = new Image(item, true);
-
-                // Manejo de errores de carga (p.e., si la ruta es inválida)
-                image.errorProperty().addListener((obs, oldVal, newVal) -> {
-                    if (newVal) {
-                        System.err.println("Error al cargar la imagen: " + item);
-                        // Mostrar un texto o un icono de error si la carga falla
-                        setText("[Error Carga]");
-                        setGraphic(null);
-                    }
-                });
-
-                // Si la imagen se carga correctamente (o está cargando)
-                imageView.setImage(image);
-                setGraphic(imageView);
-                setText(null); // Ocultar el texto de la URL
-
-            } catch (Exception e) {
-                // Manejo de excepciones (p.e. si la URL es malformada)
-                System.err.println("Error al procesar la URL de la imagen: " + item);
-                setText("https://www.spanishdict.com/translate/inv%C3%A1lida");
-                setGraphic(null);
-            }
+            // Placeholder inmediato; la miniatura llega desde el pool de decodificación.
+            // Si falla la carga, ImageCache pone el placeholder de error.
+            ImageUtil.loadProductImage(imageView, item, IMAGE_SIZE, IMAGE_SIZE);
+            setGraphic(imageView);
         }
     }
-}
\ No newline at end of file
+}
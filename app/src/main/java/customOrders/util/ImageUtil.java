@@ -1,91 +1,144 @@
 package customOrders.util;
 
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URL;
 
 public class ImageUtil {
 
+    private static final Log LOG = Log.get(ImageUtil.class);
+
     // RUTA ESTÁNDAR DEL CLASSPATH: Este prefijo se usa SÓLO para nombres de archivo de la DB.
     // La ruta de recursos es /src/main/resources/...
     private static final String RESOURCE_PATH_PREFIX = "/customOrders/resources/product_images/";
 
+    // Tamaños en los que se muestran imágenes de producto: tabla (ImageTableCell), tarjeta (ProductCardController)
+    // y vista previa del formulario (ProductController). Sus placeholders se generan al arrancar.
+    private static final int[][] DISPLAY_SIZES = {{40, 40}, {180, 120}, {200, 150}};
+
     /**
-     * Intenta cargar una imagen basándose en la URL o nombre de archivo proporcionado.
-     * Prioriza la carga de recursos de Classpath y luego URLs web.
+     * Carga la imagen de un producto en el ImageView a través de la caché compartida (ImageCache).
+     * Muestra el placeholder mientras se decodifica en segundo plano. Debe llamarse desde el hilo de JavaFX.
      * @param imageUrl El valor del campo 'image_url' de la base de datos (nombre de archivo, URL web, o ruta absoluta).
-     * @return El objeto Image o una imagen de placeholder si falla.
+     * @param width    Ancho de destino en píxeles (la imagen se decodifica ya reducida).
+     * @param height   Alto de destino en píxeles.
      */
-    public static Image loadImageFromProductUrl(String imageUrl) {
-        if (imageUrl == null || imageUrl.trim().isEmpty()) {
-            // Placeholder para imágenes no especificadas
-            return new Image("https://placehold.co/100x75/cccccc/333333?text=SIN+IMAGEN", true);
+    public static void loadProductImage(ImageView view, String imageUrl, int width, int height) {
+        ImageCache.getInstance().loadInto(view, imageUrl, width, height);
+    }
+
+    /**
+     * Vacía el ImageView y descarta la carga pendiente que tuviera en ImageCache.
+     */
+    public static void clearProductImage(ImageView view) {
+        ImageCache.getInstance().clear(view);
+    }
+
+    /**
+     * Genera los placeholders de los tamaños de visualización conocidos (llamar al arrancar la aplicación).
+     */
+    public static void preloadPlaceholders() {
+        for (int[] size : DISPLAY_SIZES) {
+            PlaceholderImages.preload(size[0], size[1]);
         }
+    }
 
+    /**
+     * Imagen que se muestra cuando el producto no tiene imagen o mientras se carga.
+     * Generada en memoria y compartida: no cuesta ninguna E/S.
+     */
+    public static Image placeholder(int width, int height) {
+        return PlaceholderImages.get(PlaceholderImages.Kind.NO_IMAGE, width, height);
+    }
+
+    /**
+     * Imagen que se muestra cuando la imagen del producto no se pudo cargar.
+     */
+    public static Image errorPlaceholder(int width, int height) {
+        return PlaceholderImages.get(PlaceholderImages.Kind.ERROR, width, height);
+    }
+
+    /**
+     * Decodifica de forma síncrona la imagen reducida a width x height (0 x 0 = tamaño original).
+     * Si el tamaño lo cubre una miniatura (ThumbnailStore), se usa la miniatura; la primera vez se genera
+     * a partir del original. La usa el pool de decodificación de ImageCache; no llamar desde el hilo de JavaFX.
+     * Emite un evento JFR {@link FlightEvents.ImageDecode} con el origen usado.
+     * @return La imagen, o null si la ruta no se pudo resolver.
+     */
+    static Image decode(String imageUrl, int width, int height) {
+        FlightEvents.ImageDecode event = new FlightEvents.ImageDecode();
+        event.begin();
+        event.imageUrl = imageUrl;
+        event.width = width;
+        event.height = height;
+        Image image = null;
+        try {
+            image = decode(imageUrl, width, height, event);
+            return image;
+        } finally {
+            event.success = image != null && !image.isError();
+            event.commit();
+        }
+    }
+
+    private static Image decode(String imageUrl, int width, int height, FlightEvents.ImageDecode event) {
+        ThumbnailStore thumbnails = ThumbnailStore.getInstance();
+        Image thumbnail = thumbnails.load(imageUrl, width, height);
+        if (thumbnail != null) {
+            event.source = "miniatura";
+            return thumbnail;
+        }
+
+        String source = resolveSource(imageUrl);
+        if (source == null) {
+            event.source = "no encontrada";
+            return null;
+        }
+        if (ThumbnailStore.ThumbnailSize.forBox(width, height) != null && thumbnails.importImage(imageUrl, source)) {
+            thumbnail = thumbnails.load(imageUrl, width, height);
+            if (thumbnail != null) {
+                event.source = "miniatura generada";
+                return thumbnail;
+            }
+        }
+        event.source = "original";
+        return new Image(source, width, height, true, true, false);
+    }
+
+    /**
+     * Convierte el valor de 'image_url' en una URL que Image sabe abrir.
+     * Prioriza URLs web, luego rutas absolutas de archivo y por último recursos del Classpath.
+     * @return La URL como texto, o null si no se encuentra el recurso.
+     */
+    static String resolveSource(String imageUrl) {
+        if (imageUrl == null || imageUrl.trim().isEmpty()) {
+            return null;
+        }
         imageUrl = imageUrl.trim();
 
         // Caso 1: URL Web (http/https)
         if (imageUrl.startsWith("http://") || imageUrl.startsWith("https://")) {
-            return new Image(imageUrl, true);
+            return imageUrl;
         }
 
         // Caso 2: Ruta de Archivo Absoluta (DEFENSIVA para data antigua C:\Users...)
         if (imageUrl.matches("^[a-zA-Z]:\\\\.*") || imageUrl.contains(File.separator)) {
             File file = new File(imageUrl);
             if (file.exists()) {
-                try {
-                    System.out.println("ÉXITO: Imagen cargada desde ruta de archivo absoluta: " + imageUrl);
-                    return new Image(new FileInputStream(file));
-                } catch (FileNotFoundException e) {
-                    System.err.println("Advertencia (Datos Antiguos): Archivo no encontrado en ruta absoluta: " + imageUrl);
-                }
+                return file.toURI().toString();
             }
         }
 
         // Caso 3: Nombre de Archivo de Classpath (ej: "OIP.jpg" o "/images/placeholder.png")
-        String resourcePath;
-
-        // 🚨 LÓGICA CORREGIDA: Si la ruta ya empieza con '/', no añadimos el prefijo (es una ruta de recurso completa).
-        if (imageUrl.startsWith("/")) {
-            resourcePath = imageUrl; // Ej: /images/placeholder.png
-        } else {
-            // Si es un nombre de archivo simple (DB), añadimos el prefijo de la carpeta de imágenes.
-            resourcePath = RESOURCE_PATH_PREFIX + imageUrl;
-        }
-
-        System.out.println("DEBUG: Intentando cargar desde Classpath: " + resourcePath);
-
-        try {
-            // Intentamos cargar el recurso usando el ClassLoader de la clase
-            InputStream is = ImageUtil.class.getResourceAsStream(resourcePath);
-
-            if (is != null) {
-                System.out.println("ÉXITO: Imagen cargada desde Classpath: " + resourcePath);
-                return new Image(is);
-            } else {
-                System.err.println("RECURSO NO ENCONTRADO EN CLASSPATH: " + resourcePath);
-            }
-        } catch (Exception e) {
-            System.err.println("Error al cargar recurso Classpath para: " + imageUrl + ". Detalle: " + e.getMessage());
-        }
-
-        // Placeholder si no se pudo cargar por ninguna de las vías
-        try {
-            // Placeholder de error, lo cargamos desde el classpath si está disponible
-            URL url = ImageUtil.class.getResource("/images/error_placeholder.png");
-            if (url != null) {
-                return new Image(url.toExternalForm(), true);
-            }
-            // Si incluso el placeholder de error falla, usamos un placeholder genérico web
-            return new Image(new URL("https://placehold.co/100x75/ff0000/ffffff?text=FALLO").toExternalForm(), true);
-
-        } catch (MalformedURLException e) {
+        // Si la ruta ya empieza con '/', es una ruta de recurso completa; si no, es un nombre de archivo de la DB.
+        String resourcePath = imageUrl.startsWith("/") ? imageUrl : RESOURCE_PATH_PREFIX + imageUrl;
+        URL resource = ImageUtil.class.getResource(resourcePath);
+        if (resource == null) {
+            LOG.warn("Recurso no encontrado en el classpath: {}", resourcePath);
             return null;
         }
+        return resource.toExternalForm();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package customOrders.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa int -> int con direccionamiento abierto (sondeo lineal), sin autoboxing.
+ * Pensado para tablas de búsqueda grandes por ID (p.ej. product_id -> nivel de inventario),
+ * donde un HashMap<Integer, Integer> crearía dos objetos por entrada.
+ *
+ * No es thread-safe: se construye en un hilo y después solo se lee.
+ */
+public class IntIntMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Número de entradas esperadas (evita redimensionar durante la carga).
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        allocate(capacity);
+    }
+
+    /**
+     * Inserta o reemplaza el valor asociado a la clave.
+     */
+    public void put(int key, int value) {
+        int slot = findSlot(key);
+        if (used[slot]) {
+            values[slot] = value;
+            return;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return used[findSlot(key)];
+    }
+
+    /**
+     * @return El valor asociado, o {@code defaultValue} si la clave no existe.
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = findSlot(key);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Posición de la clave, o de la primera celda libre donde iría.
+     */
+    private int findSlot(int key) {
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = findSlot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // Los IDs secuenciales caerían en celdas contiguas: se dispersan los bits antes de enmascarar
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        return Math.max(capacity, 2);
+    }
+}
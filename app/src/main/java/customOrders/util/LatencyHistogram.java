@@ -0,0 +1,99 @@
+package customOrders.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias al estilo HDR: cubetas log-lineales en microsegundos, con memoria fija
+ * y precisión relativa constante (~3%) desde 1 µs hasta días. Registrar es lock-free (un incremento
+ * atómico), así que se puede usar en cada llamada JDBC.
+ *
+ * Cada potencia de dos se divide en {@code SUB_BUCKETS / 2} cubetas lineales: un percentil se devuelve
+ * como el mayor valor equivalente de su cubeta (nunca por debajo del valor real).
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Resumen del histograma (tiempos en milisegundos).
+     */
+    public record Summary(long count, double totalMillis, double meanMillis,
+                          double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+        @Override
+        public String toString() {
+            return String.format("n=%d, media=%.2f ms, p50=%.2f ms, p95=%.2f ms, p99=%.2f ms, máx=%.2f ms, total=%.1f ms",
+                    count, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis, totalMillis);
+        }
+    }
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    // Mayor potencia de dos representable (2^41 µs, unos 25 días); lo que pase de ahí va a la última cubeta
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(indexOf(micros));
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public Summary getSummary() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        long max = maxMicros.get();
+        double total = totalMicros.sum() / 1_000.0;
+        return new Summary(count, total, count == 0 ? 0.0 : total / count,
+                percentile(snapshot, count, 0.50, max), percentile(snapshot, count, 0.95, max),
+                percentile(snapshot, count, 0.99, max), max / 1_000.0);
+    }
+
+    private static double percentile(long[] snapshot, long count, double quantile, long max) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), max) / 1_000.0;
+            }
+        }
+        return max / 1_000.0;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (micros >>> shift);  // en [HALF_SUB_BUCKETS, SUB_BUCKETS)
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + (subBucket - HALF_SUB_BUCKETS);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int relative = index - SUB_BUCKETS;
+        int magnitude = SUB_BUCKET_BITS + relative / HALF_SUB_BUCKETS;
+        int subBucket = HALF_SUB_BUCKETS + relative % HALF_SUB_BUCKETS;
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        return ((long) (subBucket + 1) << shift) - 1;
+    }
+}
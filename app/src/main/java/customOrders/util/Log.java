@@ -0,0 +1,334 @@
+package customOrders.util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de la aplicación: niveles, formato fijo y escritura asíncrona.
+ *
+ * Quien registra solo comprueba el nivel y deja el mensaje en un buffer circular (sin bloqueos); un hilo
+ * aparte da formato a los mensajes y los escribe por lotes en la consola (DEBUG/INFO por System.out,
+ * WARN/ERROR por System.err). Así un bucle sobre miles de filas no queda atado a la E/S de la consola.
+ * - Un nivel desactivado no cuesta nada: no se construye ningún texto (usar plantillas con {} en lugar
+ *   de concatenar). Si calcular un argumento es caro, comprobar antes {@link #isDebugEnabled()}.
+ * - Si el último argumento es un Throwable que no consume ninguna {}, se escribe su traza.
+ * - Los argumentos se formatean después, en el hilo de escritura: pasar valores que no vayan a cambiar.
+ *   Los double se escriben con 2 decimales.
+ * - Si el buffer se llena, los mensajes nuevos se descartan (y se avisa de cuántos), nunca se bloquea.
+ *
+ * Formato: {@code 2025-01-31 12:00:00.000 WARN  [hilo] Clase - mensaje}
+ *
+ * Configuración (propiedades del sistema):
+ * - customOrders.log.level: DEBUG, INFO (por defecto), WARN, ERROR u OFF.
+ * - customOrders.log.level.NombreDeClase: nivel de una clase concreta (p.ej. customOrders.log.level.ProductManager=DEBUG).
+ * - customOrders.log.bufferSize: capacidad del buffer (por defecto 8192 mensajes).
+ * - customOrders.log.async=false: escribe en el hilo que registra (útil para depurar un cierre inesperado).
+ */
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    /**
+     * Métricas del log.
+     */
+    public record Stats(Level level, long written, long dropped, int capacity) {
+        @Override
+        public String toString() {
+            return String.format("Log: nivel=%s, escritos=%d, descartados=%d, buffer=%d", level, written, dropped, capacity);
+        }
+    }
+
+    private static final String PROPERTY_PREFIX = "customOrders.log.level";
+    private static final Level DEFAULT_LEVEL = parseLevel(System.getProperty(PROPERTY_PREFIX), Level.INFO);
+    private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("customOrders.log.async", "true"));
+    private static final int CAPACITY = powerOfTwo(Integer.getInteger("customOrders.log.bufferSize", 8192));
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    // Se escribe el lote acumulado al vaciarse el buffer o al pasar de este tamaño
+    private static final int MAX_PENDING_CHARS = 16 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final ConcurrentHashMap<String, Log> LOGGERS = new ConcurrentHashMap<>();
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /**
+     * Logger de una clase (uno por nombre simple, compartido).
+     */
+    public static Log get(Class<?> owner) {
+        return LOGGERS.computeIfAbsent(owner.getSimpleName(), Log::new);
+    }
+
+    private final String name;
+    private volatile int threshold;
+
+    private Log(String name) {
+        this.name = name;
+        this.threshold = parseLevel(System.getProperty(PROPERTY_PREFIX + "." + name), DEFAULT_LEVEL).ordinal();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return Level.DEBUG.ordinal() >= threshold;
+    }
+
+    /**
+     * Cambia el nivel de este logger en caliente.
+     */
+    public void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    // Sobrecargas de 1 y 2 argumentos: sin array de varargs cuando el nivel está desactivado
+
+    public void debug(String message) { if (isEnabled(Level.DEBUG)) log(Level.DEBUG, message, null); }
+    public void debug(String template, Object arg) { if (isEnabled(Level.DEBUG)) log(Level.DEBUG, template, new Object[]{arg}); }
+    public void debug(String template, Object arg1, Object arg2) { if (isEnabled(Level.DEBUG)) log(Level.DEBUG, template, new Object[]{arg1, arg2}); }
+    public void debug(String template, Object... args) { if (isEnabled(Level.DEBUG)) log(Level.DEBUG, template, args); }
+
+    public void info(String message) { if (isEnabled(Level.INFO)) log(Level.INFO, message, null); }
+    public void info(String template, Object arg) { if (isEnabled(Level.INFO)) log(Level.INFO, template, new Object[]{arg}); }
+    public void info(String template, Object arg1, Object arg2) { if (isEnabled(Level.INFO)) log(Level.INFO, template, new Object[]{arg1, arg2}); }
+    public void info(String template, Object... args) { if (isEnabled(Level.INFO)) log(Level.INFO, template, args); }
+
+    public void warn(String message) { if (isEnabled(Level.WARN)) log(Level.WARN, message, null); }
+    public void warn(String template, Object arg) { if (isEnabled(Level.WARN)) log(Level.WARN, template, new Object[]{arg}); }
+    public void warn(String template, Object arg1, Object arg2) { if (isEnabled(Level.WARN)) log(Level.WARN, template, new Object[]{arg1, arg2}); }
+    public void warn(String template, Object... args) { if (isEnabled(Level.WARN)) log(Level.WARN, template, args); }
+
+    public void error(String message) { if (isEnabled(Level.ERROR)) log(Level.ERROR, message, null); }
+    public void error(String template, Object arg) { if (isEnabled(Level.ERROR)) log(Level.ERROR, template, new Object[]{arg}); }
+    public void error(String template, Object arg1, Object arg2) { if (isEnabled(Level.ERROR)) log(Level.ERROR, template, new Object[]{arg1, arg2}); }
+    public void error(String template, Object... args) { if (isEnabled(Level.ERROR)) log(Level.ERROR, template, args); }
+
+    private void log(Level level, String template, Object[] args) {
+        Entry entry = new Entry(System.currentTimeMillis(), level, name, Thread.currentThread().getName(), template, args);
+        if (!ASYNC || !Writer.INSTANCE.offer(entry)) {
+            if (ASYNC) {
+                DROPPED.increment();
+            } else {
+                Writer.writeNow(entry);
+            }
+        }
+    }
+
+    /**
+     * Espera (como mucho 2 s) a que se escriba todo lo registrado hasta ahora.
+     * Útil antes de salir de un main; al cerrar la JVM se llama sola.
+     */
+    public static void flush() {
+        if (ASYNC) {
+            Writer.INSTANCE.awaitWritten();
+        }
+    }
+
+    public static Stats getStats() {
+        return new Stats(DEFAULT_LEVEL, WRITTEN.sum(), DROPPED.sum(), CAPACITY);
+    }
+
+    // --- Formato ---
+
+    private record Entry(long timeMillis, Level level, String logger, String thread, String template, Object[] args) { }
+
+    private static void format(Entry entry, StringBuilder out) {
+        out.append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timeMillis()))).append(' ');
+        String level = entry.level().name();
+        out.append(level).append(" ".repeat(6 - level.length()));
+        out.append('[').append(entry.thread()).append("] ").append(entry.logger()).append(" - ");
+
+        String template = String.valueOf(entry.template());
+        Object[] args = entry.args();
+        int used = 0;
+        if (args == null) {
+            out.append(template);
+        } else {
+            int from = 0;
+            int at;
+            while (used < args.length && (at = template.indexOf("{}", from)) >= 0) {
+                out.append(template, from, at).append(describe(args[used++]));
+                from = at + 2;
+            }
+            out.append(template, from, template.length());
+        }
+        out.append(System.lineSeparator());
+
+        // Throwable sobrante al final: su traza
+        if (args != null && used < args.length && args[args.length - 1] instanceof Throwable error) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            out.append(trace);
+        }
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.2f", ((Number) value).doubleValue());
+        }
+        return String.valueOf(value);
+    }
+
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("ADVERTENCIA Log: nivel desconocido '" + value + "', se usa " + fallback);
+            return fallback;
+        }
+    }
+
+    private static int powerOfTwo(int size) {
+        int capacity = Integer.highestOneBit(Math.max(16, size));
+        return capacity < size ? capacity << 1 : capacity;
+    }
+
+    // --- Escritura ---
+
+    /**
+     * Buffer circular acotado de varios productores y un consumidor (el hilo de escritura).
+     * Cada celda lleva un número de secuencia: un productor reserva una posición con CAS y publica
+     * la entrada avanzando la secuencia de la celda; el consumidor solo lee celdas ya publicadas.
+     */
+    private static final class Writer implements Runnable {
+        private static final Writer INSTANCE = ASYNC ? start() : null;
+
+        private final Entry[] slots = new Entry[CAPACITY];
+        private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;  // solo lo escribe el consumidor
+        private volatile boolean idle;
+        private Thread thread;
+
+        private final StringBuilder pendingOut = new StringBuilder();
+        private final StringBuilder pendingErr = new StringBuilder();
+        private long reportedDropped;
+
+        private Writer() {
+            for (int i = 0; i < CAPACITY; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        private static Writer start() {
+            Writer writer = new Writer();
+            writer.thread = new Thread(writer, "log-writer");
+            writer.thread.setDaemon(true);
+            writer.thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::awaitWritten, "log-flush"));
+            return writer;
+        }
+
+        private boolean offer(Entry entry) {
+            int mask = CAPACITY - 1;
+            long position = tail.get();
+            while (true) {
+                long available = sequences.get((int) (position & mask)) - position;
+                if (available == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                    position = tail.get();
+                } else if (available < 0) {
+                    return false;  // lleno
+                } else {
+                    position = tail.get();
+                }
+            }
+            int index = (int) (position & mask);
+            slots[index] = entry;
+            sequences.set(index, position + 1);
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        private Entry poll() {
+            long position = head;
+            int index = (int) (position & (CAPACITY - 1));
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            Entry entry = slots[index];
+            slots[index] = null;
+            sequences.set(index, position + CAPACITY);
+            head = position + 1;
+            return entry;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Entry entry = poll();
+                if (entry != null) {
+                    format(entry, entry.level().ordinal() >= Level.WARN.ordinal() ? pendingErr : pendingOut);
+                    WRITTEN.increment();
+                    if (pendingOut.length() + pendingErr.length() >= MAX_PENDING_CHARS) {
+                        writePending();
+                    }
+                    continue;
+                }
+                writePending();
+                idle = true;
+                if (head == tail.get()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+
+        private void writePending() {
+            long dropped = DROPPED.sum();
+            if (dropped > reportedDropped) {
+                pendingErr.append("ADVERTENCIA Log: ").append(dropped - reportedDropped)
+                        .append(" mensajes descartados (buffer lleno)").append(System.lineSeparator());
+                reportedDropped = dropped;
+            }
+            write(System.out, pendingOut);
+            write(System.err, pendingErr);
+        }
+
+        private static void write(PrintStream stream, StringBuilder pending) {
+            if (pending.length() > 0) {
+                stream.print(pending);
+                stream.flush();
+                pending.setLength(0);
+            }
+        }
+
+        private void awaitWritten() {
+            long target = tail.get();
+            long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+            // head avanza al sacar cada entrada; se da una vuelta más para que escriba el último lote
+            while ((head < target || !idle) && System.nanoTime() < deadline) {
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        private static synchronized void writeNow(Entry entry) {
+            StringBuilder line = new StringBuilder();
+            format(entry, line);
+            WRITTEN.increment();
+            (entry.level().ordinal() >= Level.WARN.ordinal() ? System.err : System.out).print(line);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package customOrders.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Placeholders de imagen generados en memoria (sin red ni disco).
+ *
+ * Hay una única instancia de Image por (tipo, tamaño), compartida por todas las vistas. Se dibujan con
+ * Java2D y se copian a un WritableImage, así que se pueden crear desde cualquier hilo (no hace falta
+ * un Canvas en el hilo de JavaFX). {@link #preload} las crea al arrancar para los tamaños conocidos.
+ */
+public final class PlaceholderImages {
+
+    /**
+     * Tipo de placeholder.
+     */
+    public enum Kind {
+        NO_IMAGE("SIN IMAGEN", new Color(0xCC, 0xCC, 0xCC), new Color(0x33, 0x33, 0x33)),
+        ERROR("FALLO", new Color(0xFF, 0x00, 0x00), Color.WHITE);
+
+        private final String text;
+        private final Color background;
+        private final Color foreground;
+
+        Kind(String text, Color background, Color foreground) {
+            this.text = text;
+            this.background = background;
+            this.foreground = foreground;
+        }
+    }
+
+    private record Key(Kind kind, int width, int height) { }
+
+    // Tamaño usado cuando la vista no indica uno (mismo tamaño que los antiguos placeholders remotos)
+    static final int DEFAULT_WIDTH = 100;
+    static final int DEFAULT_HEIGHT = 75;
+
+    private static final Map<Key, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private PlaceholderImages() {
+    }
+
+    /**
+     * Placeholder compartido del tipo y tamaño indicados (se genera la primera vez).
+     */
+    public static Image get(Kind kind, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            width = DEFAULT_WIDTH;
+            height = DEFAULT_HEIGHT;
+        }
+        return IMAGES.computeIfAbsent(new Key(kind, width, height), PlaceholderImages::render);
+    }
+
+    /**
+     * Genera por adelantado ambos tipos de placeholder para un tamaño.
+     */
+    public static void preload(int width, int height) {
+        for (Kind kind : Kind.values()) {
+            get(kind, width, height);
+        }
+    }
+
+    private static Image render(Key key) {
+        int width = key.width();
+        int height = key.height();
+        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            g.setColor(key.kind().background);
+            g.fillRect(0, 0, width, height);
+
+            // El texto ocupa como mucho el 80% del ancho y la mitad del alto
+            g.setColor(key.kind().foreground);
+            String text = key.kind().text;
+            int fontSize = Math.max(6, height / 2);
+            Font font = new Font(Font.SANS_SERIF, Font.BOLD, fontSize);
+            FontMetrics metrics = g.getFontMetrics(font);
+            while (fontSize > 6 && metrics.stringWidth(text) > width * 0.8) {
+                font = font.deriveFont((float) --fontSize);
+                metrics = g.getFontMetrics(font);
+            }
+            g.setFont(font);
+            g.drawString(text, (width - metrics.stringWidth(text)) / 2,
+                    (height - metrics.getHeight()) / 2 + metrics.getAscent());
+
+            if (key.kind() == Kind.ERROR) {
+                g.setStroke(new BasicStroke(Math.max(1f, Math.min(width, height) / 40f)));
+                g.drawRect(0, 0, width - 1, height - 1);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        int[] pixels = canvas.getRGB(0, 0, width, height, null, 0, width);
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+}
@@ -0,0 +1,411 @@
+package customOrders.util;
+
+import javafx.scene.image.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Miniaturas persistentes de las imágenes de producto.
+ *
+ * Cada imagen original se reduce una sola vez a los tamaños de {@link ThumbnailSize} y se guarda como PNG
+ * en un directorio local (por defecto ~/.customOrders/thumbnails, o -DcustomOrders.thumbnailDir=...).
+ * Los archivos se nombran por el hash SHA-256 del contenido original, así que dos productos con la misma
+ * imagen comparten miniaturas. Un índice (index.properties) relaciona cada 'image_url' con su hash para
+ * no tener que volver a leer el original, junto con el tamaño y la fecha de modificación del original del que
+ * salió: en cada lectura se comprueban (un stat, sin leer el archivo) y si el original se ha sustituido bajo
+ * el mismo nombre la miniatura se descarta y se vuelve a generar. Los originales http(s) no se comprueban
+ * (sería una petición por imagen).
+ *
+ * Las miniaturas se leen con un FileChannel mapeado en memoria y se decodifican directamente desde ese buffer.
+ * Lo usa ImageUtil.decode (desde el pool de ImageCache): las tablas y la galería nunca decodifican originales
+ * salvo la primera vez que ven una imagen que no se importó.
+ */
+public class ThumbnailStore {
+
+    private static final Log LOG = Log.get(ThumbnailStore.class);
+
+    /**
+     * Tamaños generados (lado mayor en píxeles).
+     */
+    public enum ThumbnailSize {
+        SMALL(40), MEDIUM(100), LARGE(300);
+
+        private final int pixels;
+
+        ThumbnailSize(int pixels) {
+            this.pixels = pixels;
+        }
+
+        public int pixels() {
+            return pixels;
+        }
+
+        /**
+         * La miniatura más pequeña que cubre un recuadro de width x height, o null si ninguna basta
+         * (o si se pide el tamaño original, 0 x 0).
+         */
+        public static ThumbnailSize forBox(int width, int height) {
+            int required = Math.max(width, height);
+            if (required <= 0) {
+                return null;
+            }
+            for (ThumbnailSize size : values()) {
+                if (size.pixels >= required) {
+                    return size;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Métricas del almacén de miniaturas.
+     */
+    public record ThumbnailStats(long reads, long generated, long failures, long stale, int indexedImages) {
+        @Override
+        public String toString() {
+            return String.format("Miniaturas: lecturas=%d, generadas=%d, fallos=%d, obsoletas=%d, imágenes indexadas=%d",
+                    reads, generated, failures, stale, indexedImages);
+        }
+    }
+
+    /**
+     * Entrada del índice: hash del original y de qué versión del archivo salió.
+     * @param source        URL desde la que se leyó el original.
+     * @param sourceVersion Tamaño y fecha de modificación del original al leerlo, o null si no se pueden
+     *                      consultar (http).
+     */
+    private record IndexEntry(String hash, String source, String sourceVersion) {
+        private static final char SEPARATOR = '|';
+
+        // hash|versión|source (source al final: es el único campo que podría contener el separador)
+        String encode() {
+            return hash + SEPARATOR + (sourceVersion == null ? "" : sourceVersion) + SEPARATOR
+                    + (source == null ? "" : source);
+        }
+
+        /**
+         * @return La entrada, o null si es del formato anterior (solo el hash): se descarta y la siguiente lectura
+         *         vuelve a importar el original (las miniaturas ya existen, solo se recalcula el hash).
+         */
+        static IndexEntry decode(String value) {
+            String[] parts = value.split("\\|", 3);
+            if (parts.length < 3) {
+                return null;
+            }
+            return new IndexEntry(parts[0], parts[2].isEmpty() ? null : parts[2], parts[1].isEmpty() ? null : parts[1]);
+        }
+    }
+
+    private static final String INDEX_FILE = "index.properties";
+    private static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".customOrders", "thumbnails");
+
+    private static final ThumbnailStore INSTANCE = new ThumbnailStore(
+            Paths.get(System.getProperty("customOrders.thumbnailDir", DEFAULT_DIRECTORY.toString())));
+
+    public static ThumbnailStore getInstance() {
+        return INSTANCE;
+    }
+
+    private final Path directory;
+    // image_url -> hash del contenido original y versión del archivo del que salió
+    private final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+    private volatile boolean indexLoaded = false;
+    private final ExecutorService importer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    ThumbnailStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lee la miniatura de {@code imageUrl} que cubre width x height, si ya existe y el original no ha cambiado.
+     * @return La imagen decodificada a width x height, o null si no hay miniatura, el tamaño no está cubierto
+     *         o el original se sustituyó (hay que volver a importarla).
+     */
+    public Image load(String imageUrl, int width, int height) {
+        ThumbnailSize size = ThumbnailSize.forBox(width, height);
+        if (size == null) {
+            return null;
+        }
+        ensureIndexLoaded();
+        IndexEntry entry = index.get(imageUrl);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.source() != null && !Objects.equals(entry.sourceVersion(), sourceVersion(entry.source()))) {
+            // El original cambió (o desapareció) bajo el mismo nombre: la miniatura ya no le corresponde
+            stale.increment();
+            return null;
+        }
+        Path file = thumbnailPath(entry.hash(), size);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Image image = new Image(new ByteBufferInputStream(buffer), width, height, true, true);
+            if (image.isError()) {
+                failures.increment();
+                return null;
+            }
+            reads.increment();
+            return image;
+        } catch (IOException e) {
+            failures.increment();
+            LOG.error("Error al leer la miniatura {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Genera (si faltan) las miniaturas de una imagen y la registra en el índice bajo {@code imageUrl}.
+     * Bloquea mientras lee el original: llamar desde un hilo en segundo plano.
+     * @param imageUrl Clave con la que se pedirá la imagen (el valor de 'image_url').
+     * @param source   URL desde la que leer el original (ver ImageUtil.resolveSource).
+     * @return true si las miniaturas quedaron disponibles.
+     */
+    public boolean importImage(String imageUrl, String source) {
+        // Antes de leer: si el archivo cambia mientras se lee, la versión guardada ya no coincidirá
+        String version = sourceVersion(source);
+        try (InputStream in = URI.create(source).toURL().openStream()) {
+            byte[] original = in.readAllBytes();
+            String hash = sha256(original);
+
+            if (!allThumbnailsExist(hash)) {
+                BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(original));
+                if (decoded == null) {
+                    failures.increment();
+                    LOG.warn("Formato de imagen no soportado para miniaturas: {}", source);
+                    return false;
+                }
+                Files.createDirectories(directory);
+                for (ThumbnailSize size : ThumbnailSize.values()) {
+                    Path target = thumbnailPath(hash, size);
+                    if (!Files.exists(target)) {
+                        writeAtomically(target, scale(decoded, size.pixels()));
+                        generated.increment();
+                    }
+                }
+            }
+
+            ensureIndexLoaded();
+            IndexEntry entry = new IndexEntry(hash, source, version);
+            if (!entry.equals(index.put(imageUrl, entry))) {
+                saveIndex();
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            failures.increment();
+            LOG.error("Error al generar miniaturas de {}: {}", source, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Igual que {@link #importImage(String, String)} pero desde un archivo local y en segundo plano.
+     * Se usa al elegir o guardar una imagen nueva para que los listados nunca tengan que leer el original.
+     */
+    public CompletableFuture<Boolean> importAsync(String imageUrl, Path file) {
+        return CompletableFuture.supplyAsync(() -> importImage(imageUrl, file.toUri().toString()), importer);
+    }
+
+    public ThumbnailStats getStats() {
+        ensureIndexLoaded();
+        return new ThumbnailStats(reads.sum(), generated.sum(), failures.sum(), stale.sum(), index.size());
+    }
+
+    /**
+     * Tamaño y fecha de modificación del original ("bytes@millis"), o null si no se pueden consultar
+     * sin descargarlo (http) o si ya no existe.
+     */
+    static String sourceVersion(String source) {
+        try {
+            URI uri = URI.create(source);
+            String scheme = uri.getScheme();
+            if ("file".equalsIgnoreCase(scheme)) {
+                BasicFileAttributes attributes = Files.readAttributes(Paths.get(uri), BasicFileAttributes.class);
+                return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+            }
+            if ("jar".equalsIgnoreCase(scheme)) {
+                // Recurso dentro del jar de la aplicación: cambia al instalar otra versión
+                URLConnection connection = uri.toURL().openConnection();
+                return connection.getContentLengthLong() + "@" + connection.getLastModified();
+            }
+        } catch (IOException | IllegalArgumentException | UnsupportedOperationException e) {
+            LOG.debug("No se pudo consultar la versión de {}: {}", source, e.getMessage());
+        }
+        return null;
+    }
+
+    private boolean allThumbnailsExist(String hash) {
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            if (!Files.exists(thumbnailPath(hash, size))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path thumbnailPath(String hash, ThumbnailSize size) {
+        return directory.resolve(hash + "-" + size.pixels() + ".png");
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor mida como mucho {@code maxSide} (nunca amplía).
+     */
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // Se escribe en un temporal y se mueve: un lector nunca ve una miniatura a medias
+    private static void writeAtomically(Path target, BufferedImage image) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "thumb", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                ImageIO.write(image, "png", out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void ensureIndexLoaded() {
+        if (indexLoaded) {
+            return;
+        }
+        synchronized (indexLock) {
+            if (indexLoaded) {
+                return;
+            }
+            Path file = directory.resolve(INDEX_FILE);
+            if (Files.exists(file)) {
+                Properties properties = new Properties();
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                    properties.forEach((url, value) -> {
+                        IndexEntry entry = IndexEntry.decode((String) value);
+                        if (entry != null) {
+                            index.putIfAbsent((String) url, entry);
+                        }
+                    });
+                } catch (IOException e) {
+                    LOG.error("Error al leer el índice de miniaturas: {}", e.getMessage());
+                }
+            }
+            indexLoaded = true;
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        synchronized (indexLock) {
+            Properties properties = new Properties();
+            index.forEach((url, entry) -> properties.setProperty(url, entry.encode()));
+            Path target = directory.resolve(INDEX_FILE);
+            Path temp = Files.createTempFile(directory, "index", ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    properties.store(writer, "image_url -> hash SHA-256 del original|bytes@millis del original|URL del original");
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * InputStream sobre un ByteBuffer (el archivo mapeado), sin copiarlo al heap.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+-- Notificaciones de cambios entre estaciones (LISTEN/NOTIFY).
+-- Cada INSERT/UPDATE/DELETE en las tablas observadas envía un NOTIFY al canal 'customorders_changes'
+-- con el payload "<tabla>:<operación>:<id>" (p.ej. "products:UPDATE:42").
+-- La aplicación escucha el canal con una única conexión por proceso (customOrders.ChangeNotifications).
+--
+-- Las cargas masivas (p.ej. la importación CSV de productos) activan "SET LOCAL customorders.bulk_change = on"
+-- en su transacción: el trigger no envía nada por fila y la carga publica un único "<tabla>:RESYNC:-1" al final.
+--
+-- Instalación (idempotente): la aplicación lo ejecuta al arrancar si falta algún trigger (ChangeNotifications.ensureTriggers).
+-- Si el usuario de la DB no tiene permisos para ello, ejecutar este script a mano o la clase customOrders.ChangeNotifications (main).
+
+CREATE OR REPLACE FUNCTION customorders_notify_change() RETURNS trigger AS $$
+DECLARE
+    row_data jsonb;
+BEGIN
+    IF current_setting('customorders.bulk_change', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        row_data := to_jsonb(OLD);
+    ELSE
+        row_data := to_jsonb(NEW);
+    END IF;
+    -- TG_ARGV[0] = nombre de la columna PK de la tabla
+    PERFORM pg_notify('customorders_changes',
+            lower(TG_TABLE_NAME) || ':' || TG_OP || ':' || (row_data ->> TG_ARGV[0]));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS products_notify_change ON products;
+CREATE TRIGGER products_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION customorders_notify_change('product_id');
+
+DROP TRIGGER IF EXISTS orders_notify_change ON orders;
+CREATE TRIGGER orders_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION customorders_notify_change('order_id');
+
+DROP TRIGGER IF EXISTS customers_notify_change ON customers;
+CREATE TRIGGER customers_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON customers
+    FOR EACH ROW EXECUTE FUNCTION customorders_notify_change('customer_id');
+
+DROP TRIGGER IF EXISTS suppliers_notify_change ON suppliers;
+CREATE TRIGGER suppliers_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON suppliers
+    FOR EACH ROW EXECUTE FUNCTION customorders_notify_change('supplier_id');
@@ -0,0 +1,26 @@
+-- Índices para el autocompletado de clientes en modo SQL (-DcustomOrders.customerAutocomplete=sql).
+-- Instalación (idempotente): la pantalla de pedidos lo ejecuta una vez por proceso al arrancar en modo SQL
+-- (OrdersAdminManager.ensureCustomerSearchIndex). Si el usuario de la aplicación no tiene permiso para crear
+-- extensiones, un administrador debe ejecutar este script a mano, p.ej.:
+--     psql -U postgres -d <base> -f customer_search_index.sql
+-- Requiere las extensiones unaccent y pg_trgm (incluidas en contrib de PostgreSQL).
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent() no es IMMUTABLE (depende del diccionario por defecto); este envoltorio fija el diccionario
+-- para poder usarlo en índices. Misma normalización que CustomerNameIndex.normalize en Java.
+CREATE OR REPLACE FUNCTION customorders_fold_name(first_name text, last_name text)
+RETURNS text
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary,
+                 regexp_replace(btrim(coalesce(first_name, '') || ' ' || coalesce(last_name, '')), '\s+', ' ', 'g')))
+$$;
+
+-- Prefijo del nombre completo: LIKE 'ana g%' usa el B-tree
+CREATE INDEX IF NOT EXISTS customers_folded_name_prefix_idx
+    ON customers (customorders_fold_name(first_name, last_name) text_pattern_ops);
+
+-- Prefijo de cualquier otra palabra: LIKE '% garc%' usa el índice de trigramas
+CREATE INDEX IF NOT EXISTS customers_folded_name_trgm_idx
+    ON customers USING gin (customorders_fold_name(first_name, last_name) gin_trgm_ops);
@@ -0,0 +1,155 @@
+package customOrders.benchmarks;
+
+import customOrders.SyntheticDataGenerator;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base de datos contra la que se ejecutan los benchmarks (una por JVM de JMH).
+ *
+ * - Con -Dbench.db.url=jdbc:postgresql://... (y bench.db.user / bench.db.password) se usa ese servidor,
+ *   p.ej. un PostgreSQL local. Si falta el esquema se crea, y si la tabla products está vacía se generan los datos.
+ * - Sin URL se arranca un PostgreSQL embebido (binarios de zonky) en un directorio temporal, con el
+ *   esquema de db/schema.sql.
+ *
+ * En ambos casos la URL se publica en las propiedades customOrders.db.* antes de que PostgresConnector
+ * cree su pool, así los managers de la aplicación se conectan a esta base sin cambios.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String SCHEMA_SCRIPT = "/db/schema.sql";
+
+    private final EmbeddedPostgres embedded;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private BenchmarkDatabase(EmbeddedPostgres embedded, String url, String user, String password) {
+        this.embedded = embedded;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Arranca (o localiza) la base y la deja lista para los managers.
+     */
+    static BenchmarkDatabase start() throws IOException, SQLException {
+        BenchmarkDatabase db;
+        String externalUrl = System.getProperty("bench.db.url");
+        if (externalUrl != null) {
+            db = new BenchmarkDatabase(null, externalUrl,
+                    System.getProperty("bench.db.user", "postgres"),
+                    System.getProperty("bench.db.password", ""));
+        } else {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            db = new BenchmarkDatabase(postgres,
+                    postgres.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+        }
+
+        // Mismo ajuste que la URL por defecto de PostgresConnector
+        String separator = db.url.contains("?") ? "&" : "?";
+        System.setProperty("customOrders.db.url", db.url + separator + "reWriteBatchedInserts=true");
+        System.setProperty("customOrders.db.user", db.user);
+        System.setProperty("customOrders.db.password", db.password);
+
+        try (Connection conn = db.openConnection()) {
+            if (!tableExists(conn, "products")) {
+                applySchema(conn);
+            }
+        }
+        return db;
+    }
+
+    Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    boolean isEmbedded() {
+        return embedded != null;
+    }
+
+    /**
+     * true si la base ya tiene productos (una base externa sembrada en una ejecución anterior).
+     */
+    boolean hasData() throws SQLException {
+        try (Connection conn = openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM products)")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Genera los datos de {@code config} si la base es la embebida o está vacía.
+     * Devuelve false si es una base externa que ya tenía datos (entonces no se genera nada y los tamaños se ignoran).
+     */
+    boolean seedIfEmpty(SyntheticDataGenerator.Config config) throws SQLException {
+        if (!isEmbedded() && hasData()) {
+            System.out.println("La base externa ya tiene datos: no se siembra (se ignoran los tamaños).");
+            return false;
+        }
+        new SyntheticDataGenerator(config).generate(true);
+        return true;
+    }
+
+    /**
+     * Un cliente cualquiera (el de menor ID) para asignarle los pedidos del benchmark.
+     */
+    int anyCustomerId() throws SQLException {
+        try (Connection conn = openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT min(customer_id) FROM customers")) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return rs.getInt(1);
+            }
+        }
+        throw new IllegalStateException("La DB de benchmark no tiene clientes.");
+    }
+
+    /**
+     * Deja todos los productos con {@code quantity} unidades (los checkouts del benchmark no deben agotar stock).
+     */
+    void setAllStock(int quantity) throws SQLException {
+        try (Connection conn = openConnection();
+             PreparedStatement ps = conn.prepareStatement("UPDATE products SET quantity = ?")) {
+            ps.setInt(1, quantity);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, table, new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static void applySchema(Connection conn) throws IOException, SQLException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream(SCHEMA_SCRIPT)) {
+            if (in == null) {
+                throw new IOException("No se encontró el recurso " + SCHEMA_SCRIPT);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(script);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
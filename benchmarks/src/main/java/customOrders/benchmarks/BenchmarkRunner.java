@@ -0,0 +1,39 @@
+package customOrders.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Punto de entrada del jar de benchmarks. Acepta las mismas opciones que el main de JMH
+ * (p.ej. {@code -p orders=100000 -f 2 DataAccessBenchmark.loadAllOrders}) pero, si no se indica
+ * {@code -rf}/{@code -rff}, guarda los resultados en JSON en
+ * {@code target/jmh-result-<fecha>.json} para poder compararlos entre ejecuciones.
+ */
+public class BenchmarkRunner {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            String extension = commandLine.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase();
+            options.result("target/jmh-result-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + extension);
+        }
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(DataAccessBenchmark.class.getSimpleName());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
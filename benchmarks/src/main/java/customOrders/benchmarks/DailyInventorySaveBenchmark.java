@@ -0,0 +1,129 @@
+package customOrders.benchmarks;
+
+import customOrders.DailyInventory.DailyInventory;
+import customOrders.DailyInventory.DailyInventoryManager;
+import customOrders.PostgresConnector;
+import customOrders.SyntheticDataGenerator;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara el guardado del inventario diario, contra la base de {@link BenchmarkDatabase}:
+ * - ANTES: un UPSERT por fila, cada uno con su propia conexión y en autocommit.
+ * - DESPUÉS: DailyInventoryManager.saveDailyInventory() (una transacción, lotes JDBC).
+ *
+ * Genera ROWS registros repartidos en fechas ficticias a partir de BENCHMARK_START_DATE
+ * (usando los product_id existentes). Antes de cada medición se borran, para que las dos estrategias
+ * inserten filas nuevas en lugar de comparar INSERT contra UPDATE, y al terminar no queda ninguno.
+ *
+ * Uso: {@code java -cp benchmarks/target/benchmarks.jar customOrders.benchmarks.DailyInventorySaveBenchmark}
+ */
+public class DailyInventorySaveBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int RUNS = 3;
+    private static final LocalDate BENCHMARK_START_DATE = LocalDate.of(2999, 1, 1);
+
+    public static void main(String[] args) throws Exception {
+        try (BenchmarkDatabase database = BenchmarkDatabase.start()) {
+            database.seedIfEmpty(new SyntheticDataGenerator.Config(42, LocalDate.of(2025, 12, 31), 1,
+                    5, 4, 50, 2_000, 20, 0, 1, 1));
+            run();
+        }
+    }
+
+    private static void run() throws SQLException {
+        List<Integer> productIds = loadProductIds();
+        if (productIds.isEmpty()) {
+            throw new IllegalStateException("No hay productos en la base de datos: no se puede generar el inventario.");
+        }
+        List<DailyInventory> entries = generateEntries(productIds);
+        DailyInventoryManager manager = new DailyInventoryManager();
+
+        try {
+            // Calentamiento (JIT + pool de conexiones)
+            saveRowByRow(entries.subList(0, 500));
+            manager.saveDailyInventory(entries.subList(0, 500));
+
+            System.out.println("\n--- Guardado de Inventario Diario (" + entries.size() + " filas) ---");
+            for (int run = 1; run <= RUNS; run++) {
+                deleteBenchmarkRows();
+                long start = System.nanoTime();
+                saveRowByRow(entries);
+                printResult("Ejecución " + run + " ANTES   (fila a fila):", entries.size(), System.nanoTime() - start);
+
+                deleteBenchmarkRows();
+                start = System.nanoTime();
+                manager.saveDailyInventory(entries);
+                printResult("Ejecución " + run + " DESPUÉS (lotes, 1 tx):", entries.size(), System.nanoTime() - start);
+            }
+            System.out.println(PostgresConnector.getPoolStats());
+        } finally {
+            System.out.println("Filas de benchmark eliminadas: " + deleteBenchmarkRows());
+        }
+    }
+
+    private static void printResult(String label, int rows, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%s tiempo=%.1f ms, filas/s=%.0f%n", label, nanos / 1_000_000.0, rows / seconds);
+    }
+
+    /**
+     * Reproduce la estrategia anterior: una conexión y un UPSERT (autocommit) por fila.
+     */
+    private static void saveRowByRow(List<DailyInventory> entries) throws SQLException {
+        String sql = "INSERT INTO Daily_Inventory (date_of_inventory, product_id, level) " +
+                "VALUES (?, ?, ?) " +
+                "ON CONFLICT (date_of_inventory, product_id) DO UPDATE SET level = EXCLUDED.level";
+        for (DailyInventory entry : entries) {
+            try (Connection conn = PostgresConnector.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setDate(1, Date.valueOf(entry.getDateOfInventory()));
+                ps.setInt(2, entry.getProductId());
+                ps.setInt(3, entry.getLevel());
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static List<Integer> loadProductIds() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = PostgresConnector.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT product_id FROM Products ORDER BY product_id")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reparte ROWS registros en tantas fechas como hagan falta (la PK es fecha + producto).
+     */
+    private static List<DailyInventory> generateEntries(List<Integer> productIds) {
+        List<DailyInventory> entries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDate date = BENCHMARK_START_DATE.plusDays(i / productIds.size());
+            int productId = productIds.get(i % productIds.size());
+            entries.add(new DailyInventory(date, productId, i % 500));
+        }
+        return entries;
+    }
+
+    private static int deleteBenchmarkRows() throws SQLException {
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM Daily_Inventory WHERE date_of_inventory >= ?")) {
+            ps.setDate(1, Date.valueOf(BENCHMARK_START_DATE));
+            return ps.executeUpdate();
+        }
+    }
+}
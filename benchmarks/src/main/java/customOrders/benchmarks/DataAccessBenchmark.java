@@ -0,0 +1,181 @@
+package customOrders.benchmarks;
+
+import customOrders.DailyInventory.DailyInventory;
+import customOrders.DailyInventory.DailyInventoryManager;
+import customOrders.Orders.CreateOrderManager;
+import customOrders.Orders.ProductInOrder;
+import customOrders.OrdersAdmin.OrdersAdminManager;
+import customOrders.Products.Product;
+import customOrders.Products.ProductCatalogCache;
+import customOrders.Products.ProductManager;
+import customOrders.Products.ProductManager.ProductStock;
+import customOrders.Products.ProductManager.ProductSummary;
+import customOrders.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JMH de los managers de acceso a datos, contra la base de {@link BenchmarkDatabase}.
+ *
+ * - getAllProductsCold / getAllProductsWarm: ProductManager.getAllProducts con la caché del catálogo
+ *   vacía (consulta completa) y ya cargada.
+ * - loadAllOrders: OrdersAdminManager.loadAllOrders (cabeceras + ítems por lotes).
+ * - createOrderAndUpdateStock: un checkout de CART_LINES productos al azar. Escribe en la DB: cada
+ *   invocación crea un pedido y descuenta stock (tras generar los datos el stock se sube a INITIAL_STOCK).
+ * - saveDailyInventory: UPSERT del inventario del día de todos los productos.
+ *
+ * Los datos los crea {@link SyntheticDataGenerator} con los tamaños de los @Param (p.ej.
+ * -p products=20000 -p orders=200000). Sobre una base externa que ya tiene datos no se genera nada y los
+ * tamaños se ignoran.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataAccessBenchmark {
+
+    private static final int CART_LINES = 3;
+    private static final int INITIAL_STOCK = 1_000_000;
+    // Fijo para que los datos no dependan del día de la ejecución
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+
+    @Param("2000")
+    public int products;
+
+    @Param("1000")
+    public int customers;
+
+    @Param("10000")
+    public int orders;
+
+    @Param("5")
+    public int linesPerOrder;
+
+    @Param("30")
+    public int inventoryDays;
+
+    @Param("42")
+    public long seed;
+
+    private BenchmarkDatabase database;
+    private ProductManager productManager;
+    private OrdersAdminManager ordersAdminManager;
+    private CreateOrderManager createOrderManager;
+    private DailyInventoryManager dailyInventoryManager;
+
+    private List<ProductSummary> catalog;
+    private List<DailyInventory> inventoryEntries;
+    private int customerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        SyntheticDataGenerator.Config config = new SyntheticDataGenerator.Config(seed, LAST_DAY, inventoryDays,
+                5, 4, 50, products, customers, orders, linesPerOrder,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+        if (database.seedIfEmpty(config)) {
+            database.setAllStock(INITIAL_STOCK);
+        }
+
+        productManager = new ProductManager();
+        ordersAdminManager = new OrdersAdminManager();
+        createOrderManager = new CreateOrderManager();
+        dailyInventoryManager = new DailyInventoryManager();
+
+        catalog = productManager.getProductSummaries();
+        if (catalog.isEmpty()) {
+            throw new IllegalStateException("La DB de benchmark no tiene productos.");
+        }
+        customerId = database.anyCustomerId();
+
+        LocalDate today = LocalDate.now();
+        List<ProductStock> stocks = dailyInventoryManager.getProductStocks();
+        inventoryEntries = new ArrayList<>(stocks.size());
+        for (ProductStock stock : stocks) {
+            inventoryEntries.add(new DailyInventory(today, stock.productId(), stock.quantity()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    /**
+     * Estado por hilo para elegir los productos del carrito (SplittableRandom no es thread-safe).
+     */
+    @State(Scope.Thread)
+    public static class CartState {
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(DataAccessBenchmark benchmark) {
+            random = new SplittableRandom(benchmark.seed ^ Thread.currentThread().threadId());
+        }
+    }
+
+    @Benchmark
+    public List<Product> getAllProductsCold() throws SQLException {
+        ProductCatalogCache.getInstance().invalidate();
+        return productManager.getAllProducts();
+    }
+
+    @Benchmark
+    public List<Product> getAllProductsWarm() throws SQLException {
+        return productManager.getAllProducts();
+    }
+
+    @Benchmark
+    public List<OrdersAdminManager.Order> loadAllOrders() {
+        return ordersAdminManager.loadAllOrders();
+    }
+
+    @Benchmark
+    public CreateOrderManager.OrderResult createOrderAndUpdateStock(CartState cart) {
+        // Productos distintos, como el carrito de la UI (una línea por producto: UNIQUE(order_id, product_id))
+        int lines = Math.min(CART_LINES, catalog.size());
+        int first = cart.random.nextInt(catalog.size());
+        int step = 1 + cart.random.nextInt(Math.max(1, catalog.size() / lines));
+        List<ProductInOrder> items = new ArrayList<>(lines);
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            ProductSummary product = catalog.get((first + i * step) % catalog.size());
+            items.add(new ProductInOrder(product, 1));
+            total += product.unitPrice();
+        }
+        CreateOrderManager.OrderResult result =
+                createOrderManager.createOrderAndUpdateStock(items, customerId, "Dirección de benchmark", total);
+        // Sin stock (base externa) es un resultado válido; un error de DB no
+        if (result.error() != null) {
+            throw new IllegalStateException("El checkout de benchmark falló: " + result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void saveDailyInventory() throws SQLException {
+        dailyInventoryManager.saveDailyInventory(inventoryEntries);
+    }
+}
@@ -0,0 +1,123 @@
+package customOrders.benchmarks;
+
+import customOrders.OrdersAdmin.OrdersAdminManager;
+import customOrders.OrdersAdmin.OrdersAdminManager.Order;
+import customOrders.PostgresConnector;
+import customOrders.QueryMetrics;
+import customOrders.SyntheticDataGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compara la carga de pedidos, contra la base de {@link BenchmarkDatabase} (se siembran ORDERS pedidos):
+ * - ANTES: una consulta de ítems por pedido (N+1).
+ * - DESPUÉS: OrdersAdminManager.loadAllOrders() con carga de ítems por lotes (order_id = ANY(?)).
+ *
+ * Muestra el número de round-trips de cada estrategia, contados por QueryMetrics (todas las sentencias
+ * ejecutadas en conexiones del pool), y el tiempo de reloj medio de MEASURED_RUNS ejecuciones.
+ *
+ * Uso: {@code java -cp benchmarks/target/benchmarks.jar customOrders.benchmarks.OrdersLoadBenchmark}
+ */
+public class OrdersLoadBenchmark {
+
+    private static final int ORDERS = 50_000;
+    private static final int WARMUP_RUNS = 1;
+    private static final int MEASURED_RUNS = 3;
+
+    private record Result(int orders, long roundTrips, double averageMillis) { }
+
+    private interface Load {
+        int run() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (BenchmarkDatabase database = BenchmarkDatabase.start()) {
+            database.seedIfEmpty(new SyntheticDataGenerator.Config(42, LocalDate.of(2025, 12, 31), 1,
+                    5, 4, 50, 2_000, 5_000, ORDERS, 5, 1));
+            run();
+        }
+    }
+
+    private static void run() throws SQLException {
+        OrdersAdminManager manager = new OrdersAdminManager();
+
+        // Calentamiento (JIT + pool de conexiones)
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            loadWithNPlusOne();
+            manager.loadAllOrders();
+        }
+
+        Result legacy = measure(OrdersLoadBenchmark::loadWithNPlusOne);
+        Result batched = measure(() -> {
+            List<Order> orders = manager.loadAllOrders();
+            return orders.size();
+        });
+
+        System.out.println("\n--- Carga de Pedidos (" + MEASURED_RUNS + " ejecuciones) ---");
+        print("ANTES   (N+1):  ", legacy);
+        print("DESPUÉS (lotes):", batched);
+        System.out.println(PostgresConnector.getPoolStats());
+    }
+
+    private static Result measure(Load load) throws SQLException {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        if (!metrics.isEnabled()) {
+            throw new IllegalStateException("Hace falta customOrders.db.instrumentation=true para contar los round-trips.");
+        }
+        metrics.reset();
+        long nanos = 0;
+        int orders = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            orders = load.run();
+            nanos += System.nanoTime() - start;
+        }
+        long executions = 0;
+        for (QueryMetrics.StatementStats stats : metrics.snapshot().statements()) {
+            executions += stats.executions();
+        }
+        return new Result(orders, executions / MEASURED_RUNS, nanos / (double) MEASURED_RUNS / 1_000_000.0);
+    }
+
+    private static void print(String label, Result r) {
+        System.out.printf("%s pedidos=%d, round-trips=%d, tiempo medio=%.1f ms%n",
+                label, r.orders, r.roundTrips, r.averageMillis);
+    }
+
+    /**
+     * Reproduce la estrategia anterior: una consulta de ítems por pedido.
+     * @return número de pedidos
+     */
+    private static int loadWithNPlusOne() throws SQLException {
+        String SQL_ORDERS = "SELECT o.order_id FROM orders o JOIN customers c ON o.customer_id = c.customer_id " +
+                "ORDER BY o.date_of_order DESC";
+        String SQL_ITEMS = "SELECT pio.product_quantity, p.unit_price, p.product_name " +
+                "FROM products_in_the_order pio " +
+                "JOIN products p ON pio.product_id = p.product_id " +
+                "WHERE pio.order_id = ?";
+
+        int orders = 0;
+        try (Connection conn = PostgresConnector.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SQL_ORDERS);
+             PreparedStatement pstmt = conn.prepareStatement(SQL_ITEMS)) {
+
+            while (rs.next()) {
+                orders++;
+                pstmt.setInt(1, rs.getInt("order_id"));
+                try (ResultSet items = pstmt.executeQuery()) {
+                    while (items.next()) {
+                        items.getString("product_name");
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,151 @@
+package customOrders.benchmarks;
+
+import customOrders.Orders.ProductCardController;
+import customOrders.Orders.ProductGallery;
+import customOrders.Products.ProductManager.ProductSummary;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.TilePane;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark de la galería de productos con PRODUCTS productos sintéticos (no necesita DB):
+ * - ANTES: una tarjeta por producto dentro de un TilePane en un ScrollPane (todas creadas de golpe).
+ *   Es una cota inferior del coste anterior: ya no incluye el parseo de ProductCard.fxml por tarjeta.
+ * - DESPUÉS: ProductGallery (ListView virtualizado que recicla tarjetas).
+ *
+ * Mide el tiempo hasta el primer layout en una escena de SCENE_WIDTH x SCENE_HEIGHT, el heap retenido
+ * y el número de tarjetas creadas. Arranca el toolkit de JavaFX; sin pantalla se ejecuta con Monocle:
+ * {@code java -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw
+ *  -cp benchmarks/target/benchmarks.jar customOrders.benchmarks.ProductGalleryBenchmark}
+ * En Linux el texto de JavaFX necesita libpangoft2 (paquete pango) instalado en el sistema.
+ */
+public class ProductGalleryBenchmark {
+
+    private static final int PRODUCTS = 5_000;
+    private static final double SCENE_WIDTH = 1200;
+    private static final double SCENE_HEIGHT = 800;
+
+    private record Result(long nanos, long heapBytes, int cards) { }
+
+    public static void main(String[] args) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        try {
+            List<ProductSummary> products = generateProducts();
+
+            // Calentamiento (JIT + CSS)
+            onFxThread(() -> eager(products.subList(0, 200)));
+            onFxThread(() -> virtualized(products.subList(0, 200)));
+
+            Result eager = onFxThread(() -> eager(products));
+            Result virtualized = onFxThread(() -> virtualized(products));
+
+            System.out.println("\n--- Galería de Productos (" + PRODUCTS + " productos) ---");
+            print("ANTES   (TilePane):   ", eager);
+            print("DESPUÉS (virtualizada):", virtualized);
+        } finally {
+            // El hilo de JavaFX no es daemon: sin esto la JVM no termina si algo falla
+            Platform.exit();
+        }
+    }
+
+    private static void print(String label, Result r) {
+        System.out.printf("%s tiempo hasta primer layout=%.1f ms, heap retenido=%.1f MB, tarjetas creadas=%d%n",
+                label, r.nanos / 1_000_000.0, r.heapBytes / (1024.0 * 1024.0), r.cards);
+    }
+
+    private static Result eager(List<ProductSummary> products) {
+        long heapBefore = usedHeapAfterGc();
+        long start = System.nanoTime();
+
+        TilePane tilePane = new TilePane(15.0, 15.0);
+        for (ProductSummary product : products) {
+            ProductCardController card = new ProductCardController(null);
+            card.setProductData(product);
+            tilePane.getChildren().add(card.getRoot());
+        }
+        ScrollPane scrollPane = new ScrollPane(tilePane);
+        scrollPane.setFitToWidth(true);
+        Scene scene = layout(scrollPane);
+
+        long nanos = System.nanoTime() - start;
+        long heap = usedHeapAfterGc() - heapBefore;
+        // Mantener viva la escena hasta después de medir el heap
+        Reference.reachabilityFence(scene);
+        return new Result(nanos, heap, tilePane.getChildren().size());
+    }
+
+    private static Result virtualized(List<ProductSummary> products) {
+        long heapBefore = usedHeapAfterGc();
+        long start = System.nanoTime();
+
+        ProductGallery gallery = new ProductGallery(null);
+        gallery.setProducts(products);
+        Scene scene = layout(gallery);
+
+        long nanos = System.nanoTime() - start;
+        long heap = usedHeapAfterGc() - heapBefore;
+        Reference.reachabilityFence(scene);
+        return new Result(nanos, heap, gallery.getCreatedCardCount());
+    }
+
+    private static Scene layout(Parent root) {
+        Scene scene = new Scene(root, SCENE_WIDTH, SCENE_HEIGHT);
+        root.applyCss();
+        root.layout();
+        // Segundo pase: el ListView ajusta columnas al conocer su ancho
+        root.layout();
+        return scene;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<ProductSummary> generateProducts() {
+        List<ProductSummary> products = new ArrayList<>(PRODUCTS);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            products.add(new ProductSummary(i, "Producto " + i, 1.0 + (i % 100), i % 50, null));
+        }
+        return products;
+    }
+
+    private static <T> T onFxThread(Callable<T> work) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                result.set(work.call());
+            } catch (Throwable e) {
+                // Incluye los Error del toolkit (p.ej. falta libpango), que si no dejarían el resultado a null
+                failure.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        if (failure.get() instanceof Exception e) {
+            throw e;
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Falló en el hilo de JavaFX", failure.get());
+        }
+        return result.get();
+    }
+}
@@ -0,0 +1,157 @@
+package customOrders.benchmarks;
+
+import customOrders.PostgresConnector;
+import customOrders.Orders.CreateOrderManager;
+import customOrders.Orders.ProductInOrder;
+import customOrders.Products.Product;
+import customOrders.Products.ProductManager;
+import customOrders.SyntheticDataGenerator;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de contención de la reserva de stock de CreateOrderManager.createOrderAndUpdateStock,
+ * contra la base de {@link BenchmarkDatabase}.
+ *
+ * Crea un producto temporal con INITIAL_STOCK unidades y lanza THREADS hilos que compran
+ * 1 unidad cada vez hasta agotar CHECKOUTS_PER_THREAD intentos (muchos más intentos que stock).
+ * Falla (IllegalStateException, salida distinta de 0) si:
+ * - el número de pedidos creados no es exactamente INITIAL_STOCK (sobreventa o ventas perdidas),
+ * - el stock final no es 0 (nunca puede ser negativo),
+ * - algún intento terminó con error de DB (p.ej. interbloqueos).
+ * Muestra el throughput de pedidos bajo contención. Al terminar borra los pedidos y el producto temporal.
+ *
+ * Uso: {@code java -cp benchmarks/target/benchmarks.jar customOrders.benchmarks.StockContentionBenchmark}
+ */
+public class StockContentionBenchmark {
+
+    private static final int INITIAL_STOCK = 200;
+    private static final int THREADS = 16;
+    private static final int CHECKOUTS_PER_THREAD = 50;
+
+    public static void main(String[] args) throws Exception {
+        try (BenchmarkDatabase database = BenchmarkDatabase.start()) {
+            // Solo hace falta un producto plantilla y un cliente
+            database.seedIfEmpty(new SyntheticDataGenerator.Config(42, LocalDate.of(2025, 12, 31), 1,
+                    2, 2, 5, 50, 20, 0, 1, 1));
+            run(database);
+        }
+    }
+
+    private static void run(BenchmarkDatabase database) throws Exception {
+        ProductManager productManager = new ProductManager();
+        CreateOrderManager orderManager = new CreateOrderManager();
+
+        Product template = productManager.getAllProducts().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("La DB no tiene productos para usar como plantilla."));
+        int customerId = database.anyCustomerId();
+
+        Product product = productManager.insertProduct(new Product(null,
+                template.getProduct_type_code(), template.getSupplier_id(),
+                "Benchmark Contención " + System.currentTimeMillis(), 1.0,
+                "Producto temporal de StockContentionBenchmark", 0, 1, null, 0.0,
+                null, true, INITIAL_STOCK, null));
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ConcurrentLinkedQueue<Integer> orderIds = new ConcurrentLinkedQueue<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<Void>> workers = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                        CreateOrderManager.OrderResult result = orderManager.createOrderAndUpdateStock(
+                                List.of(new ProductInOrder(product, 1)), customerId, "Benchmark", product.getUnit_price());
+                        if (result.isSuccess()) {
+                            created.incrementAndGet();
+                            orderIds.add(result.orderId());
+                        } else if (!result.shortages().isEmpty()) {
+                            outOfStock.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            for (Future<Void> worker : workers) {
+                worker.get(10, TimeUnit.MINUTES);
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            int finalStock = readStock(product.getProduct_id());
+            int attempts = THREADS * CHECKOUTS_PER_THREAD;
+            double seconds = elapsedNanos / 1_000_000_000.0;
+
+            System.out.println("\n--- Contención de Stock (" + THREADS + " hilos, " + attempts + " intentos, stock inicial " + INITIAL_STOCK + ") ---");
+            System.out.printf("Pedidos creados=%d, rechazados sin stock=%d, errores=%d, stock final=%d%n",
+                    created.get(), outOfStock.get(), errors.get(), finalStock);
+            System.out.printf("Tiempo=%.1f ms, intentos/s=%.0f, pedidos/s=%.0f%n",
+                    elapsedNanos / 1_000_000.0, attempts / seconds, created.get() / seconds);
+            System.out.println(PostgresConnector.getPoolStats());
+
+            check(created.get() == INITIAL_STOCK,
+                    "Se crearon " + created.get() + " pedidos con stock inicial " + INITIAL_STOCK);
+            check(finalStock >= 0, "Stock final negativo: " + finalStock);
+            check(finalStock == 0, "Quedó stock sin vender: " + finalStock);
+            check(errors.get() == 0, errors.get() + " intentos terminaron con error de DB");
+            System.out.println("RESULTADO: OK (sin sobreventa)");
+        } finally {
+            pool.shutdownNow();
+            cleanUp(new ArrayList<>(orderIds), product.getProduct_id());
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("RESULTADO: FALLO - " + message);
+        }
+    }
+
+    private static int readStock(int productId) throws SQLException {
+        try (Connection conn = PostgresConnector.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT quantity FROM Products WHERE product_id = ?")) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    private static void cleanUp(List<Integer> orderIds, int productId) throws SQLException {
+        try (Connection conn = PostgresConnector.getConnection()) {
+            Array ids = conn.createArrayOf("integer", orderIds.toArray());
+            try (PreparedStatement items = conn.prepareStatement("DELETE FROM products_in_the_order WHERE order_id = ANY(?)");
+                 PreparedStatement orders = conn.prepareStatement("DELETE FROM orders WHERE order_id = ANY(?)")) {
+                items.setArray(1, ids);
+                items.executeUpdate();
+                orders.setArray(1, ids);
+                orders.executeUpdate();
+            } finally {
+                ids.free();
+            }
+        }
+        new ProductManager().deleteProduct(productId);
+    }
+}
@@ -0,0 +1,182 @@
+-- Esquema de la base de datos (tablas, secuencias y restricciones), extraído de Scripts.7z/1_crear_BD.sql
+-- sin los SET del volcado ni los datos. Lo usan los benchmarks para crear la base embebida.
+
+CREATE TABLE customers (
+    customer_id integer NOT NULL,
+    first_name character varying(100) NOT NULL,
+    last_name character varying(100) NOT NULL,
+    email character varying(255) NOT NULL,
+    phone_number character varying(20),
+    date_joined date,
+    address character varying(255)
+);
+
+CREATE SEQUENCE customers_customer_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE customers_customer_id_seq OWNED BY customers.customer_id;
+
+CREATE TABLE daily_inventory (
+    date_of_inventory date CONSTRAINT daily_inventory_levels_date_of_inventory_not_null NOT NULL,
+    product_id integer CONSTRAINT daily_inventory_levels_product_id_not_null NOT NULL,
+    level integer CONSTRAINT daily_inventory_levels_level_not_null NOT NULL,
+    CONSTRAINT chk_inventory_level CHECK ((level >= 0))
+);
+
+CREATE TABLE orders (
+    order_id integer NOT NULL,
+    customer_id integer NOT NULL,
+    date_of_order date NOT NULL,
+    order_status character varying(50) NOT NULL,
+    total_amount numeric(10,2) NOT NULL,
+    shipping_address character varying(255) NOT NULL,
+    CONSTRAINT chk_order_status CHECK (((order_status)::text = ANY ((ARRAY['Pendiente'::character varying, 'Procesando'::character varying, 'Enviado'::character varying, 'Entregado'::character varying, 'Cancelado'::character varying])::text[]))),
+    CONSTRAINT chk_total_amount CHECK ((total_amount >= (0)::numeric))
+);
+
+CREATE SEQUENCE orders_order_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE orders_order_id_seq OWNED BY orders.order_id;
+
+CREATE TABLE product_types (
+    product_type_code character varying(10) NOT NULL,
+    parent_product_type_code character varying(10),
+    product_type_name character varying(100) CONSTRAINT product_types_product_type_description_not_null NOT NULL
+);
+
+CREATE TABLE products (
+    product_id integer NOT NULL,
+    product_type_code character varying(10) NOT NULL,
+    supplier_id integer,
+    product_name character varying(100) NOT NULL,
+    unit_price numeric(10,2) NOT NULL,
+    product_description character varying(500),
+    reorder_level integer NOT NULL,
+    reorder_quantity integer NOT NULL,
+    other_details character varying(255),
+    weight_kg numeric(8,2),
+    date_added date DEFAULT CURRENT_DATE NOT NULL,
+    is_active boolean DEFAULT true NOT NULL,
+    quantity integer CONSTRAINT "products_Quanity_not_null" NOT NULL,
+    image_url character varying(500),
+    CONSTRAINT chk_reorder_level CHECK ((reorder_level >= 0)),
+    CONSTRAINT chk_reorder_quantity CHECK ((reorder_quantity > 0)),
+    CONSTRAINT chk_unit_price CHECK ((unit_price > (0)::numeric))
+);
+
+CREATE TABLE products_in_the_order (
+    order_item_id integer NOT NULL,
+    order_id integer NOT NULL,
+    product_id integer NOT NULL,
+    product_quantity integer NOT NULL,
+    item_unit_price double precision,
+    CONSTRAINT chk_product_quantity CHECK ((product_quantity > 0))
+);
+
+CREATE SEQUENCE products_in_the_order_order_item_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE products_in_the_order_order_item_id_seq OWNED BY products_in_the_order.order_item_id;
+
+CREATE SEQUENCE products_product_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE products_product_id_seq OWNED BY products.product_id;
+
+CREATE TABLE suppliers (
+    supplier_id integer NOT NULL,
+    supplier_name character varying(200) NOT NULL,
+    contact_name character varying(100),
+    phone character varying(20),
+    address character varying(255),
+    email character varying(255)
+);
+
+CREATE SEQUENCE suppliers_supplier_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE suppliers_supplier_id_seq OWNED BY suppliers.supplier_id;
+
+ALTER TABLE ONLY customers ALTER COLUMN customer_id SET DEFAULT nextval('customers_customer_id_seq'::regclass);
+
+ALTER TABLE ONLY orders ALTER COLUMN order_id SET DEFAULT nextval('orders_order_id_seq'::regclass);
+
+ALTER TABLE ONLY products ALTER COLUMN product_id SET DEFAULT nextval('products_product_id_seq'::regclass);
+
+ALTER TABLE ONLY products_in_the_order ALTER COLUMN order_item_id SET DEFAULT nextval('products_in_the_order_order_item_id_seq'::regclass);
+
+ALTER TABLE ONLY suppliers ALTER COLUMN supplier_id SET DEFAULT nextval('suppliers_supplier_id_seq'::regclass);
+
+ALTER TABLE ONLY customers
+    ADD CONSTRAINT customers_email_key UNIQUE (email);
+
+ALTER TABLE ONLY customers
+    ADD CONSTRAINT customers_pkey PRIMARY KEY (customer_id);
+
+ALTER TABLE ONLY daily_inventory
+    ADD CONSTRAINT daily_inventory_levels_pkey PRIMARY KEY (date_of_inventory, product_id);
+
+ALTER TABLE ONLY orders
+    ADD CONSTRAINT orders_pkey PRIMARY KEY (order_id);
+
+ALTER TABLE ONLY product_types
+    ADD CONSTRAINT product_types_pkey PRIMARY KEY (product_type_code);
+
+ALTER TABLE ONLY products_in_the_order
+    ADD CONSTRAINT products_in_the_order_pkey PRIMARY KEY (order_item_id);
+
+ALTER TABLE ONLY products
+    ADD CONSTRAINT products_pkey PRIMARY KEY (product_id);
+
+ALTER TABLE ONLY suppliers
+    ADD CONSTRAINT suppliers_pkey PRIMARY KEY (supplier_id);
+
+ALTER TABLE ONLY products_in_the_order
+    ADD CONSTRAINT uq_order_product UNIQUE (order_id, product_id);
+
+ALTER TABLE ONLY daily_inventory
+    ADD CONSTRAINT daily_inventory_levels_product_id_fkey FOREIGN KEY (product_id) REFERENCES products(product_id);
+
+ALTER TABLE ONLY orders
+    ADD CONSTRAINT orders_customer_id_fkey FOREIGN KEY (customer_id) REFERENCES customers(customer_id);
+
+ALTER TABLE ONLY product_types
+    ADD CONSTRAINT product_types_parent_product_type_code_fkey FOREIGN KEY (parent_product_type_code) REFERENCES product_types(product_type_code);
+
+ALTER TABLE ONLY products_in_the_order
+    ADD CONSTRAINT products_in_the_order_order_id_fkey FOREIGN KEY (order_id) REFERENCES orders(order_id);
+
+ALTER TABLE ONLY products_in_the_order
+    ADD CONSTRAINT products_in_the_order_product_id_fkey FOREIGN KEY (product_id) REFERENCES products(product_id);
+
+ALTER TABLE ONLY products
+    ADD CONSTRAINT products_product_type_code_fkey FOREIGN KEY (product_type_code) REFERENCES product_types(product_type_code);
+
+ALTER TABLE ONLY products
+    ADD CONSTRAINT products_supplier_id_fkey FOREIGN KEY (supplier_id) REFERENCES suppliers(supplier_id);